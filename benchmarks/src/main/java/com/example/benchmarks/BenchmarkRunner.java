@@ -0,0 +1,20 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of benchmarks.jar: the usual JMH command line, with the GC profiler always attached so
+// every run reports allocation per operation (gc.alloc.rate.norm) next to throughput and the latency
+// percentiles from SampleTime. java -jar target/benchmarks.jar ItemConversion -p pageSize=50
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
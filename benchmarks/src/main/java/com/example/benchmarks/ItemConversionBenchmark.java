@@ -0,0 +1,110 @@
+package com.example.benchmarks;
+
+import com.example.model.JournalEntry;
+import com.example.model.Message;
+import com.example.model.PageResponse;
+import com.example.util.ResponseUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Turning one page of DynamoDB items into the list response body. "maps" is the per-item HashMap
+// conversion the message and search handlers used before the model records (convertItemToMessageMap,
+// convertJournal); "records" goes through fromItem and the precomputed PAGE_WRITER; "itemJson" is the
+// ItemJsonWriter path the list handlers use now.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ItemConversionBenchmark {
+    @Param({"1", "50", "100"})
+    int pageSize;
+
+    List<Map<String, AttributeValue>> messages;
+    List<Map<String, AttributeValue>> journals;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        messages = Payloads.messageItems(pageSize);
+        journals = Payloads.journalItems(pageSize);
+    }
+
+    @Benchmark
+    public Map<String, Object> messagesMaps() {
+        List<Map<String, Object>> page = messages.stream()
+            .map(ItemConversionBenchmark::convertItemToMessageMap)
+            .collect(Collectors.toList());
+        return ResponseUtils.successResponse(200, page);
+    }
+
+    @Benchmark
+    public Map<String, Object> messagesRecords() {
+        List<Message> page = messages.stream().map(Message::fromItem).collect(Collectors.toList());
+        return ResponseUtils.jsonResponse(200, Message.PAGE_WRITER, new PageResponse<>(page, null));
+    }
+
+    @Benchmark
+    public Map<String, Object> messagesItemJson() {
+        return ResponseUtils.rawJsonResponse(200, Message.ITEM_JSON.writePage(messages, null));
+    }
+
+    @Benchmark
+    public Map<String, Object> journalsMaps() {
+        List<Map<String, String>> page = journals.stream()
+            .map(ItemConversionBenchmark::convertJournal)
+            .collect(Collectors.toList());
+        return ResponseUtils.successResponse(200, page);
+    }
+
+    @Benchmark
+    public Map<String, Object> journalsRecords() {
+        List<JournalEntry> page = journals.stream().map(JournalEntry::fromItem).collect(Collectors.toList());
+        return ResponseUtils.jsonResponse(200, JournalEntry.PAGE_WRITER, new PageResponse<>(page, null));
+    }
+
+    @Benchmark
+    public Map<String, Object> journalsItemJson() {
+        return ResponseUtils.rawJsonResponse(200, JournalEntry.ITEM_JSON.writePage(journals, null));
+    }
+
+    // Baselines, as the handlers had them
+    private static Map<String, Object> convertItemToMessageMap(Map<String, AttributeValue> item) {
+        Map<String, Object> messageMap = new HashMap<>();
+        messageMap.put("messageId", item.get("messageId").s());
+        messageMap.put("senderId", item.get("senderId").s());
+        messageMap.put("recipientId", item.get("recipientId").s());
+        messageMap.put("content", item.get("content").s());
+        messageMap.put("timestamp", item.get("timestamp").s());
+        messageMap.put("status", item.get("status").s());
+        return messageMap;
+    }
+
+    private static Map<String, String> convertJournal(Map<String, AttributeValue> item) {
+        return Map.of(
+            "journalEntryId", item.get("JournalEntryId").s(),
+            "clientId", item.get("ClientId").s(),
+            "content", item.get("content").s(),
+            "date", item.get("date").s(),
+            "feeling", item.get("feeling").s(),
+            "intensity", item.get("intensity").n()
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.benchmarks;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Deterministic fixtures sized like production traffic: messages are chat-length (~280 characters),
+// journal entries a few paragraphs (~1500), and pages run up to Pagination.MAX_LIMIT items.
+final class Payloads {
+    static final int MESSAGE_LENGTH = 280;
+    static final int JOURNAL_LENGTH = 1500;
+
+    private static final String[] FEELINGS = {"calm", "anxious", "hopeful", "tired", "frustrated", "grateful"};
+    private static final String WORDS = "today I noticed that the breathing exercise helped when the meeting ran "
+        + "late and I felt the familiar tightness again but this time I named it and let it pass ";
+
+    private Payloads() {
+    }
+
+    static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            int start = random.nextInt(WORDS.length() / 2);
+            text.append(WORDS, start, Math.min(WORDS.length(), start + 40));
+        }
+        return text.substring(0, length);
+    }
+
+    static List<Map<String, AttributeValue>> messageItems(int count) {
+        Random random = new Random(42);
+        List<Map<String, AttributeValue>> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("conversationId", s("client-0001#therapist-0001"));
+            item.put("sortKey", s(String.format("2024-03-05T10:%02d:%02d.000Z#msg-%06d", i / 60 % 60, i % 60, i)));
+            item.put("messageId", s(String.format("msg-%06d", i)));
+            item.put("senderId", s(i % 2 == 0 ? "client-0001" : "therapist-0001"));
+            item.put("recipientId", s(i % 2 == 0 ? "therapist-0001" : "client-0001"));
+            item.put("content", s(text(random, MESSAGE_LENGTH)));
+            item.put("timestamp", s(String.format("2024-03-05T10:%02d:%02dZ", i / 60 % 60, i % 60)));
+            item.put("status", s(i % 3 == 0 ? "unread" : "read"));
+            item.put("changedAt", s(String.format("2024-03-05T10:%02d:%02d.000Z#msg-%06d", i / 60 % 60, i % 60, i)));
+            items.add(item);
+        }
+        return items;
+    }
+
+    static List<Map<String, AttributeValue>> journalItems(int count) {
+        Random random = new Random(7);
+        List<Map<String, AttributeValue>> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String date = String.format("2024-%02d-%02d", i / 28 % 12 + 1, i % 28 + 1);
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("ClientId", s("client-0001"));
+            item.put("JournalEntryId", s(String.format("entry-%06d", i)));
+            item.put("date", s(date));
+            item.put("time", s("21:30"));
+            item.put("Date", s(date + "#21:30"));
+            item.put("content", s(text(random, JOURNAL_LENGTH)));
+            item.put("feeling", s(FEELINGS[i % FEELINGS.length]));
+            item.put("intensity", AttributeValue.builder().n(Integer.toString(i % 10 + 1)).build());
+            item.put("changedAt", s(date + "T21:30:00.000Z#entry-" + i));
+            items.add(item);
+        }
+        return items;
+    }
+
+    // API Gateway proxy event for POST /journal/clients/{clientId}/entries
+    static Map<String, Object> createJournalEvent() {
+        String body = "{\"date\":\"2024-03-05\",\"time\":\"21:30\",\"content\":\""
+            + text(new Random(3), JOURNAL_LENGTH) + "\",\"feeling\":\"hopeful\",\"intensity\":6}";
+        Map<String, Object> event = new HashMap<>();
+        event.put("httpMethod", "POST");
+        event.put("path", "/journal/clients/client-0001/entries");
+        event.put("pathParameters", Map.of("clientId", "client-0001"));
+        event.put("headers", Map.of("Content-Type", "application/json"));
+        event.put("body", body);
+        return event;
+    }
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+}
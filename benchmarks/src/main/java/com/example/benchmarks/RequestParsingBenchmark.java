@@ -0,0 +1,47 @@
+package com.example.benchmarks;
+
+import com.example.model.ApiGatewayEvent;
+import com.example.model.JournalEntry;
+import com.example.util.ResponseUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Reading a create-journal-entry request: parseBody into an untyped Map, as most handlers still do,
+// against binding the body straight to the record with its precomputed reader.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class RequestParsingBenchmark {
+    Map<String, Object> event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        event = Payloads.createJournalEvent();
+    }
+
+    @Benchmark
+    public Map<String, Object> parseBody() throws IOException {
+        return ResponseUtils.parseBody(event);
+    }
+
+    @Benchmark
+    public JournalEntry typedBody() throws IOException {
+        return ApiGatewayEvent.from(event).body(JournalEntry.READER);
+    }
+}
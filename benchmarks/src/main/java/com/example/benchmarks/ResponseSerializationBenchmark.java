@@ -0,0 +1,60 @@
+package com.example.benchmarks;
+
+import com.example.model.JournalEntry;
+import com.example.util.ResponseUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Single-object responses: the untyped successResponse(Map) most handlers return, the typed
+// jsonResponse with a precomputed writer, and errorResponse, which every failure path goes through.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ResponseSerializationBenchmark {
+    JournalEntry entry;
+    Map<String, Object> entryMap;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entry = JournalEntry.fromItem(Payloads.journalItems(1).get(0));
+        entryMap = new HashMap<>();
+        entryMap.put("ClientId", entry.clientId());
+        entryMap.put("JournalEntryId", entry.journalEntryId());
+        entryMap.put("date", entry.date());
+        entryMap.put("time", entry.time());
+        entryMap.put("content", entry.content());
+        entryMap.put("feeling", entry.feeling());
+        entryMap.put("intensity", entry.intensity());
+    }
+
+    @Benchmark
+    public Map<String, Object> successResponseMap() {
+        return ResponseUtils.successResponse(200, entryMap);
+    }
+
+    @Benchmark
+    public Map<String, Object> jsonResponseTyped() {
+        return ResponseUtils.jsonResponse(200, JournalEntry.WRITER, entry);
+    }
+
+    @Benchmark
+    public Map<String, Object> errorResponse() {
+        return ResponseUtils.errorResponse(404, "Journal entry not found");
+    }
+}
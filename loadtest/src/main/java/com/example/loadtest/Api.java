@@ -0,0 +1,97 @@
+package com.example.loadtest;
+
+import com.example.handlers.router.ApiRouterHandler;
+import com.example.handlers.sessions.ApproveAppointmentHandler;
+import com.example.util.ResponseUtils;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// Invokes the service in-process with API Gateway proxy events. Routed requests go through
+// ApiRouterHandler, so they take the same dispatch path as router mode; appointment approval has no
+// API route and is invoked directly, as its function is. Every call is timed under its route template.
+final class Api {
+    private final ApiRouterHandler router = new ApiRouterHandler();
+    private final ApproveAppointmentHandler approveAppointment = new ApproveAppointmentHandler();
+
+    record Response(int statusCode, Map<String, Object> body) {
+        boolean ok() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+
+        String string(String field) {
+            Object value = body.get(field);
+            return value != null ? value.toString() : null;
+        }
+    }
+
+    Response call(String method, String template, Map<String, String> pathParameters,
+                  Map<String, String> queryParameters, Object body) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("httpMethod", method);
+        event.put("path", path(template, pathParameters));
+        event.put("queryStringParameters", queryParameters.isEmpty() ? null : queryParameters);
+        event.put("headers", Map.of("Content-Type", "application/json"));
+        event.put("body", json(body));
+        return invoke(method + " " + template, router, event);
+    }
+
+    Response approveAppointment(String therapistId, String appointmentRequestId, String action) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("pathParameters", Map.of("therapistId", therapistId, "appointmentRequestId", appointmentRequestId));
+        event.put("body", json(Map.of("action", action, "notes", "")));
+        return invoke("INVOKE ApproveAppointmentHandler", approveAppointment, event);
+    }
+
+    private static Response invoke(String route, RequestHandler<Map<String, Object>, Map<String, Object>> handler,
+                                   Map<String, Object> event) {
+        RouteStats.Route stats = RouteStats.enter(route);
+        long start = System.nanoTime();
+        int statusCode = 500;
+        try {
+            Map<String, Object> response = handler.handleRequest(event, new LocalContext("loadtest"));
+            statusCode = ((Number) response.get("statusCode")).intValue();
+            return new Response(statusCode, parse((String) response.get("body")));
+        } finally {
+            RouteStats.exit(stats, System.nanoTime() - start, statusCode);
+        }
+    }
+
+    private static String path(String template, Map<String, String> pathParameters) {
+        String path = template;
+        for (Map.Entry<String, String> parameter : pathParameters.entrySet()) {
+            path = path.replace("{" + parameter.getKey() + "}",
+                URLEncoder.encode(parameter.getValue(), StandardCharsets.UTF_8));
+        }
+        return path;
+    }
+
+    private static String json(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return ResponseUtils.MAPPER.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parse(String body) {
+        if (body == null || body.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            Object parsed = ResponseUtils.MAPPER.readValue(body, Object.class);
+            return parsed instanceof Map ? (Map<String, Object>) parsed : Map.of("items", parsed);
+        } catch (JsonProcessingException e) {
+            return Map.of("raw", body);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.loadtest;
+
+import com.example.util.BatchWrites;
+import com.example.util.ClientSearchIndex;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.Pagination;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Fixed-size comparisons a timed mix can't show. Each point seeds its own data, runs --rounds
+// operations one after another and reports latency and DynamoDB requests per operation, so the
+// numbers show how a handler scales with the data behind it rather than with concurrency.
+final class Benchmarks {
+    static final int[] CASELOAD_SIZES = {10, 100, 1_000};
+    private static final int CASELOAD_ENTRIES_PER_CLIENT = 2;
+    private static final String CASELOAD_QUERY = "breathing";
+    static final int[] CLIENT_SEARCH_SIZES = {10_000, 100_000, 1_000_000};
+
+    record Point(String name, int operations, int pages, long dynamoDbRequests,
+                 double p50Millis, double p95Millis, double maxMillis) {}
+
+    private final Api api;
+    private final Fixtures fixtures;
+    private final Options options;
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    Benchmarks(Api api, Fixtures fixtures, Options options) {
+        this.api = api;
+        this.fixtures = fixtures;
+        this.options = options;
+    }
+
+    // Therapist search over a caseload of 10, 100 and 1,000 mapped clients, walking every page.
+    // The journals leg queries each mapped client, so its cost grows with the caseload.
+    List<Point> caseload() {
+        Random random = new Random(1);
+        List<String> caseload = new ArrayList<>();
+        for (int i = 0; i < CASELOAD_SIZES[CASELOAD_SIZES.length - 1]; i++) {
+            String clientId = fixtures.createClient(api, "caseload" + i + "@example.com", "Caseload " + i);
+            for (int j = 0; j < CASELOAD_ENTRIES_PER_CLIENT; j++) {
+                fixtures.createJournalEntry(api, random, clientId);
+            }
+            caseload.add(clientId);
+        }
+
+        List<Point> points = new ArrayList<>();
+        for (int size : CASELOAD_SIZES) {
+            String therapistId = createTherapist("caseload" + size);
+            map(therapistId, caseload.subList(0, size));
+
+            RouteStats stats = RouteStats.begin();
+            RouteStats.Route searches = stats.route("therapist search, " + size + " mapped clients");
+            int pages = 0;
+            for (int round = 0; round < options.rounds; round++) {
+                long start = System.nanoTime();
+                pages += searchAllPages(therapistId);
+                searches.record(System.nanoTime() - start, 200);
+            }
+            stats.end();
+            points.add(new Point(searches.name, options.rounds, pages, stats.dynamoDbRequests(),
+                searches.percentileMillis(50), searches.percentileMillis(95), searches.percentileMillis(100)));
+        }
+        return points;
+    }
+
+    // The Clients scan with a contains filter that client search used before ClientSearchIndex, next to
+    // ClientSearchIndex.search, on 10k, 100k and 1M clients. Both look up an email prefix such as
+    // "client4242" and stop at one page of matches. The seed is written straight to the tables, as the
+    // handlers would take hours to create a million clients.
+    List<Point> clientSearch() throws Exception {
+        Random random = new Random(1);
+        List<Point> points = new ArrayList<>();
+        int seeded = 0;
+        for (int size : CLIENT_SEARCH_SIZES) {
+            seedSearchClients(seeded, size);
+            seeded = size;
+
+            points.add(measure("client search scan (contains), " + size + " clients",
+                () -> scanClients("client" + random.nextInt(size))));
+            points.add(measure("client search index (ClientSearchIndex), " + size + " clients",
+                () -> ClientSearchIndex.search(dynamoDb, "client" + random.nextInt(size),
+                    Pagination.DEFAULT_LIMIT, null).items().size()));
+        }
+        return points;
+    }
+
+    // Runs --rounds operations one after another; each returns its number of results
+    private Point measure(String name, Supplier<Integer> operation) {
+        RouteStats stats = RouteStats.begin();
+        RouteStats.Route route = stats.route(name);
+        for (int round = 0; round < options.rounds; round++) {
+            long start = System.nanoTime();
+            operation.get();
+            route.record(System.nanoTime() - start, 200);
+        }
+        stats.end();
+        return new Point(name, options.rounds, options.rounds, stats.dynamoDbRequests(),
+            route.percentileMillis(50), route.percentileMillis(95), route.percentileMillis(100));
+    }
+
+    // Pages through the scan until a page of matches is found, which the old single Scan call only did
+    // when the matches happened to sit in its first megabyte
+    private int scanClients(String query) {
+        int matches = 0;
+        Map<String, AttributeValue> startKey = null;
+        do {
+            ScanResponse response = dynamoDb.scan(ScanRequest.builder()
+                .tableName(System.getenv("CLIENTS_TABLE"))
+                .filterExpression("contains(#n, :query) OR contains(#e, :query)")
+                .expressionAttributeNames(Map.of(
+                    "#n", "name",
+                    "#e", "email"))
+                .expressionAttributeValues(Map.of(":query", AttributeValue.builder().s(query).build()))
+                .exclusiveStartKey(startKey)
+                .build());
+            matches += response.items().size();
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                ? response.lastEvaluatedKey() : null;
+        } while (startKey != null && matches < Pagination.DEFAULT_LIMIT);
+        return matches;
+    }
+
+    // Clients from..to-1 with every Clients attribute the scan reads, and only the index rows for the
+    // email-prefix terms the benchmark queries. A Query reads one term's partition, so the other terms'
+    // rows would not change what is measured, only multiply the seeding time.
+    private void seedSearchClients(int from, int to) throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(options.threads);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int start = from; start < to; start += BatchWrites.MAX_BATCH_SIZE) {
+                int first = start;
+                int last = Math.min(start + BatchWrites.MAX_BATCH_SIZE, to);
+                chunks.add(writers.submit(() -> {
+                    List<WriteRequest> clients = new ArrayList<>();
+                    List<WriteRequest> terms = new ArrayList<>();
+                    for (int i = first; i < last; i++) {
+                        String clientId = "search-client-" + i;
+                        String name = "Client " + i;
+                        String email = "client" + i + "@example.com";
+                        clients.add(put(Map.of(
+                            "ClientId", AttributeValue.builder().s(clientId).build(),
+                            "name", AttributeValue.builder().s(name).build(),
+                            "email", AttributeValue.builder().s(email).build())));
+                        for (String term : ClientSearchIndex.terms(name, email)) {
+                            if (term.matches("client[0-9]+")) {
+                                terms.add(put(Map.of(
+                                    "term", AttributeValue.builder().s(term).build(),
+                                    "ClientId", AttributeValue.builder().s(clientId).build(),
+                                    "name", AttributeValue.builder().s(name).build(),
+                                    "email", AttributeValue.builder().s(email).build())));
+                            }
+                        }
+                    }
+                    BatchWrites.writeBatch(dynamoDb, System.getenv("CLIENTS_TABLE"), clients);
+                    BatchWrites.writeAll(dynamoDb, ClientSearchIndex.tableName(), terms);
+                    return null;
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    private static WriteRequest put(Map<String, AttributeValue> item) {
+        return WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build();
+    }
+
+    private int searchAllPages(String therapistId) {
+        int pages = 0;
+        String nextToken = null;
+        do {
+            Map<String, String> query = new HashMap<>();
+            query.put("query", CASELOAD_QUERY);
+            if (nextToken != null) {
+                query.put("nextToken", nextToken);
+            }
+            Api.Response response = api.call("GET", "/therapists/{therapistId}/search",
+                Map.of("therapistId", therapistId), query, null);
+            if (!response.ok()) {
+                throw new IllegalStateException("Search failed: " + response.statusCode() + " " + response.body());
+            }
+            pages++;
+            nextToken = response.string("nextToken");
+        } while (nextToken != null);
+        return pages;
+    }
+
+    private String createTherapist(String name) {
+        Api.Response response = api.call("POST", "/therapists", Map.of(), Map.of(), Map.of(
+            "email", name + "@example.com",
+            "name", name,
+            "location", Fixtures.LOCATIONS[0],
+            "expertise", Fixtures.EXPERTISE[0]));
+        if (!response.ok()) {
+            throw new IllegalStateException("Seeding failed to create therapist: " + response.statusCode()
+                + " " + response.body());
+        }
+        return response.string("therapistId");
+    }
+
+    // Written straight to MappedTherapists, as ApproveRejectMappingHandler does on approval; going through
+    // the request and approval routes would only add two calls per client to the seeding time
+    private void map(String therapistId, List<String> clientIds) {
+        Instant mappedAt = Instant.now();
+        for (int i = 0; i < clientIds.size(); i++) {
+            dynamoDb.putItem(PutItemRequest.builder()
+                .tableName(System.getenv("MAPPED_THERAPISTS_TABLE"))
+                .item(Map.of(
+                    "ClientId", AttributeValue.builder().s(clientIds.get(i)).build(),
+                    "TherapistId", AttributeValue.builder().s(therapistId).build(),
+                    "mappedAt", AttributeValue.builder().s(mappedAt.plusMillis(i).toString()).build()))
+                .build());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.loadtest;
+
+import com.example.util.DynamoDbMetrics;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+
+// Registered for every SDK client through software/amazon/awssdk/global/handlers/execution.interceptors,
+// so requests and consumed capacity are attributed to the route being driven without any change to the service code.
+// The service client already asks for TOTAL consumed capacity (DynamoDbMetrics); global interceptors run
+// before it, so the request is marked here as well.
+public class CapacityInterceptor implements ExecutionInterceptor {
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        return DynamoDbMetrics.withConsumedCapacity(context.request());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        RouteStats.recordRequest();
+        for (ConsumedCapacity capacity : DynamoDbMetrics.consumedCapacity(context.response())) {
+            if (capacity.capacityUnits() != null) {
+                RouteStats.recordCapacity(capacity.tableName(), capacity.capacityUnits());
+            }
+        }
+    }
+}
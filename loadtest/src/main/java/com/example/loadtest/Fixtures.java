@@ -0,0 +1,133 @@
+package com.example.loadtest;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Seed data, written through the handlers so derived tables (search index, availability calendar,
+// mood rollups, inboxes) are filled the way production fills them.
+final class Fixtures {
+    static final String[] LOCATIONS = {"london", "manchester", "leeds", "bristol", "glasgow", "cardiff"};
+    static final String[] EXPERTISE = {"anxiety", "depression", "trauma", "couples", "grief", "addiction"};
+    static final String[] FEELINGS = {"calm", "anxious", "hopeful", "tired", "frustrated", "grateful"};
+    private static final int SLOTS_PER_DAY = 8; // 09:00-17:00, 50 minutes plus a 10 minute break
+
+    final List<String> therapists = new CopyOnWriteArrayList<>();
+    final List<String> clients = new CopyOnWriteArrayList<>();
+    // Slots nobody has booked yet, per therapist; booking workloads take from here
+    final Map<String, Queue<String>> openSlots = new ConcurrentHashMap<>();
+    final Map<String, List<String>> journalEntries = new ConcurrentHashMap<>();
+
+    void seed(Api api, Options options) {
+        Random random = new Random(1);
+        for (int i = 0; i < options.therapists; i++) {
+            Api.Response response = api.call("POST", "/therapists", Map.of(), Map.of(), Map.of(
+                "email", "therapist" + i + "@example.com",
+                "name", "Therapist " + i,
+                "location", LOCATIONS[i % LOCATIONS.length],
+                "expertise", EXPERTISE[i % EXPERTISE.length]));
+            require(response, "create therapist");
+            String therapistId = response.string("therapistId");
+            therapists.add(therapistId);
+            openSlots.put(therapistId, new ConcurrentLinkedQueue<>());
+            addSlots(api, therapistId, options.slotsPerTherapist);
+        }
+
+        for (int i = 0; i < options.clients; i++) {
+            String clientId = createClient(api, "client" + i + "@example.com", "Client " + i);
+            clients.add(clientId);
+
+            for (int j = 0; j < options.journalEntriesPerClient; j++) {
+                createJournalEntry(api, random, clientId);
+            }
+            String therapistId = therapists.get(i % therapists.size());
+            for (int j = 0; j < options.messagesPerClient; j++) {
+                sendMessage(api, random, j % 2 == 0 ? clientId : therapistId, j % 2 == 0 ? therapistId : clientId);
+            }
+        }
+    }
+
+    String createClient(Api api, String email, String name) {
+        Api.Response response = api.call("POST", "/clients", Map.of(), Map.of(), Map.of(
+            "email", email,
+            "name", name));
+        require(response, "create client");
+        String clientId = response.string("clientId");
+        journalEntries.put(clientId, new CopyOnWriteArrayList<>());
+        return clientId;
+    }
+
+    // Weekday slots from tomorrow on, enough days for the requested count
+    void addSlots(Api api, String therapistId, int count) {
+        LocalDate start = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        int days = (count + SLOTS_PER_DAY - 1) / SLOTS_PER_DAY;
+        Map<String, Object> body = new HashMap<>();
+        body.put("startDate", start.toString());
+        body.put("endDate", start.plusDays(days * 7L / 5 + 2).toString());
+        body.put("slotMinutes", 50);
+        body.put("breakMinutes", 10);
+        body.put("weekly", List.of(Map.of(
+            "days", List.of("MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY"),
+            "startTime", "09:00",
+            "endTime", "17:00")));
+        Api.Response response = api.call("POST", "/therapists/{therapistId}/session-slots/bulk",
+            Map.of("therapistId", therapistId), Map.of(), body);
+        require(response, "create slots");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> slots = (List<Map<String, Object>>) response.body().get("slots");
+        slots.stream().limit(count).forEach(slot -> openSlots.get(therapistId).add(slot.get("slotId").toString()));
+    }
+
+    String createJournalEntry(Api api, Random random, String clientId) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("date", LocalDate.now(ZoneOffset.UTC).minusDays(random.nextInt(90)).toString());
+        body.put("time", String.format("%02d:%02d", 7 + random.nextInt(15), random.nextInt(60)));
+        body.put("content", text(random, 200 + random.nextInt(1500)));
+        body.put("feeling", FEELINGS[random.nextInt(FEELINGS.length)]);
+        body.put("intensity", 1 + random.nextInt(10));
+        Api.Response response = api.call("POST", "/journal/clients/{clientId}/entries",
+            Map.of("clientId", clientId), Map.of(), body);
+        String entryId = response.ok() ? response.string("JournalEntryId") : null;
+        if (entryId != null) {
+            journalEntries.get(clientId).add(entryId);
+        }
+        return entryId;
+    }
+
+    String sendMessage(Api api, Random random, String senderId, String recipientId) {
+        Api.Response response = api.call("POST", "/messages", Map.of(), Map.of(), Map.of(
+            "senderId", senderId,
+            "recipientId", recipientId,
+            "content", text(random, 20 + random.nextInt(260))));
+        return response.ok() ? response.string("messageId") : null;
+    }
+
+    <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    static String text(Random random, int length) {
+        String words = "today I noticed that the breathing exercise helped when the meeting ran late and I felt "
+            + "the familiar tightness again but this time I named it and let it pass ";
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            int start = random.nextInt(words.length() / 2);
+            text.append(words, start, Math.min(words.length(), start + 40));
+        }
+        return text.substring(0, length);
+    }
+
+    private static void require(Api.Response response, String action) {
+        if (!response.ok()) {
+            throw new IllegalStateException("Seeding failed to " + action + ": " + response.statusCode()
+                + " " + response.body());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.loadtest;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Load test of the service handlers against DynamoDB Local.
+//   java -jar loadtest.jar --template=../cdk.out/TherapyServiceStack.template.json --scenario=mixed
+// The handlers read table names from environment variables, which a running JVM can't change, so this
+// process only recreates the tables and then runs the workload in a child JVM started with the
+// router function's environment pointed at DynamoDB Local.
+public class LoadTest {
+    private static final String REGION = "us-east-1";
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (options.worker) {
+            runWorkload(options);
+        } else {
+            System.exit(launchWorker(options, args));
+        }
+    }
+
+    private static int launchWorker(Options options, String[] args) throws Exception {
+        LocalTables tables = new LocalTables(new File(options.template));
+        try (DynamoDbClient dynamoDb = DynamoDbClient.builder()
+                .endpointOverride(URI.create(options.endpoint))
+                .region(Region.of(REGION))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")))
+                .build()) {
+            List<String> created = tables.recreate(dynamoDb);
+            System.out.println("Created " + created.size() + " tables in " + options.endpoint + ": " + created);
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        // One kept-alive connection per worker thread (DynamoDbClientFactory defaults to Lambda's 16)
+        command.add("-Dhttp.maxConnections=" + Math.max(options.threads, options.bookers));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoadTest.class.getName());
+        command.add("--worker");
+        command.addAll(List.of(args));
+
+        ProcessBuilder worker = new ProcessBuilder(command).inheritIO();
+        Map<String, String> environment = worker.environment();
+        environment.putAll(tables.handlerEnvironment());
+        environment.putIfAbsent("PAGINATION_TOKEN_SECRET", "loadtest");
+        environment.put("DYNAMODB_ENDPOINT", options.endpoint);
+        environment.put("AWS_REGION", REGION);
+        environment.put("AWS_ACCESS_KEY_ID", "local");
+        environment.put("AWS_SECRET_ACCESS_KEY", "local");
+        return worker.start().waitFor();
+    }
+
+    private static void runWorkload(Options options) throws Exception {
+        Api api = new Api();
+        Fixtures fixtures = new Fixtures();
+        Workloads workloads = new Workloads(api, fixtures, options);
+
+        // 1. Seed through the handlers; measured separately, as bulk-load numbers
+        RouteStats seeding = RouteStats.begin();
+        fixtures.seed(api, options);
+        seeding.end();
+        Report.print("Seeding (" + options.therapists + " therapists, " + options.clients + " clients)",
+            seeding, null, null);
+
+        // 2. The booking storm is a fixed number of rounds, not a timed mix
+        if (options.scenario.equals("booking-storm")) {
+            RouteStats stats = RouteStats.begin();
+            Workloads.StormResult storm = workloads.bookingStorm();
+            stats.end();
+            Report.print("Booking storm (" + options.bookers + " bookers per slot)", stats, storm, options.report);
+            System.exit(storm.doubleBooked() > 0 ? 1 : 0);
+        }
+
+        // Benchmarks run their own fixed-size points, one operation at a time
+        if (options.scenario.equals("caseload")) {
+            Report.printBenchmark("Caseload (therapist search, " + options.rounds + " searches per point)",
+                new Benchmarks(api, fixtures, options).caseload(), options.report);
+            System.exit(0);
+        }
+        if (options.scenario.equals("client-search")) {
+            Report.printBenchmark("Client search, scan vs index (" + options.rounds + " lookups per point)",
+                new Benchmarks(api, fixtures, options).clientSearch(), options.report);
+            System.exit(0);
+        }
+
+        // 3. Warm up (JIT, connections, handler init) unmeasured, then measure
+        List<Workloads.Weighted> mix = workloads.mix(options.scenario);
+        workloads.runTimed(mix, options.warmupSeconds);
+        RouteStats stats = RouteStats.begin();
+        workloads.runTimed(mix, options.durationSeconds);
+        stats.end();
+        Report.print("Scenario " + options.scenario + " (" + options.threads + " threads)", stats, null, options.report);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Recreates the stack's tables in DynamoDB Local from the synthesized CloudFormation template
+// (cdk synth -c routerMode=true), so key schemas and GSIs can't drift from TherapyServiceStack.
+// Each table is named after its logical id, and the handler environment is the router function's,
+// with its table references resolved to those names.
+final class LocalTables {
+    private static final String ROUTER_HANDLER = "com.example.handlers.router.ApiRouterHandler::handleRequest";
+
+    private final JsonNode resources;
+
+    LocalTables(File template) throws IOException {
+        this.resources = new ObjectMapper().readTree(template).path("Resources");
+        if (resources.isMissingNode()) {
+            throw new IllegalArgumentException(template + " has no Resources; is it a synthesized template?");
+        }
+    }
+
+    // Drops and recreates every table, so each run starts from empty tables
+    List<String> recreate(DynamoDbClient dynamoDb) {
+        List<String> created = new ArrayList<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = resources.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> resource = it.next();
+            if (!"AWS::DynamoDB::Table".equals(resource.getValue().path("Type").asText())) {
+                continue;
+            }
+            String tableName = resource.getKey();
+            JsonNode properties = resource.getValue().path("Properties");
+
+            try {
+                dynamoDb.deleteTable(DeleteTableRequest.builder().tableName(tableName).build());
+                dynamoDb.waiter().waitUntilTableNotExists(r -> r.tableName(tableName));
+            } catch (ResourceNotFoundException e) {
+                // First run
+            }
+
+            CreateTableRequest.Builder request = CreateTableRequest.builder()
+                .tableName(tableName)
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .keySchema(keySchema(properties.path("KeySchema")))
+                .attributeDefinitions(attributeDefinitions(properties.path("AttributeDefinitions")));
+            List<GlobalSecondaryIndex> indexes = new ArrayList<>();
+            for (JsonNode index : properties.path("GlobalSecondaryIndexes")) {
+                JsonNode projection = index.path("Projection");
+                List<String> nonKeyAttributes = new ArrayList<>();
+                projection.path("NonKeyAttributes").forEach(attribute -> nonKeyAttributes.add(attribute.asText()));
+                indexes.add(GlobalSecondaryIndex.builder()
+                    .indexName(index.path("IndexName").asText())
+                    .keySchema(keySchema(index.path("KeySchema")))
+                    .projection(Projection.builder()
+                        .projectionType(projection.path("ProjectionType").asText("ALL"))
+                        .nonKeyAttributes(nonKeyAttributes.isEmpty() ? null : nonKeyAttributes)
+                        .build())
+                    .build());
+            }
+            if (!indexes.isEmpty()) {
+                request.globalSecondaryIndexes(indexes);
+            }
+
+            dynamoDb.createTable(request.build());
+            dynamoDb.waiter().waitUntilTableExists(r -> r.tableName(tableName));
+            created.add(tableName);
+        }
+        return created;
+    }
+
+    // The router function's environment: table references become local table names, plain values are
+    // kept and values computed at deploy time are left out
+    Map<String, String> handlerEnvironment() {
+        for (JsonNode resource : resources) {
+            JsonNode properties = resource.path("Properties");
+            if (!"AWS::Lambda::Function".equals(resource.path("Type").asText())
+                    || !ROUTER_HANDLER.equals(properties.path("Handler").asText())) {
+                continue;
+            }
+            Map<String, String> environment = new LinkedHashMap<>();
+            properties.path("Environment").path("Variables").fields().forEachRemaining(variable -> {
+                JsonNode value = variable.getValue();
+                if (value.has("Ref")) {
+                    environment.put(variable.getKey(), value.get("Ref").asText());
+                } else if (value.isTextual()) {
+                    environment.put(variable.getKey(), value.asText());
+                }
+            });
+            return environment;
+        }
+        throw new IllegalArgumentException("No ApiRouterHandler function in the template; synthesize it with "
+            + "cdk synth -c routerMode=true");
+    }
+
+    private static List<KeySchemaElement> keySchema(JsonNode keys) {
+        List<KeySchemaElement> schema = new ArrayList<>();
+        keys.forEach(key -> schema.add(KeySchemaElement.builder()
+            .attributeName(key.path("AttributeName").asText())
+            .keyType(key.path("KeyType").asText())
+            .build()));
+        return schema;
+    }
+
+    private static List<AttributeDefinition> attributeDefinitions(JsonNode definitions) {
+        List<AttributeDefinition> attributes = new ArrayList<>();
+        definitions.forEach(definition -> attributes.add(AttributeDefinition.builder()
+            .attributeName(definition.path("AttributeName").asText())
+            .attributeType(definition.path("AttributeType").asText())
+            .build()));
+        return attributes;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// --name=value command line options; the same arguments are passed on to the worker JVM
+final class Options {
+    String endpoint = "http://localhost:8000";
+    String template = "cdk.out/TherapyServiceStack.template.json";
+    String scenario = "mixed";
+    String report;
+    int threads = 32;
+    int durationSeconds = 60;
+    int warmupSeconds = 10;
+    int therapists = 20;
+    int clients = 200;
+    int slotsPerTherapist = 200;
+    int journalEntriesPerClient = 20;
+    int messagesPerClient = 10;
+    int bookers = 100;
+    int rounds = 20;
+    int hotConversations = 5;
+    boolean worker;
+
+    final List<String> raw = new ArrayList<>();
+
+    static Options parse(String[] args) {
+        Options options = new Options();
+        for (String arg : args) {
+            if (arg.equals("--worker")) {
+                options.worker = true;
+                continue;
+            }
+            options.raw.add(arg);
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+                case "endpoint" -> options.endpoint = value;
+                case "template" -> options.template = value;
+                case "scenario" -> options.scenario = value;
+                case "report" -> options.report = value;
+                case "threads" -> options.threads = Integer.parseInt(value);
+                case "duration" -> options.durationSeconds = Integer.parseInt(value);
+                case "warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                case "therapists" -> options.therapists = Integer.parseInt(value);
+                case "clients" -> options.clients = Integer.parseInt(value);
+                case "slotsPerTherapist" -> options.slotsPerTherapist = Integer.parseInt(value);
+                case "journalEntriesPerClient" -> options.journalEntriesPerClient = Integer.parseInt(value);
+                case "messagesPerClient" -> options.messagesPerClient = Integer.parseInt(value);
+                case "bookers" -> options.bookers = Integer.parseInt(value);
+                case "rounds" -> options.rounds = Integer.parseInt(value);
+                case "hotConversations" -> options.hotConversations = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (options.slotsPerTherapist > 1000) {
+            throw new IllegalArgumentException("--slotsPerTherapist is at most 1000 (one bulk request)");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.loadtest;
+
+import com.example.util.ResponseUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-route table on stdout and, with --report=path, the same numbers as JSON for comparing runs
+final class Report {
+    private Report() {
+    }
+
+    static void print(String title, RouteStats stats, Workloads.StormResult storm, String jsonPath) throws IOException {
+        double seconds = stats.elapsedSeconds();
+        List<RouteStats.Route> routes = new ArrayList<>(stats.routes().values());
+        routes.sort(Comparator.comparing((RouteStats.Route route) -> route.name));
+
+        System.out.printf("%n%s: %.1f s%n", title, seconds);
+        System.out.printf("%-62s %8s %9s %6s %6s %6s %9s %9s %9s %9s %8s %10s%n", "route", "requests", "req/s",
+            "2xx", "4xx", "5xx", "p50 ms", "p95 ms", "p99 ms", "max ms", "CU/req", "CU total");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (RouteStats.Route route : routes) {
+            int count = route.count();
+            double capacity = route.capacity.sum();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("route", route.name);
+            row.put("requests", count);
+            row.put("throughput", count / seconds);
+            row.put("ok", route.ok.sum());
+            row.put("clientErrors", route.clientErrors.sum());
+            row.put("serverErrors", route.serverErrors.sum());
+            row.put("p50Millis", route.percentileMillis(50));
+            row.put("p95Millis", route.percentileMillis(95));
+            row.put("p99Millis", route.percentileMillis(99));
+            row.put("maxMillis", route.percentileMillis(100));
+            row.put("capacityUnits", capacity);
+            rows.add(row);
+
+            System.out.printf("%-62s %8d %9.1f %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %8s %10.1f%n", route.name, count,
+                count / seconds, route.ok.sum(), route.clientErrors.sum(), route.serverErrors.sum(),
+                route.percentileMillis(50), route.percentileMillis(95), route.percentileMillis(99),
+                route.percentileMillis(100), count > 0 ? String.format("%.2f", capacity / count) : "-", capacity);
+        }
+
+        Map<String, Double> tables = stats.tableCapacity();
+        System.out.printf("%nConsumed capacity by table%n");
+        tables.forEach((table, capacity) -> System.out.printf("%-62s %10.1f CU %8.1f CU/s%n", table, capacity,
+            capacity / seconds));
+
+        if (storm != null) {
+            System.out.printf("%nBooking storm: %d rounds; one winner %d, none %d, double-booked %d; "
+                    + "%d conflicts (409), %d other failures%n", storm.rounds(), storm.singleWinner(),
+                storm.noWinner(), storm.doubleBooked(), storm.conflicts(), storm.errors());
+        }
+
+        if (jsonPath != null) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("title", title);
+            json.put("seconds", seconds);
+            json.put("routes", rows);
+            json.put("tableCapacityUnits", tables);
+            if (storm != null) {
+                json.put("bookingStorm", storm);
+            }
+            ResponseUtils.MAPPER.writerWithDefaultPrettyPrinter().writeValue(new File(jsonPath), json);
+        }
+    }
+
+    // One row per data size: latency of a whole operation and what it cost, averaged per operation
+    static void printBenchmark(String title, List<Benchmarks.Point> points, String jsonPath) throws IOException {
+        System.out.printf("%n%s%n", title);
+        System.out.printf("%-62s %6s %9s %12s %9s %9s %9s%n", "point", "ops", "pages/op", "DDB req/op",
+            "p50 ms", "p95 ms", "max ms");
+        for (Benchmarks.Point point : points) {
+            System.out.printf("%-62s %6d %9.1f %12.1f %9.2f %9.2f %9.2f%n", point.name(), point.operations(),
+                (double) point.pages() / point.operations(), (double) point.dynamoDbRequests() / point.operations(),
+                point.p50Millis(), point.p95Millis(), point.maxMillis());
+        }
+
+        if (jsonPath != null) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("title", title);
+            json.put("points", points);
+            ResponseUtils.MAPPER.writerWithDefaultPrettyPrinter().writeValue(new File(jsonPath), json);
+        }
+    }
+}
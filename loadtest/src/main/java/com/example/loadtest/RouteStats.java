@@ -0,0 +1,147 @@
+package com.example.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-route request counts, latencies and consumed capacity for one measured phase.
+// The route being served is kept in a thread-local while the handler runs, so CapacityInterceptor can
+// charge each DynamoDB call to it. Calls a handler fans out to ParallelExecution's pool run on other
+// threads and are charged to PARALLEL_LEGS instead.
+public final class RouteStats {
+    static final String PARALLEL_LEGS = "(parallel search legs)";
+    static final String UNATTRIBUTED = "(setup)";
+
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+    private static volatile RouteStats active;
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final Map<String, DoubleAdder> tableCapacity = new ConcurrentHashMap<>();
+    private final LongAdder dynamoDbRequests = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos;
+
+    // Starts a new measured phase; everything recorded before it is dropped
+    static RouteStats begin() {
+        RouteStats stats = new RouteStats();
+        active = stats;
+        return stats;
+    }
+
+    void end() {
+        endNanos = System.nanoTime();
+        active = null;
+    }
+
+    static Route enter(String route) {
+        RouteStats stats = active;
+        if (stats == null) {
+            return null;
+        }
+        Route current = stats.route(route);
+        CURRENT.set(current);
+        return current;
+    }
+
+    static void exit(Route route, long latencyNanos, int statusCode) {
+        CURRENT.remove();
+        if (route != null) {
+            route.record(latencyNanos, statusCode);
+        }
+    }
+
+    static void recordCapacity(String tableName, double capacityUnits) {
+        RouteStats stats = active;
+        if (stats == null) {
+            return;
+        }
+        Route current = CURRENT.get();
+        if (current == null) {
+            current = stats.route(Thread.currentThread().getName().startsWith("parallel-execution")
+                ? PARALLEL_LEGS : UNATTRIBUTED);
+        }
+        current.capacity.add(capacityUnits);
+        if (tableName != null) {
+            stats.tableCapacity.computeIfAbsent(tableName, t -> new DoubleAdder()).add(capacityUnits);
+        }
+    }
+
+    // Every DynamoDB request in the phase, whichever thread made it
+    static void recordRequest() {
+        RouteStats stats = active;
+        if (stats != null) {
+            stats.dynamoDbRequests.increment();
+        }
+    }
+
+    long dynamoDbRequests() {
+        return dynamoDbRequests.sum();
+    }
+
+    Route route(String name) {
+        return routes.computeIfAbsent(name, Route::new);
+    }
+
+    double elapsedSeconds() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return (end - startNanos) / 1e9;
+    }
+
+    Map<String, Route> routes() {
+        return routes;
+    }
+
+    Map<String, Double> tableCapacity() {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        tableCapacity.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> totals.put(entry.getKey(), entry.getValue().sum()));
+        return totals;
+    }
+
+    public static final class Route {
+        final String name;
+        final LongAdder ok = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final DoubleAdder capacity = new DoubleAdder();
+        private long[] latencies = new long[1024];
+        private int count;
+
+        Route(String name) {
+            this.name = name;
+        }
+
+        synchronized void record(long latencyNanos, int statusCode) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (statusCode >= 500) {
+                serverErrors.increment();
+            } else if (statusCode >= 400) {
+                clientErrors.increment();
+            } else {
+                ok.increment();
+            }
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        // Latency at the given percentile (0-100) in milliseconds, nearest-rank
+        synchronized double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * count);
+            return sorted[Math.max(0, Math.min(count - 1, rank - 1))] / 1e6;
+        }
+    }
+}
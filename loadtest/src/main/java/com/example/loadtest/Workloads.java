@@ -0,0 +1,246 @@
+package com.example.loadtest;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The traffic mixes. Timed scenarios run weighted operations on --threads workers; the booking storm
+// instead sends --bookers simultaneous requests for the same slot, --rounds times.
+final class Workloads {
+    private static final int RECENT_MESSAGES = 1_000;
+
+    interface Operation {
+        void run(Random random);
+    }
+
+    record Weighted(int weight, Operation operation) {}
+
+    private final Api api;
+    private final Fixtures fixtures;
+    private final Options options;
+    // Recently sent, still unread messages, for the mark-read operation
+    private final Queue<String> unread = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger unreadSize = new AtomicInteger();
+
+    Workloads(Api api, Fixtures fixtures, Options options) {
+        this.api = api;
+        this.fixtures = fixtures;
+        this.options = options;
+    }
+
+    List<Weighted> mix(String scenario) {
+        List<Weighted> mix = new ArrayList<>();
+        switch (scenario) {
+            case "booking" -> addBooking(mix);
+            case "message-burst" -> addMessaging(mix);
+            case "search" -> addSearch(mix);
+            case "journal" -> addJournal(mix);
+            case "mixed" -> {
+                addBooking(mix);
+                addMessaging(mix);
+                addSearch(mix);
+                addJournal(mix);
+            }
+            default -> throw new IllegalArgumentException("Unknown scenario " + scenario
+                + "; expected mixed, booking, message-burst, search, journal, booking-storm, caseload or client-search");
+        }
+        return mix;
+    }
+
+    // Listing slots, then booking one and approving about half of the bookings
+    private void addBooking(List<Weighted> mix) {
+        mix.add(new Weighted(3, random -> {
+            String therapistId = fixtures.pick(random, fixtures.therapists);
+            LocalDate from = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+            api.call("GET", "/therapists/{therapistId}/session-slots", Map.of("therapistId", therapistId),
+                Map.of("from", from.toString(), "to", from.plusDays(14).toString()), null);
+        }));
+        mix.add(new Weighted(2, random -> api.call("GET", "/therapists/{therapistId}/free-windows",
+            Map.of("therapistId", fixtures.pick(random, fixtures.therapists)), Map.of("count", "10"), null)));
+        mix.add(new Weighted(2, random -> {
+            String therapistId = fixtures.pick(random, fixtures.therapists);
+            String slotId = fixtures.openSlots.get(therapistId).poll();
+            if (slotId == null) {
+                return; // This therapist is fully booked
+            }
+            Api.Response booked = api.call("POST", "/therapists/{therapistId}/session-slots/appointments",
+                Map.of("therapistId", therapistId), Map.of(),
+                Map.of("clientId", fixtures.pick(random, fixtures.clients), "slotId", slotId));
+            if (booked.ok() && random.nextBoolean()) {
+                api.approveAppointment(therapistId, booked.string("appointmentRequestId"), "approve");
+            }
+        }));
+    }
+
+    // A few hot conversations take most of the sends, as at the start of a session
+    private void addMessaging(List<Weighted> mix) {
+        mix.add(new Weighted(6, random -> {
+            int pair = random.nextInt(Math.min(options.hotConversations, fixtures.clients.size()));
+            String clientId = fixtures.clients.get(pair);
+            String therapistId = fixtures.therapists.get(pair % fixtures.therapists.size());
+            boolean fromClient = random.nextBoolean();
+            String messageId = fixtures.sendMessage(api, random,
+                fromClient ? clientId : therapistId, fromClient ? therapistId : clientId);
+            if (messageId != null && unreadSize.incrementAndGet() <= RECENT_MESSAGES) {
+                unread.add(messageId);
+            } else if (messageId != null) {
+                unreadSize.decrementAndGet();
+            }
+        }));
+        mix.add(new Weighted(3, random -> api.call("GET", "/messages/inbox/{userId}",
+            Map.of("userId", random.nextBoolean()
+                ? fixtures.pick(random, fixtures.clients) : fixtures.pick(random, fixtures.therapists)),
+            Map.of(), null)));
+        mix.add(new Weighted(2, random -> {
+            int index = random.nextInt(fixtures.clients.size());
+            api.call("GET", "/messages", Map.of(), Map.of(
+                "senderId", fixtures.clients.get(index),
+                "recipientId", fixtures.therapists.get(index % fixtures.therapists.size()),
+                "order", "desc", "limit", "50"), null);
+        }));
+        mix.add(new Weighted(1, random -> {
+            String messageId = unread.poll();
+            if (messageId != null) {
+                unreadSize.decrementAndGet();
+                api.call("PUT", "/messages/{messageId}", Map.of("messageId", messageId), Map.of(),
+                    Map.of("status", "read"));
+            }
+        }));
+    }
+
+    private void addSearch(List<Weighted> mix) {
+        mix.add(new Weighted(3, random -> api.call("GET", "/clients/{clientId}/search",
+            Map.of("clientId", fixtures.pick(random, fixtures.clients)),
+            Map.of("query", random.nextBoolean()
+                ? Fixtures.LOCATIONS[random.nextInt(Fixtures.LOCATIONS.length)]
+                : Fixtures.EXPERTISE[random.nextInt(Fixtures.EXPERTISE.length)]), null)));
+        mix.add(new Weighted(2, random -> api.call("GET", "/therapists/{therapistId}/search",
+            Map.of("therapistId", fixtures.pick(random, fixtures.therapists)),
+            Map.of("query", "client " + random.nextInt(10)), null)));
+        mix.add(new Weighted(2, random -> api.call("GET", "/therapists", Map.of(),
+            Map.of("location", Fixtures.LOCATIONS[random.nextInt(Fixtures.LOCATIONS.length)]), null)));
+        mix.add(new Weighted(1, random -> api.call("GET", "/therapists/{therapistId}",
+            Map.of("therapistId", fixtures.pick(random, fixtures.therapists)), Map.of(), null)));
+    }
+
+    private void addJournal(List<Weighted> mix) {
+        mix.add(new Weighted(2, random -> fixtures.createJournalEntry(api, random,
+            fixtures.pick(random, fixtures.clients))));
+        mix.add(new Weighted(3, random -> api.call("GET", "/journal/clients/{clientId}/entries",
+            Map.of("clientId", fixtures.pick(random, fixtures.clients)),
+            Map.of("from", LocalDate.now(ZoneOffset.UTC).minusDays(30).toString()), null)));
+        mix.add(new Weighted(1, random -> api.call("GET", "/journal/clients/{clientId}/mood-trends",
+            Map.of("clientId", fixtures.pick(random, fixtures.clients)), Map.of("granularity", "week"), null)));
+        mix.add(new Weighted(1, random -> {
+            String clientId = fixtures.pick(random, fixtures.clients);
+            List<String> entries = fixtures.journalEntries.get(clientId);
+            if (!entries.isEmpty()) {
+                api.call("PUT", "/journal/clients/{clientId}/{journalEntryId}",
+                    Map.of("clientId", clientId, "journalEntryId", fixtures.pick(random, entries)), Map.of(),
+                    Map.of("intensity", 1 + random.nextInt(10)));
+            }
+        }));
+    }
+
+    // Runs the mix on --threads workers until the time is up. Failed calls are already counted as
+    // 5xx by Api; the first few are printed so a broken setup is obvious.
+    void runTimed(List<Weighted> mix, int seconds) throws InterruptedException {
+        int totalWeight = mix.stream().mapToInt(Weighted::weight).sum();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads);
+        for (int i = 0; i < options.threads; i++) {
+            workers.execute(() -> {
+                Random random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int ticket = random.nextInt(totalWeight);
+                    for (Weighted weighted : mix) {
+                        ticket -= weighted.weight();
+                        if (ticket < 0) {
+                            try {
+                                weighted.operation().run(random);
+                            } catch (RuntimeException e) {
+                                if (failures.incrementAndGet() <= 5) {
+                                    e.printStackTrace();
+                                }
+                            }
+                            break;
+                        }
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    record StormResult(int rounds, int singleWinner, int noWinner, int doubleBooked, int conflicts, int errors) {}
+
+    // --bookers clients request the same open slot at the same instant; exactly one may win each round
+    StormResult bookingStorm() throws Exception {
+        ExecutorService bookers = Executors.newFixedThreadPool(options.bookers);
+        int singleWinner = 0;
+        int noWinner = 0;
+        int doubleBooked = 0;
+        int conflicts = 0;
+        int errors = 0;
+        try {
+            for (int round = 0; round < options.rounds; round++) {
+                String therapistId = fixtures.therapists.get(round % fixtures.therapists.size());
+                String slotId = fixtures.openSlots.get(therapistId).poll();
+                if (slotId == null) {
+                    throw new IllegalStateException("No open slot left for round " + round
+                        + "; raise --slotsPerTherapist");
+                }
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Api.Response>> attempts = new ArrayList<>();
+                for (int i = 0; i < options.bookers; i++) {
+                    String clientId = fixtures.clients.get(i % fixtures.clients.size());
+                    attempts.add(bookers.submit(() -> {
+                        start.await();
+                        return api.call("POST", "/therapists/{therapistId}/session-slots/appointments",
+                            Map.of("therapistId", therapistId), Map.of(),
+                            Map.of("clientId", clientId, "slotId", slotId));
+                    }));
+                }
+                start.countDown();
+
+                List<String> winners = new ArrayList<>();
+                for (Future<Api.Response> attempt : attempts) {
+                    Api.Response response = attempt.get();
+                    if (response.ok()) {
+                        winners.add(response.string("appointmentRequestId"));
+                    } else if (response.statusCode() == 409) {
+                        conflicts++;
+                    } else {
+                        errors++;
+                    }
+                }
+                if (winners.size() == 1) {
+                    singleWinner++;
+                    api.approveAppointment(therapistId, winners.get(0), "approve");
+                } else if (winners.isEmpty()) {
+                    noWinner++;
+                } else {
+                    doubleBooked++;
+                }
+            }
+        } finally {
+            bookers.shutdownNow();
+        }
+        return new StormResult(options.rounds, singleWinner, noWinner, doubleBooked, conflicts, errors);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.handlers;
+
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.Idempotency;
+import com.example.util.Metrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import java.util.Map;
+
+// Lambda entry point shared by the handlers: times each invocation and emits its metrics (see Metrics),
+// and runs POST requests that carry an Idempotency-Key at most once (see Idempotency).
+// The route is the API Gateway resource template ("GET /clients/{clientId}"), which the router sets as
+// well, or the class name for functions invoked directly.
+public abstract class InstrumentedHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    @Override
+    public final Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        Metrics.Invocation invocation = Metrics.start(route(input), context);
+        if (readBudget()) {
+            invocation.limitReads();
+        }
+        Map<String, Object> response = null;
+        try {
+            response = input != null && "POST".equals(input.get("httpMethod"))
+                ? Idempotency.run(DynamoDbClientFactory.client(), input, context, () -> handle(input, context))
+                : handle(input, context);
+            return response;
+        } finally {
+            invocation.finish(response);
+        }
+    }
+
+    protected abstract Map<String, Object> handle(Map<String, Object> input, Context context);
+
+    // Routes whose reads grow with the data (searches, scans) opt into CapacityBudget
+    protected boolean readBudget() {
+        return false;
+    }
+
+    private String route(Map<String, Object> input) {
+        Object method = input != null ? input.get("httpMethod") : null;
+        Object resource = input != null ? input.get("resource") : null;
+        return method != null && resource != null ? method + " " + resource : getClass().getSimpleName();
+    }
+}
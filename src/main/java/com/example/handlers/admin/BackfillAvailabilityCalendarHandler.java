@@ -0,0 +1,75 @@
+package com.example.handlers.admin;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.AvailabilityCalendar;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.ParallelScanner;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One-off job that builds availability bitmaps for days that had slots before the Availability table
+// existed. Walks the Therapists table and reads each therapist's slot partition once, building all of
+// their days together; days a slot write already stored are left alone. Invoke directly; when a run
+// stops early, re-invoke with the returned
+// {"totalSegments": n, "resumeFrom": {"<segment>": {"TherapistId": ..} or {}}}.
+// Once it reports "complete", deploy with -c availabilityBackfilled=true so missing days are read as
+// empty instead of being rebuilt from the slots.
+public class BackfillAvailabilityCalendarHandler extends InstrumentedHandler {
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        ParallelScanner.Resume resume;
+        try {
+            resume = ParallelScanner.resume(input, "TherapistId");
+        } catch (IllegalArgumentException e) {
+            return Map.of("error", e.getMessage());
+        }
+        int totalSegments = resume.totalSegments();
+        Map<Integer, Map<String, AttributeValue>> startKeys = resume.startKeys();
+
+        AtomicInteger built = new AtomicInteger();
+        Map<Integer, Map<String, AttributeValue>> unfinished = ParallelScanner.scanAll(dynamoDb,
+            ScanRequest.builder()
+                .tableName(System.getenv("THERAPISTS_TABLE"))
+                .projectionExpression("TherapistId")
+                .build(),
+            totalSegments, startKeys,
+            item -> {
+                String therapistId = item.get("TherapistId").s();
+                for (AvailabilityCalendar.Day day : AvailabilityCalendar.rebuildAll(dynamoDb, therapistId, null).values()) {
+                    try {
+                        day.save(dynamoDb);
+                        built.incrementAndGet();
+                    } catch (ConditionalCheckFailedException e) {
+                        // A slot write stored the day first
+                    }
+                }
+            },
+            () -> context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("daysBuilt", built.get());
+        result.put("complete", unfinished.isEmpty());
+        if (!unfinished.isEmpty()) {
+            Map<String, Map<String, String>> resumeFrom = new HashMap<>();
+            unfinished.forEach((segment, key) -> {
+                Map<String, String> plainKey = new HashMap<>();
+                key.forEach((name, value) -> plainKey.put(name, value.s()));
+                resumeFrom.put(String.valueOf(segment), plainKey);
+            });
+            result.put("totalSegments", totalSegments);
+            result.put("resumeFrom", resumeFrom);
+            context.getLogger().log("Availability calendar backfill paused after " + built.get() + " days");
+        }
+        return result;
+    }
+}
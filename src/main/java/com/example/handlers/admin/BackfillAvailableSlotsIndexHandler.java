@@ -0,0 +1,85 @@
+package com.example.handlers.admin;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.ParallelScanner;
+import com.example.util.SessionSlots;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One-off job that adds availableAt to open slots created before AvailableSlotsIndex existed.
+// Invoke directly (not through API Gateway). When a run stops early because the Lambda is running out
+// of time, re-invoke with the returned {"totalSegments": n, "resumeFrom": {"<segment>": {"TherapistId": ..,
+// "SlotId": ..} or {}}}.
+public class BackfillAvailableSlotsIndexHandler extends InstrumentedHandler {
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        ParallelScanner.Resume resume;
+        try {
+            resume = ParallelScanner.resume(input, "TherapistId");
+        } catch (IllegalArgumentException e) {
+            return Map.of("error", e.getMessage());
+        }
+        int totalSegments = resume.totalSegments();
+        Map<Integer, Map<String, AttributeValue>> startKeys = resume.startKeys();
+
+        String tableName = System.getenv("SESSION_SLOTS_TABLE");
+        AtomicInteger updated = new AtomicInteger();
+        Map<Integer, Map<String, AttributeValue>> unfinished = ParallelScanner.scanAll(dynamoDb,
+            ScanRequest.builder()
+                .tableName(tableName)
+                .projectionExpression("TherapistId, SlotId, #date, startTime")
+                .filterExpression("#status = :available AND attribute_not_exists(availableAt)")
+                .expressionAttributeNames(Map.of("#date", "date", "#status", "status"))
+                .expressionAttributeValues(Map.of(":available", AttributeValue.builder().s(SessionSlots.AVAILABLE).build()))
+                .build(),
+            totalSegments, startKeys,
+            item -> {
+                // Conditioned on the slot still being open, so a concurrent booking is never re-indexed
+                try {
+                    dynamoDb.updateItem(UpdateItemRequest.builder()
+                        .tableName(tableName)
+                        .key(Map.of("TherapistId", item.get("TherapistId"), "SlotId", item.get("SlotId")))
+                        .updateExpression("SET availableAt = :availableAt")
+                        .conditionExpression("#status = :available")
+                        .expressionAttributeNames(Map.of("#status", "status"))
+                        .expressionAttributeValues(Map.of(
+                            ":availableAt", SessionSlots.availableAt(item.get("date"), item.get("startTime")),
+                            ":available", AttributeValue.builder().s(SessionSlots.AVAILABLE).build()
+                        ))
+                        .build());
+                    updated.incrementAndGet();
+                } catch (ConditionalCheckFailedException e) {
+                    // Booked since the scan read it; nothing to index
+                }
+            },
+            () -> context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("updated", updated.get());
+        result.put("complete", unfinished.isEmpty());
+        if (!unfinished.isEmpty()) {
+            Map<String, Map<String, String>> resumeFrom = new HashMap<>();
+            unfinished.forEach((segment, key) -> {
+                Map<String, String> plainKey = new HashMap<>();
+                key.forEach((name, value) -> plainKey.put(name, value.s()));
+                resumeFrom.put(String.valueOf(segment), plainKey);
+            });
+            result.put("totalSegments", totalSegments);
+            result.put("resumeFrom", resumeFrom);
+            context.getLogger().log("Available slots backfill paused after " + updated.get() + " slots");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.handlers.admin;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.ClientSearchIndex;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.ParallelScanner;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One-off job that indexes clients created before the search index existed.
+// Invoke directly (not through API Gateway). The table is read with a segmented parallel scan; when a
+// run stops early because the Lambda is running out of time, re-invoke with the returned
+// {"totalSegments": n, "resumeFrom": {"<segment>": "<clientId>" or ""}}.
+public class BackfillClientSearchIndexHandler extends InstrumentedHandler {
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        ParallelScanner.Resume resume;
+        try {
+            resume = ParallelScanner.resume(input, "ClientId");
+        } catch (IllegalArgumentException e) {
+            return Map.of("error", e.getMessage());
+        }
+        int totalSegments = resume.totalSegments();
+        Map<Integer, Map<String, AttributeValue>> startKeys = resume.startKeys();
+
+        AtomicInteger indexed = new AtomicInteger();
+        Map<Integer, Map<String, AttributeValue>> unfinished = ParallelScanner.scanAll(dynamoDb,
+            ScanRequest.builder()
+                .tableName(System.getenv("CLIENTS_TABLE"))
+                .projectionExpression("ClientId, #name, email")
+                .expressionAttributeNames(Map.of("#name", "name"))
+                .build(),
+            totalSegments, startKeys,
+            item -> {
+                ClientSearchIndex.index(dynamoDb, item.get("ClientId").s(),
+                    item.containsKey("name") ? item.get("name").s() : null,
+                    item.containsKey("email") ? item.get("email").s() : null);
+                indexed.incrementAndGet();
+            },
+            () -> context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("indexed", indexed.get());
+        result.put("complete", unfinished.isEmpty());
+        if (!unfinished.isEmpty()) {
+            Map<String, String> resumeFrom = new HashMap<>();
+            unfinished.forEach((segment, key) ->
+                resumeFrom.put(String.valueOf(segment), key.isEmpty() ? "" : key.get("ClientId").s()));
+            result.put("totalSegments", totalSegments);
+            result.put("resumeFrom", resumeFrom);
+            context.getLogger().log("Client search backfill paused after " + indexed.get() + " clients");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.handlers.admin;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.JournalEntries;
+import com.example.util.ParallelScanner;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One-off job that adds the DateIndex key ("Date") to journal entries written before the handlers set it.
+// Invoke directly (not through API Gateway). When a run stops early because the Lambda is running out
+// of time, re-invoke with the returned {"totalSegments": n, "resumeFrom": {"<segment>": {"ClientId": ..,
+// "JournalEntryId": ..} or {}}}. Once it reports "complete", deploy with -c journalDateIndexBackfilled=true
+// so listings read DateIndex instead of the table.
+public class BackfillJournalDateIndexHandler extends InstrumentedHandler {
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        ParallelScanner.Resume resume;
+        try {
+            resume = ParallelScanner.resume(input, "ClientId");
+        } catch (IllegalArgumentException e) {
+            return Map.of("error", e.getMessage());
+        }
+        int totalSegments = resume.totalSegments();
+        Map<Integer, Map<String, AttributeValue>> startKeys = resume.startKeys();
+
+        String tableName = System.getenv("JOURNAL_ENTRIES_TABLE");
+        AtomicInteger updated = new AtomicInteger();
+        Map<Integer, Map<String, AttributeValue>> unfinished = ParallelScanner.scanAll(dynamoDb,
+            ScanRequest.builder()
+                .tableName(tableName)
+                .projectionExpression("ClientId, JournalEntryId, #date, #time")
+                .filterExpression("attribute_not_exists(#dateKey) AND attribute_not_exists(deleted)")
+                .expressionAttributeNames(Map.of("#date", "date", "#time", "time", "#dateKey", JournalEntries.DATE_KEY))
+                .build(),
+            totalSegments, startKeys,
+            item -> {
+                // Conditioned on the entry's date and time being the ones read, so an edit made meanwhile
+                // (which sets its own key) is never overwritten with a stale one. changedAt is stamped so
+                // clients that synced while the listing missed the entry receive it on their next ?since=
+                try {
+                    dynamoDb.updateItem(UpdateItemRequest.builder()
+                        .tableName(tableName)
+                        .key(Map.of("ClientId", item.get("ClientId"), "JournalEntryId", item.get("JournalEntryId")))
+                        .updateExpression("SET #dateKey = :dateKey, changedAt = :changedAt")
+                        .conditionExpression("attribute_not_exists(deleted) AND #date = :date AND #time = :time")
+                        .expressionAttributeNames(Map.of("#date", "date", "#time", "time", "#dateKey", JournalEntries.DATE_KEY))
+                        .expressionAttributeValues(Map.of(
+                            ":dateKey", JournalEntries.dateKey(item.get("date"), item.get("time")),
+                            ":changedAt", ChangeTracking.changedAt(Instant.now(), item.get("JournalEntryId").s()),
+                            ":date", item.get("date"),
+                            ":time", item.get("time")
+                        ))
+                        .build());
+                    updated.incrementAndGet();
+                } catch (ConditionalCheckFailedException e) {
+                    // Edited or deleted since the scan read it
+                }
+            },
+            () -> context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("updated", updated.get());
+        result.put("complete", unfinished.isEmpty());
+        if (!unfinished.isEmpty()) {
+            Map<String, Map<String, String>> resumeFrom = new HashMap<>();
+            unfinished.forEach((segment, key) -> {
+                Map<String, String> plainKey = new HashMap<>();
+                key.forEach((name, value) -> plainKey.put(name, value.s()));
+                resumeFrom.put(String.valueOf(segment), plainKey);
+            });
+            result.put("totalSegments", totalSegments);
+            result.put("resumeFrom", resumeFrom);
+            context.getLogger().log("Journal date index backfill paused after " + updated.get() + " entries");
+        }
+        return result;
+    }
+}
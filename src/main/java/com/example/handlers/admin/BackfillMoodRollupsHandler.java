@@ -0,0 +1,116 @@
+package com.example.handlers.admin;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.MoodRollups;
+import com.example.util.ParallelScanner;
+import com.example.util.Transactions;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One-off job that adds journal entries written before MoodRollups existed to their buckets.
+// Each entry is marked rolledUp in the same transaction as its bucket increments, conditioned on it being
+// unchanged since the scan read it, so entries edited or deleted meanwhile (which the live handlers count)
+// and reruns are never counted twice. Invoke directly; when a run stops early, re-invoke with the returned
+// {"totalSegments": n, "resumeFrom": {"<segment>": {"ClientId": .., "JournalEntryId": ..} or {}}}.
+public class BackfillMoodRollupsHandler extends InstrumentedHandler {
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        ParallelScanner.Resume resume;
+        try {
+            resume = ParallelScanner.resume(input, "ClientId");
+        } catch (IllegalArgumentException e) {
+            return Map.of("error", e.getMessage());
+        }
+        int totalSegments = resume.totalSegments();
+        Map<Integer, Map<String, AttributeValue>> startKeys = resume.startKeys();
+
+        String tableName = System.getenv("JOURNAL_ENTRIES_TABLE");
+        AtomicInteger counted = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        Map<Integer, Map<String, AttributeValue>> unfinished = ParallelScanner.scanAll(dynamoDb,
+            ScanRequest.builder()
+                .tableName(tableName)
+                .projectionExpression("ClientId, JournalEntryId, #date, feeling, intensity, changedAt")
+                .filterExpression("attribute_not_exists(rolledUp) AND attribute_not_exists(deleted)")
+                .expressionAttributeNames(Map.of("#date", "date"))
+                .build(),
+            totalSegments, startKeys,
+            item -> {
+                Map<String, AttributeValue> entry = new HashMap<>(item);
+                MoodRollups.Delta rollups = new MoodRollups.Delta(item.get("ClientId").s());
+                if (!rollups.add(entry)) {
+                    skipped.incrementAndGet(); // Free-text date; can't be placed in a bucket
+                    return;
+                }
+
+                Map<String, AttributeValue> values = new HashMap<>();
+                values.put(":rolledUp", entry.get(MoodRollups.ROLLED_UP));
+                MoodRollups.addUnchangedValue(values, item);
+                List<TransactWriteItem> writes = new ArrayList<>();
+                writes.add(TransactWriteItem.builder()
+                    .update(Update.builder()
+                        .tableName(tableName)
+                        .key(Map.of("ClientId", item.get("ClientId"), "JournalEntryId", item.get("JournalEntryId")))
+                        .updateExpression("SET rolledUp = :rolledUp")
+                        .conditionExpression("attribute_exists(JournalEntryId) AND attribute_not_exists(rolledUp) "
+                            + "AND attribute_not_exists(deleted) AND " + MoodRollups.unchangedCondition(item))
+                        .expressionAttributeValues(values)
+                        .build())
+                    .build());
+                writes.addAll(rollups.writes());
+
+                // Segments share clients' buckets, so a bucket held by another transaction is retried
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                            .transactItems(writes)
+                            .build());
+                        counted.incrementAndGet();
+                        return;
+                    } catch (TransactionCanceledException e) {
+                        if (Transactions.conditionFailedAt(e, 0)) {
+                            skipped.incrementAndGet(); // Edited, deleted or counted since the scan read it
+                            return;
+                        }
+                        if (attempt == MoodRollups.MAX_ATTEMPTS || !Transactions.lostRace(e)) {
+                            throw e;
+                        }
+                    }
+                }
+            },
+            () -> context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("counted", counted.get());
+        result.put("skipped", skipped.get());
+        result.put("complete", unfinished.isEmpty());
+        if (!unfinished.isEmpty()) {
+            Map<String, Map<String, String>> resumeFrom = new HashMap<>();
+            unfinished.forEach((segment, key) -> {
+                Map<String, String> plainKey = new HashMap<>();
+                key.forEach((name, value) -> plainKey.put(name, value.s()));
+                resumeFrom.put(String.valueOf(segment), plainKey);
+            });
+            result.put("totalSegments", totalSegments);
+            result.put("resumeFrom", resumeFrom);
+            context.getLogger().log("Mood rollup backfill paused after " + counted.get() + " entries");
+        }
+        return result;
+    }
+}
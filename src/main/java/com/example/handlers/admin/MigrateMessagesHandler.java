@@ -0,0 +1,97 @@
+package com.example.handlers.admin;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.MessageKeys;
+import com.example.util.ParallelScanner;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One-off job that copies messages from the legacy messageId-keyed table into the conversation table.
+// Copies are conditional on the message not being there yet, so reruns never overwrite newer edits.
+// Invoke directly; when a run stops early, re-invoke with the returned
+// {"totalSegments": n, "resumeFrom": {"<segment>": "<messageId>" or ""}}.
+public class MigrateMessagesHandler extends InstrumentedHandler {
+    private static final long SAFETY_MARGIN_MILLIS = 30_000;
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        ParallelScanner.Resume resume;
+        try {
+            resume = ParallelScanner.resume(input, "messageId");
+        } catch (IllegalArgumentException e) {
+            return Map.of("error", e.getMessage());
+        }
+        int totalSegments = resume.totalSegments();
+        Map<Integer, Map<String, AttributeValue>> startKeys = resume.startKeys();
+
+        AtomicInteger copied = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        Map<Integer, Map<String, AttributeValue>> unfinished = ParallelScanner.scanAll(dynamoDb,
+            ScanRequest.builder()
+                .tableName(MessageKeys.legacyTableName())
+                .build(),
+            totalSegments, startKeys,
+            item -> {
+                if (!item.containsKey("senderId") || !item.containsKey("recipientId")) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+
+                String messageId = item.get("messageId").s();
+                Map<String, AttributeValue> migrated = new HashMap<>(item);
+                migrated.put("conversationId", AttributeValue.builder()
+                    .s(MessageKeys.conversationId(item.get("senderId").s(), item.get("recipientId").s())).build());
+                migrated.put("sortKey", AttributeValue.builder()
+                    .s(MessageKeys.sortKey(sentAt(item), messageId)).build());
+                migrated.putIfAbsent(ChangeTracking.CHANGED_AT, ChangeTracking.changedAt(sentAt(item), messageId));
+
+                try {
+                    dynamoDb.putItem(PutItemRequest.builder()
+                        .tableName(MessageKeys.tableName())
+                        .item(migrated)
+                        .conditionExpression("attribute_not_exists(conversationId)")
+                        .build());
+                    copied.incrementAndGet();
+                } catch (ConditionalCheckFailedException e) {
+                    // Already migrated by an earlier run
+                }
+            },
+            () -> context.getRemainingTimeInMillis() > SAFETY_MARGIN_MILLIS);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("copied", copied.get());
+        result.put("skipped", skipped.get());
+        result.put("complete", unfinished.isEmpty());
+        if (!unfinished.isEmpty()) {
+            Map<String, String> resumeFrom = new HashMap<>();
+            unfinished.forEach((segment, key) ->
+                resumeFrom.put(String.valueOf(segment), key.isEmpty() ? "" : key.get("messageId").s()));
+            result.put("totalSegments", totalSegments);
+            result.put("resumeFrom", resumeFrom);
+            context.getLogger().log("Message migration paused after " + copied.get() + " messages");
+        }
+        return result;
+    }
+
+    // Legacy rows without a parseable timestamp sort to the start of their conversation
+    private Instant sentAt(Map<String, AttributeValue> item) {
+        try {
+            return item.containsKey("timestamp") ? Instant.parse(item.get("timestamp").s()) : Instant.EPOCH;
+        } catch (DateTimeParseException e) {
+            return Instant.EPOCH;
+        }
+    }
+}
@@ -1,19 +1,21 @@
 package com.example.handlers.appointments;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.Pagination;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-public class ListAppointmentsHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class ListAppointmentsHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract and validate therapistId
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -23,13 +25,17 @@ public class ListAppointmentsHandler implements RequestHandler<Map<String, Objec
                 return ResponseUtils.errorResponse(400, "Missing therapistId in path");
             }
 
-            // 2. Build query request for AppointmentRequestsTable
+            // 2. Build query request for one page of AppointmentRequestsTable
+            Map<String, String> queryParams = (Map<String, String>) input.get("queryStringParameters");
+            String scope = "appointments:" + therapistId;
             QueryRequest request = QueryRequest.builder()
                 .tableName(System.getenv("APPOINTMENT_REQUESTS_TABLE"))
                 .keyConditionExpression("TherapistId = :therapistIdVal")
                 .expressionAttributeValues(Map.of(
                     ":therapistIdVal", AttributeValue.builder().s(therapistId).build()
                 ))
+                .limit(Pagination.limit(queryParams))
+                .exclusiveStartKey(Pagination.decode(Pagination.token(queryParams), scope))
                 .build();
 
             QueryResponse response = dynamoDb.query(request);
@@ -48,8 +54,11 @@ public class ListAppointmentsHandler implements RequestHandler<Map<String, Objec
                 ))
                 .collect(Collectors.toList());
 
-            return ResponseUtils.successResponse(200, appointments);
+            return ResponseUtils.successResponse(200, Pagination.envelope(appointments,
+                Pagination.encode(response.lastEvaluatedKey(), scope)));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (DynamoDbException e) {
             return ResponseUtils.errorResponse(500, "Database error: " + e.getMessage());
         } catch (Exception e) {
@@ -1,19 +1,23 @@
 package com.example.handlers.appointments;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.AvailabilityCalendar;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
+import com.example.util.Transactions;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-public class RequestAppointmentHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class RequestAppointmentHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract and validate parameters
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -27,20 +31,24 @@ public class RequestAppointmentHandler implements RequestHandler<Map<String, Obj
             String clientId = data.get("clientId").toString();
             String slotId = data.get("slotId").toString();
 
-            // 2. Verify slot availability
+            Map<String, AttributeValue> slotKey = Map.of(
+                "TherapistId", AttributeValue.builder().s(therapistId).build(),
+                "SlotId", AttributeValue.builder().s(slotId).build()
+            );
+
+            // 2. Read the slot's date and times. This read is not authoritative for availability
+            // (the transaction below is); it only rejects slots that are already taken without
+            // spending a transaction on them.
             GetItemResponse slot = dynamoDb.getItem(GetItemRequest.builder()
                 .tableName(System.getenv("SESSION_SLOTS_TABLE"))
-                .key(Map.of(
-                    "TherapistId", AttributeValue.builder().s(therapistId).build(),
-                    "SlotId", AttributeValue.builder().s(slotId).build()
-                ))
+                .key(slotKey)
                 .build());
 
             if (!slot.hasItem() || !"Available".equals(slot.item().get("status").s())) {
-                return ResponseUtils.errorResponse(400, "Slot not available for booking");
+                return ResponseUtils.errorResponse(409, "Slot not available for booking");
             }
 
-            // 3. Create appointment request
+            // 3. Build appointment request
             String appointmentRequestId = UUID.randomUUID().toString();
             Map<String, AttributeValue> requestItem = Map.of(
                 "TherapistId", AttributeValue.builder().s(therapistId).build(),
@@ -54,13 +62,55 @@ public class RequestAppointmentHandler implements RequestHandler<Map<String, Obj
                 "EndTime", slot.item().get("endTime")  // Copy from slot
             );
 
-            // 4. Save to AppointmentRequestsTable
-            dynamoDb.putItem(PutItemRequest.builder()
-                .tableName(System.getenv("APPOINTMENT_REQUESTS_TABLE"))
-                .item(requestItem)
-                .build());
+            // 4. Reserve the slot, record the request and close the time on the day's availability
+            // bitmap in one transaction. Only one booker can move the slot from Available to Pending;
+            // everyone else gets a 409 without retrying.
+            List<TransactWriteItem> writes = List.of(
+                TransactWriteItem.builder()
+                    .update(Update.builder()
+                        .tableName(System.getenv("SESSION_SLOTS_TABLE"))
+                        .key(slotKey)
+                        .updateExpression("SET #status = :pending, reservedBy = :clientId, "
+                            + "AppointmentRequestId = :requestId REMOVE availableAt")
+                        .conditionExpression("#status = :available")
+                        .expressionAttributeNames(Map.of("#status", "status"))
+                        .expressionAttributeValues(Map.of(
+                            ":pending", AttributeValue.builder().s("Pending").build(),
+                            ":available", AttributeValue.builder().s("Available").build(),
+                            ":clientId", AttributeValue.builder().s(clientId).build(),
+                            ":requestId", AttributeValue.builder().s(appointmentRequestId).build()
+                        ))
+                        .build())
+                    .build(),
+                TransactWriteItem.builder()
+                    .put(Put.builder()
+                        .tableName(System.getenv("APPOINTMENT_REQUESTS_TABLE"))
+                        .item(requestItem)
+                        .conditionExpression("attribute_not_exists(AppointmentRequestId)")
+                        .build())
+                    .build());
+
+            String date = slot.item().get("date").s();
+            String startTime = slot.item().get("startTime").s();
+            String endTime = slot.item().get("endTime").s();
+            try {
+                if (AvailabilityCalendar.onGrid(startTime, endTime)) {
+                    AvailabilityCalendar.transactWithDay(dynamoDb, therapistId, date,
+                        day -> day.close(startTime, endTime), writes);
+                } else {
+                    // Legacy slot whose times can't be placed on the bitmap
+                    dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(writes)
+                        .build());
+                }
+            } catch (TransactionCanceledException e) {
+                if (Transactions.lostRace(e)) {
+                    return ResponseUtils.errorResponse(409, "Slot not available for booking");
+                }
+                throw e;
+            }
 
-            // 5. Return response without modifying session slot
+            // 5. Return response
             return ResponseUtils.successResponse(201, Map.of(
                 "appointmentRequestId", appointmentRequestId,
                 "therapistId", therapistId,
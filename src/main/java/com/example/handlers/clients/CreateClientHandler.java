@@ -1,26 +1,31 @@
 package com.example.handlers.clients;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.Client;
+import com.example.util.ClientSearchIndex;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import java.util.*;
 
-public class CreateClientHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class CreateClientHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
-            // 1. Parse request body
-            Map<String, Object> requestBody = ResponseUtils.parseBody(input);
+            // 1. Bind request body
+            Client request = ApiGatewayEvent.from(input).body(Client.READER);
             
             // 2. Extract and validate parameters
-            String email = (String) requestBody.get("email");
-            String name = (String) requestBody.get("name");
-            List<String> mappedTherapistsIds = (List<String>) requestBody.get("mappedTherapistsIds");
+            String email = request.email();
+            String name = request.name();
+            List<String> mappedTherapistsIds = request.mappedTherapistsIds();
             
             if (email == null || email.isEmpty() || name == null || name.isEmpty()) {
                 return ResponseUtils.errorResponse(400, "Email and name are required fields");
@@ -45,12 +50,17 @@ public class CreateClientHandler implements RequestHandler<Map<String, Object>,
                 .item(item)
                 .build());
 
-            // 6. Return standardized response
+            // 6. Make the client discoverable through the search index
+            ClientSearchIndex.index(dynamoDb, clientId, name, email);
+
+            // 7. Return standardized response
             return ResponseUtils.successResponse(201, Map.of(
                 "clientId", clientId,
                 "message", "Client created successfully"
             ));
 
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, "Invalid request body: " + e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Client creation failed: " + e.getMessage());
         }
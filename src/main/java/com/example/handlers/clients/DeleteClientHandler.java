@@ -1,18 +1,21 @@
 package com.example.handlers.clients;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.ClientSearchIndex;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
 import java.util.Map;
 
-public class DeleteClientHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class DeleteClientHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract path parameters
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -24,12 +27,20 @@ public class DeleteClientHandler implements RequestHandler<Map<String, Object>,
             }
 
             // 3. Prepare and execute delete operation
-            dynamoDb.deleteItem(DeleteItemRequest.builder()
+            Map<String, AttributeValue> deleted = dynamoDb.deleteItem(DeleteItemRequest.builder()
                 .tableName(System.getenv("CLIENTS_TABLE"))
                 .key(Map.of("ClientId", AttributeValue.builder().s(clientId).build()))
-                .build());
+                .returnValues(ReturnValue.ALL_OLD)
+                .build()).attributes();
 
-            // 4. Return success response (204 No Content)
+            // 4. Drop the client's search index rows
+            if (deleted != null && !deleted.isEmpty()) {
+                ClientSearchIndex.remove(dynamoDb, clientId,
+                    deleted.containsKey("name") ? deleted.get("name").s() : null,
+                    deleted.containsKey("email") ? deleted.get("email").s() : null);
+            }
+
+            // 5. Return success response (204 No Content)
             return ResponseUtils.noContentResponse();
 
         } catch (Exception e) {
@@ -1,49 +1,49 @@
 package com.example.handlers.clients;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.Client;
+import com.example.model.PageResponse;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.Pagination;
+import com.example.util.ParallelScanner;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
-import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-public class ListClientsHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class ListClientsHandler extends InstrumentedHandler {
+    private static final String PAGINATION_SCOPE = "clients";
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
-            // 1. Scan the ClientsTable
-            ScanResponse scanResponse = dynamoDb.scan(ScanRequest.builder()
-                .tableName(System.getenv("CLIENTS_TABLE"))
-                .build());
+            Map<String, String> queryParams = ApiGatewayEvent.from(input).queryStringParameters();
+
+            // 1. Scan one page of the ClientsTable, all segments in parallel
+            ParallelScanner.SegmentedPage page = ParallelScanner.scanPage(dynamoDb,
+                ScanRequest.builder().tableName(System.getenv("CLIENTS_TABLE")).build(),
+                Pagination.limit(queryParams),
+                Pagination.decodeCursors(Pagination.token(queryParams), PAGINATION_SCOPE));
 
             // 2. Map DynamoDB items to client objects
-            List<Map<String, String>> clients = scanResponse.items().stream()
-                .map(this::convertClient)
+            List<Client> clients = page.items().stream()
+                .map(Client::fromItem)
                 .collect(Collectors.toList());
 
-            // 3. Return standardized response
-            return ResponseUtils.successResponse(200, clients);
+            // 3. Return the page with a continuation token when more clients remain
+            return ResponseUtils.jsonResponse(200, Client.PAGE_WRITER, new PageResponse<>(clients,
+                Pagination.encodeCursors(page.cursors(), PAGINATION_SCOPE)));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Failed to list clients: " + e.getMessage());
         }
     }
-
-    private Map<String, String> convertClient(Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> item) {
-        return Map.of(
-            "clientId", getStringValue(item, "ClientId"),
-            "email", getStringValue(item, "email"),
-            "name", getStringValue(item, "name"),
-            "mappedTherapistsIds", getStringValue(item, "mappedTherapistsIds")
-        );
-    }
-
-    private String getStringValue(Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> item, String key) {
-        return item.containsKey(key) ? item.get(key).s() : "";
-    }
 }
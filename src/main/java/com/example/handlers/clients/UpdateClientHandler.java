@@ -1,8 +1,10 @@
 package com.example.handlers.clients;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.ClientSearchIndex;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.util.Map;
@@ -10,11 +12,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Collections;
 
-public class UpdateClientHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class UpdateClientHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract parameters
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -55,24 +57,32 @@ public class UpdateClientHandler implements RequestHandler<Map<String, Object>,
                 updateExpression.append(", #mappedTherapists = :therapists");
             }
 
-            // 4. Execute update
+            // 4. Execute update (old image is needed to retire stale search terms)
             UpdateItemResponse response = dynamoDb.updateItem(UpdateItemRequest.builder()
                 .tableName(System.getenv("CLIENTS_TABLE"))
                 .key(Map.of("ClientId", AttributeValue.builder().s(clientId).build()))
                 .updateExpression(updateExpression.toString())
                 .expressionAttributeNames(expressionNames)
                 .expressionAttributeValues(expressionValues)
-                .returnValues(ReturnValue.ALL_NEW)
+                .returnValues(ReturnValue.ALL_OLD)
                 .build());
+            Map<String, AttributeValue> previous = response.attributes();
 
-            // 5. Format response
+            // 5. Keep the search index in step with the new name/email
+            ClientSearchIndex.sync(dynamoDb, clientId,
+                previous.containsKey("name") ? previous.get("name").s() : null,
+                previous.containsKey("email") ? previous.get("email").s() : null,
+                name, email);
+
+            // 6. Format response
+            List<String> therapists = mappedTherapistsIds != null ? mappedTherapistsIds
+                : previous.containsKey("mappedTherapistsIds") ? previous.get("mappedTherapistsIds").ss()
+                : Collections.emptyList();
             return ResponseUtils.successResponse(200, Map.of(
-                "clientId", response.attributes().get("ClientId").s(),
-                "email", response.attributes().get("email").s(),
-                "name", response.attributes().get("name").s(),
-                "mappedTherapistsIds", response.attributes().containsKey("mappedTherapistsIds") ?
-                    response.attributes().get("mappedTherapistsIds").ss() :
-                    Collections.emptyList()
+                "clientId", clientId,
+                "email", email,
+                "name", name,
+                "mappedTherapistsIds", therapists
             ));
 
         } catch (Exception e) {
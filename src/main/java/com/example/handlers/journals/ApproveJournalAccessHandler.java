@@ -1,18 +1,19 @@
 package com.example.handlers.journals;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.time.Instant;
 import java.util.Map;
 
-public class ApproveJournalAccessHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class ApproveJournalAccessHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract parameters
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
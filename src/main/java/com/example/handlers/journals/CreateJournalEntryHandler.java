@@ -1,75 +1,85 @@
 package com.example.handlers.journals;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.JournalEntry;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.JournalEntries;
+import com.example.util.MoodRollups;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.util.*;
 import java.time.Instant;
 
-public class CreateJournalEntryHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class CreateJournalEntryHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract and validate path parameters
-            Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
-            String clientId = pathParams.get("clientId");
+            ApiGatewayEvent event = ApiGatewayEvent.from(input);
+            String clientId = event.pathParameter("clientId");
             
             if (clientId == null || clientId.isEmpty()) {
                 return ResponseUtils.errorResponse(400, "Client ID is required");
             }
 
-            // 2. Parse and validate request body
-            Map<String, Object> requestBody = ResponseUtils.parseBody(input);
+            // 2. Bind and validate request body
+            JournalEntry request = event.body(JournalEntry.READER);
             
-            if (!requestBody.containsKey("date") || 
-                !requestBody.containsKey("time") || 
-                !requestBody.containsKey("content")) {
+            if (request.date() == null || request.time() == null || request.content() == null) {
                 return ResponseUtils.errorResponse(400, "Missing required fields: date, time, or content");
             }
 
             // 3. Create journal entry
-            String journalEntryId = UUID.randomUUID().toString();
+            JournalEntry entry = request.withKeys(clientId, UUID.randomUUID().toString());
             Map<String, AttributeValue> item = new HashMap<>();
             
             // Required attributes
             item.put("ClientId", AttributeValue.builder().s(clientId).build());
-            item.put("JournalEntryId", AttributeValue.builder().s(journalEntryId).build());
-            item.put("date", AttributeValue.builder().s(requestBody.get("date").toString()).build());
-            item.put("time", AttributeValue.builder().s(requestBody.get("time").toString()).build());
-            item.put("content", AttributeValue.builder().s(requestBody.get("content").toString()).build());
+            item.put("JournalEntryId", AttributeValue.builder().s(entry.journalEntryId()).build());
+            item.put("date", AttributeValue.builder().s(entry.date()).build());
+            item.put("time", AttributeValue.builder().s(entry.time()).build());
+            item.put("content", AttributeValue.builder().s(entry.content()).build());
+            item.put(JournalEntries.DATE_KEY, JournalEntries.dateKey(entry.date(), entry.time()));
+            item.put(ChangeTracking.CHANGED_AT, ChangeTracking.changedAt(Instant.now(), entry.journalEntryId()));
 
             // Optional attributes
-            if (requestBody.containsKey("feeling")) {
-                item.put("feeling", AttributeValue.builder().s(requestBody.get("feeling").toString()).build());
+            if (entry.feeling() != null) {
+                item.put("feeling", AttributeValue.builder().s(entry.feeling()).build());
             }
-            if (requestBody.containsKey("intensity")) {
-                item.put("intensity", AttributeValue.builder().n(requestBody.get("intensity").toString()).build());
+            if (entry.intensity() != null) {
+                item.put("intensity", AttributeValue.builder().n(entry.intensity().toString()).build());
             }
 
-            // 4. Store in DynamoDB
-            dynamoDb.putItem(PutItemRequest.builder()
-                .tableName(System.getenv("JOURNAL_ENTRIES_TABLE"))
-                .item(item)
+            // 4. Store in DynamoDB, together with the entry's contribution to the mood rollups
+            MoodRollups.Delta rollups = new MoodRollups.Delta(clientId);
+            rollups.add(item);
+            List<TransactWriteItem> writes = new ArrayList<>();
+            writes.add(TransactWriteItem.builder()
+                .put(Put.builder()
+                    .tableName(System.getenv("JOURNAL_ENTRIES_TABLE"))
+                    .item(item)
+                    .build())
+                .build());
+            writes.addAll(rollups.writes());
+            dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                .transactItems(writes)
                 .build());
 
             // 5. Return response
-            Map<String, Object> response = new HashMap<>();
-            response.put("ClientId", clientId);
-            response.put("JournalEntryId", journalEntryId);
-            response.put("date", requestBody.get("date"));
-            response.put("time", requestBody.get("time"));
-            response.put("content", requestBody.get("content"));
-            if (requestBody.containsKey("feeling")) response.put("feeling", requestBody.get("feeling"));
-            if (requestBody.containsKey("intensity")) response.put("intensity", requestBody.get("intensity"));
-
-            return ResponseUtils.successResponse(201, response);
+            return ResponseUtils.jsonResponse(201, JournalEntry.WRITER, entry);
 
-        } catch (NumberFormatException e) {
+        } catch (InvalidFormatException e) {
             return ResponseUtils.errorResponse(400, "Invalid intensity format - must be integer");
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, "Invalid request body: " + e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Error creating journal entry: " + e.getMessage());
         }
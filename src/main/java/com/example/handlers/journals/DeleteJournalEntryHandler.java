@@ -1,19 +1,32 @@
 package com.example.handlers.journals;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.JournalEntries;
+import com.example.util.MoodRollups;
 import com.example.util.ResponseUtils;
+import com.example.util.Transactions;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-public class DeleteJournalEntryHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class DeleteJournalEntryHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract path parameters
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -25,14 +38,59 @@ public class DeleteJournalEntryHandler implements RequestHandler<Map<String, Obj
                 return ResponseUtils.errorResponse(400, "Client ID and Journal Entry ID are required");
             }
 
-            // 3. Delete the journal entry from DynamoDB
-            dynamoDb.deleteItem(DeleteItemRequest.builder()
-                .tableName(System.getenv("JOURNAL_ENTRIES_TABLE"))
-                .key(Map.of(
-                    "ClientId", AttributeValue.builder().s(clientId).build(),
-                    "JournalEntryId", AttributeValue.builder().s(journalEntryId).build()
-                ))
-                .build());
+            // 3. Replace the entry with a tombstone so syncing clients see the delete (the table's TTL removes
+            //    it after ChangeTracking.TOMBSTONE_RETENTION), and take it out of DateIndex and the mood rollups
+            //    in the same transaction. Conditioned on the entry being unchanged since it was read.
+            String tableName = System.getenv("JOURNAL_ENTRIES_TABLE");
+            Map<String, AttributeValue> key = Map.of(
+                "ClientId", AttributeValue.builder().s(clientId).build(),
+                "JournalEntryId", AttributeValue.builder().s(journalEntryId).build()
+            );
+            Instant deletedAt = Instant.now();
+            for (int attempt = 1; ; attempt++) {
+                Map<String, AttributeValue> current = dynamoDb.getItem(GetItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key)
+                    .consistentRead(true)
+                    .build()).item();
+                if (current == null || current.isEmpty() || ChangeTracking.isDeleted(current)) {
+                    break; // Missing or already deleted; deletes stay idempotent
+                }
+
+                MoodRollups.Delta rollups = new MoodRollups.Delta(clientId);
+                rollups.remove(current);
+                Map<String, AttributeValue> values = new HashMap<>(Map.of(
+                    ":deleted", ChangeTracking.deletedFlag(),
+                    ":changedAt", ChangeTracking.changedAt(deletedAt, journalEntryId),
+                    ":expiresAt", ChangeTracking.expiresAt(deletedAt)
+                ));
+                MoodRollups.addUnchangedValue(values, current);
+
+                List<TransactWriteItem> writes = new ArrayList<>();
+                writes.add(TransactWriteItem.builder()
+                    .update(Update.builder()
+                        .tableName(tableName)
+                        .key(key)
+                        .conditionExpression("attribute_not_exists(deleted) AND " + MoodRollups.unchangedCondition(current))
+                        .updateExpression("SET deleted = :deleted, changedAt = :changedAt, expiresAt = :expiresAt "
+                            + "REMOVE content, feeling, intensity, #dateKey, " + MoodRollups.ROLLED_UP)
+                        .expressionAttributeNames(Map.of("#dateKey", JournalEntries.DATE_KEY))
+                        .expressionAttributeValues(values)
+                        .build())
+                    .build());
+                writes.addAll(rollups.writes());
+
+                try {
+                    dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(writes)
+                        .build());
+                    break;
+                } catch (TransactionCanceledException e) {
+                    if (attempt == MoodRollups.MAX_ATTEMPTS || !Transactions.lostRace(e)) {
+                        throw e;
+                    }
+                }
+            }
 
             // 4. Return 204 No Content response
             return ResponseUtils.noContentResponse();
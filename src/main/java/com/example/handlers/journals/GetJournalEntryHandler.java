@@ -1,25 +1,28 @@
 package com.example.handlers.journals;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.JournalEntry;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
-import java.util.HashMap;
 import java.util.Map;
 
-public class GetJournalEntryHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class GetJournalEntryHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract path parameters
-            Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
-            String clientId = pathParams.get("clientId");
-            String journalEntryId = pathParams.get("journalEntryId");
+            ApiGatewayEvent event = ApiGatewayEvent.from(input);
+            String clientId = event.pathParameter("clientId");
+            String journalEntryId = event.pathParameter("journalEntryId");
 
             // 2. Validate input
             if (clientId == null || clientId.isEmpty() || journalEntryId == null || journalEntryId.isEmpty()) {
@@ -39,27 +42,13 @@ public class GetJournalEntryHandler implements RequestHandler<Map<String, Object
             GetItemResponse getItemResponse = dynamoDb.getItem(getItemRequest);
 
             // 5. Process result
-            if (getItemResponse.item() == null || getItemResponse.item().isEmpty()) {
+            if (getItemResponse.item() == null || getItemResponse.item().isEmpty()
+                    || ChangeTracking.isDeleted(getItemResponse.item())) {
                 return ResponseUtils.errorResponse(404, "Journal entry not found");
             }
 
-            Map<String, AttributeValue> item = getItemResponse.item();
-            Map<String, Object> journalEntry = new HashMap<>();
-            journalEntry.put("ClientId", item.get("ClientId").s());
-            journalEntry.put("JournalEntryId", item.get("JournalEntryId").s());
-            journalEntry.put("date", item.get("date").s());
-            journalEntry.put("time", item.get("time").s());
-            journalEntry.put("content", item.get("content").s());
-
-            if (item.containsKey("feeling")) {
-                journalEntry.put("feeling", item.get("feeling").s());
-            }
-            if (item.containsKey("intensity")) {
-                journalEntry.put("intensity", Integer.parseInt(item.get("intensity").n()));
-            }
-
             // 6. Return response
-            return ResponseUtils.successResponse(200, journalEntry);
+            return ResponseUtils.jsonResponse(200, JournalEntry.WRITER, JournalEntry.fromItem(getItemResponse.item()));
 
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Error retrieving journal entry: " + e.getMessage());
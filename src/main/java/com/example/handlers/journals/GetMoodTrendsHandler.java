@@ -0,0 +1,172 @@
+package com.example.handlers.journals;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.MoodRollups;
+import com.example.util.ResponseUtils;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// GET /journal/clients/{clientId}/mood-trends?granularity=day|week|month&from=yyyy-MM-dd&to=yyyy-MM-dd
+// Reads the pre-aggregated MoodRollups buckets for the range, so the cost is one item per period
+// no matter how many entries the client wrote.
+public class GetMoodTrendsHandler extends InstrumentedHandler {
+    private static final Map<String, Integer> MAX_PERIODS = Map.of("day", 366, "week", 260, "month", 120);
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        try {
+            // 1. Extract and validate parameters
+            ApiGatewayEvent event = ApiGatewayEvent.from(input);
+            String clientId = event.pathParameter("clientId");
+            if (clientId == null || clientId.isEmpty()) {
+                return ResponseUtils.errorResponse(400, "Client ID is required");
+            }
+
+            String granularity = event.queryParameter("granularity") != null ? event.queryParameter("granularity") : "day";
+            if (!MAX_PERIODS.containsKey(granularity)) {
+                return ResponseUtils.errorResponse(400, "granularity must be day, week or month");
+            }
+            LocalDate to = event.queryParameter("to") != null
+                ? LocalDate.parse(event.queryParameter("to")) : LocalDate.now(ZoneOffset.UTC);
+            LocalDate from = event.queryParameter("from") != null
+                ? LocalDate.parse(event.queryParameter("from")) : defaultFrom(granularity, to);
+            if (from.isAfter(to)) {
+                return ResponseUtils.errorResponse(400, "from must not be after to");
+            }
+            if (periods(granularity, from, to) > MAX_PERIODS.get(granularity)) {
+                return ResponseUtils.errorResponse(400,
+                    "Range too long; at most " + MAX_PERIODS.get(granularity) + " " + granularity + "s per request");
+            }
+
+            // 2. Query the buckets of the range, in period order
+            List<Map<String, AttributeValue>> buckets = new ArrayList<>();
+            Map<String, AttributeValue> startKey = null;
+            do {
+                QueryResponse response = dynamoDb.query(QueryRequest.builder()
+                    .tableName(MoodRollups.tableName())
+                    .keyConditionExpression("ClientId = :clientId AND #bucket BETWEEN :from AND :to")
+                    .expressionAttributeNames(Map.of("#bucket", "bucket"))
+                    .expressionAttributeValues(Map.of(
+                        ":clientId", AttributeValue.builder().s(clientId).build(),
+                        ":from", AttributeValue.builder().s(bucket(granularity, from)).build(),
+                        ":to", AttributeValue.builder().s(bucket(granularity, to)).build()
+                    ))
+                    .exclusiveStartKey(startKey)
+                    .build());
+                buckets.addAll(response.items());
+                startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey() : null;
+            } while (startKey != null);
+
+            // 3. Periods whose entries were all deleted are left out
+            List<Map<String, Object>> periods = new ArrayList<>();
+            for (Map<String, AttributeValue> bucket : buckets) {
+                if (number(bucket, "entries") > 0) {
+                    periods.add(toPeriod(bucket));
+                }
+            }
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("clientId", clientId);
+            body.put("granularity", granularity);
+            body.put("from", from.toString());
+            body.put("to", to.toString());
+            body.put("periods", periods);
+            return ResponseUtils.successResponse(200, body);
+
+        } catch (DateTimeParseException e) {
+            return ResponseUtils.errorResponse(400, "from and to must be yyyy-MM-dd");
+        } catch (Exception e) {
+            return ResponseUtils.errorResponse(500, "Error retrieving mood trends: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> toPeriod(Map<String, AttributeValue> bucket) {
+        Map<String, Object> period = new LinkedHashMap<>();
+        String key = bucket.get("bucket").s();
+        period.put("period", key.substring(key.indexOf('#') + 1));
+        period.put("entries", number(bucket, "entries"));
+
+        // min and max come from the per-value histogram, skipping values whose entries were all removed
+        long count = number(bucket, "intensityCount");
+        Map<String, Object> intensity = new LinkedHashMap<>();
+        intensity.put("count", count);
+        intensity.put("sum", number(bucket, "intensitySum"));
+        if (count > 0) {
+            TreeMap<Long, Long> histogram = new TreeMap<>();
+            bucket.forEach((name, value) -> {
+                if (name.startsWith(MoodRollups.INTENSITY_PREFIX) && Long.parseLong(value.n()) > 0) {
+                    histogram.put(Long.parseLong(name.substring(MoodRollups.INTENSITY_PREFIX.length())),
+                        Long.parseLong(value.n()));
+                }
+            });
+            intensity.put("average", (double) number(bucket, "intensitySum") / count);
+            intensity.put("min", histogram.firstKey());
+            intensity.put("max", histogram.lastKey());
+        }
+        period.put("intensity", intensity);
+
+        Map<String, Long> feelings = new TreeMap<>();
+        bucket.forEach((name, value) -> {
+            if (name.startsWith(MoodRollups.FEELING_PREFIX) && Long.parseLong(value.n()) > 0) {
+                feelings.put(name.substring(MoodRollups.FEELING_PREFIX.length()), Long.parseLong(value.n()));
+            }
+        });
+        period.put("feelings", feelings);
+        return period;
+    }
+
+    private static long number(Map<String, AttributeValue> item, String attribute) {
+        AttributeValue value = item.get(attribute);
+        return value != null && value.n() != null ? Long.parseLong(value.n()) : 0;
+    }
+
+    private static String bucket(String granularity, LocalDate date) {
+        switch (granularity) {
+            case "week":
+                return MoodRollups.weekBucket(date);
+            case "month":
+                return MoodRollups.monthBucket(date);
+            default:
+                return MoodRollups.dayBucket(date);
+        }
+    }
+
+    private static LocalDate defaultFrom(String granularity, LocalDate to) {
+        switch (granularity) {
+            case "week":
+                return to.minusWeeks(11);
+            case "month":
+                return to.minusMonths(11).withDayOfMonth(1);
+            default:
+                return to.minusDays(29);
+        }
+    }
+
+    private static long periods(String granularity, LocalDate from, LocalDate to) {
+        switch (granularity) {
+            case "week":
+                return ChronoUnit.WEEKS.between(from, to) + 1;
+            case "month":
+                return ChronoUnit.MONTHS.between(from.withDayOfMonth(1), to.withDayOfMonth(1)) + 1;
+            default:
+                return ChronoUnit.DAYS.between(from, to) + 1;
+        }
+    }
+}
@@ -1,19 +1,21 @@
 package com.example.handlers.journals;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.Pagination;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-public class ListJournalAccessRequestsHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class ListJournalAccessRequestsHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract path parameters
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -24,7 +26,9 @@ public class ListJournalAccessRequestsHandler implements RequestHandler<Map<Stri
                 return ResponseUtils.errorResponse(400, "Client ID is required");
             }
 
-            // 3. Build query request
+            // 3. Build query request for one page
+            Map<String, String> queryParams = (Map<String, String>) input.get("queryStringParameters");
+            String scope = "journal-access-requests:" + clientId;
             QueryRequest queryRequest = QueryRequest.builder()
                 .tableName(System.getenv("JOURNAL_ACCESS_REQUESTS_TABLE"))
                 .keyConditionExpression("ClientId = :clientId")
@@ -34,6 +38,8 @@ public class ListJournalAccessRequestsHandler implements RequestHandler<Map<Stri
                     ":pending", AttributeValue.builder().s("Pending").build()
                 ))
                 .expressionAttributeNames(Map.of("#status", "status"))
+                .limit(Pagination.limit(queryParams))
+                .exclusiveStartKey(Pagination.decode(Pagination.token(queryParams), scope))
                 .build();
 
             // 4. Execute query
@@ -51,8 +57,11 @@ public class ListJournalAccessRequestsHandler implements RequestHandler<Map<Stri
                 .collect(Collectors.toList());
 
             // 6. Return response
-            return ResponseUtils.successResponse(200, requests);
+            return ResponseUtils.successResponse(200, Pagination.envelope(requests,
+                Pagination.encode(response.lastEvaluatedKey(), scope)));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (DynamoDbException e) {
             return ResponseUtils.errorResponse(500, "Database error: " + e.getMessage());
         } catch (Exception e) {
@@ -1,72 +1,183 @@
 package com.example.handlers.journals;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.JournalEntry;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.ItemJsonWriter;
+import com.example.util.JournalEntries;
+import com.example.util.Pagination;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.Map;
-import java.util.HashMap;
 
-public class ListJournalEntriesHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+public class ListJournalEntriesHandler extends InstrumentedHandler {
 
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
     private final String JOURNAL_ENTRIES_TABLE = System.getenv("JOURNAL_ENTRIES_TABLE");
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract client ID from path parameters
-            Map<String, String> pathParameters = (Map<String, String>) input.get("pathParameters");
-            String clientId = pathParameters.get("clientId");
+            ApiGatewayEvent event = ApiGatewayEvent.from(input);
+            String clientId = event.pathParameter("clientId");
+            Map<String, String> queryParams = event.queryStringParameters();
 
             // 2. Validate input
             if (clientId == null || clientId.isEmpty()) {
                 return ResponseUtils.errorResponse(400, "Client ID is required");
             }
 
-            // 3. Build DynamoDB query request
-            Map<String, AttributeValue> expressionValues = new HashMap<>();
-            expressionValues.put(":clientId", AttributeValue.builder().s(clientId).build());
+            // ?since= returns only what changed after the cursor, including deletes
+            if (queryParams.get("since") != null) {
+                return handleSync(clientId, queryParams);
+            }
 
-            QueryRequest queryRequest = QueryRequest.builder()
-                .tableName(JOURNAL_ENTRIES_TABLE)
-                .keyConditionExpression("ClientId = :clientId")
-                .expressionAttributeValues(expressionValues)
+            // Newest first by default; ?order=asc reads the journal from its first entry forwards.
+            // ?from= and ?to= (yyyy-MM-dd, inclusive) limit the page to a date range.
+            String from = queryParams.get("from");
+            String to = queryParams.get("to");
+            if ((from != null && !isDate(from)) || (to != null && !isDate(to))) {
+                return ResponseUtils.errorResponse(400, "from and to must be yyyy-MM-dd");
+            }
+            if (from != null && to != null && from.compareTo(to) > 0) {
+                return ResponseUtils.errorResponse(400, "from must not be after to");
+            }
+            boolean newestFirst = !"asc".equalsIgnoreCase(queryParams.get("order"));
+
+            // 3. Build a DateIndex query for one page, so a range only reads the entries inside it.
+            //    Deleted entries leave the index; the filter guards against tombstones all the same.
+            //    Until the index is backfilled, query the table instead: entries come in id order and
+            //    from/to become a filter on the entry's date.
+            boolean useIndex = JournalEntries.dateIndexBackfilled();
+            String scope = "journal:" + clientId + ":" + from + ":" + to + ":" + newestFirst + ":" + useIndex;
+            String token = Pagination.token(queryParams);
+            String syncCursor = ChangeTracking.sortableTime(Instant.now());
+            QueryRequest queryRequest = (useIndex
+                    ? dateIndexQuery(clientId, from, to).scanIndexForward(!newestFirst)
+                    : tableQuery(clientId, from, to))
+                .limit(Pagination.limit(queryParams))
+                .exclusiveStartKey(Pagination.decode(token, scope))
                 .build();
 
             // 4. Execute query
             QueryResponse queryResponse = dynamoDb.query(queryRequest);
 
-            // 5. Process results
-            List<Map<String, Object>> journalEntries = new ArrayList<>();
-            queryResponse.items().forEach(item -> {
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("ClientId", item.get("ClientId").s());
-                entry.put("JournalEntryId", item.get("JournalEntryId").s());
-                entry.put("date", item.get("date").s());
-                entry.put("time", item.get("time").s());
-                entry.put("content", item.get("content").s());
-
-                // Handle optional attributes
-                if (item.containsKey("feeling")) {
-                    entry.put("feeling", item.get("feeling").s());
-                }
-                if (item.containsKey("intensity")) {
-                    entry.put("intensity", Integer.parseInt(item.get("intensity").n()));
-                }
-                journalEntries.add(entry);
-            });
+            // 5. Write the page straight from the DynamoDB items; the first page also carries the
+            //    cursor for later ?since= syncs
+            Map<String, Object> extras = new LinkedHashMap<>();
+            if (token == null) {
+                extras.put("syncCursor", syncCursor);
+            }
+            String nextToken = Pagination.encode(queryResponse.lastEvaluatedKey(), scope);
+            if (nextToken != null) {
+                extras.put("nextToken", nextToken);
+            }
+            String body = ItemJsonWriter.writeSections(
+                List.of(new ItemJsonWriter.Section("items", JournalEntry.ITEM_JSON, queryResponse.items())), extras);
 
             // 6. Return response
-            return ResponseUtils.successResponse(200, journalEntries);
+            return ResponseUtils.rawJsonResponse(200, body);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Error retrieving journal entries: " + e.getMessage());
         }
     }
+
+    private QueryRequest.Builder dateIndexQuery(String clientId, String from, String to) {
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":clientId", AttributeValue.builder().s(clientId).build());
+        String keyCondition = "ClientId = :clientId";
+        if (from != null && to != null) {
+            keyCondition += " AND #dateKey BETWEEN :from AND :to";
+        } else if (from != null) {
+            keyCondition += " AND #dateKey >= :from";
+        } else if (to != null) {
+            keyCondition += " AND #dateKey <= :to";
+        }
+        if (from != null) {
+            expressionValues.put(":from", JournalEntries.rangeStart(from));
+        }
+        if (to != null) {
+            expressionValues.put(":to", JournalEntries.rangeEnd(to));
+        }
+
+        return QueryRequest.builder()
+            .tableName(JOURNAL_ENTRIES_TABLE)
+            .indexName(JournalEntries.DATE_INDEX)
+            .keyConditionExpression(keyCondition)
+            .filterExpression("attribute_not_exists(deleted)")
+            .expressionAttributeNames(from != null || to != null ? Map.of("#dateKey", JournalEntries.DATE_KEY) : null)
+            .expressionAttributeValues(expressionValues);
+    }
+
+    private QueryRequest.Builder tableQuery(String clientId, String from, String to) {
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":clientId", AttributeValue.builder().s(clientId).build());
+        String filter = "attribute_not_exists(deleted)";
+        if (from != null) {
+            filter += " AND #date >= :from";
+            expressionValues.put(":from", AttributeValue.builder().s(from).build());
+        }
+        if (to != null) {
+            filter += " AND #date <= :to";
+            expressionValues.put(":to", AttributeValue.builder().s(to).build());
+        }
+
+        return QueryRequest.builder()
+            .tableName(JOURNAL_ENTRIES_TABLE)
+            .keyConditionExpression("ClientId = :clientId")
+            .filterExpression(filter)
+            .expressionAttributeNames(from != null || to != null ? Map.of("#date", "date") : null)
+            .expressionAttributeValues(expressionValues);
+    }
+
+    private static boolean isDate(String value) {
+        try {
+            LocalDate.parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    // Entries created, edited or deleted since the cursor, oldest change first
+    private Map<String, Object> handleSync(String clientId, Map<String, String> queryParams) {
+        String since = queryParams.get("since");
+        Instant sinceTime = ChangeTracking.parseCursor(since);
+        if (ChangeTracking.expired(sinceTime)) {
+            return ResponseUtils.errorResponse(410, "since cursor is too old; list the journal again");
+        }
+
+        String scope = "journal-sync:" + clientId + ":" + since;
+        QueryResponse response = dynamoDb.query(QueryRequest.builder()
+            .tableName(JOURNAL_ENTRIES_TABLE)
+            .indexName(ChangeTracking.INDEX)
+            .keyConditionExpression("ClientId = :clientId AND changedAt >= :since")
+            .expressionAttributeValues(Map.of(
+                ":clientId", AttributeValue.builder().s(clientId).build(),
+                ":since", ChangeTracking.lowerBound(sinceTime)
+            ))
+            .limit(Pagination.limit(queryParams))
+            .exclusiveStartKey(Pagination.decode(Pagination.token(queryParams), scope))
+            .build());
+
+        return ResponseUtils.rawJsonResponse(200, ChangeTracking.writeDelta(JournalEntry.ITEM_JSON,
+            JournalEntry.TOMBSTONE_JSON, response.items(), ChangeTracking.nextCursor(response.items(), since),
+            Pagination.encode(response.lastEvaluatedKey(), scope)));
+    }
 }
@@ -1,18 +1,26 @@
 package com.example.handlers.journals;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.JournalEntries;
+import com.example.util.MoodRollups;
 import com.example.util.ResponseUtils;
+import com.example.util.Transactions;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-public class UpdateJournalEntryHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class UpdateJournalEntryHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract path parameters
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -30,7 +38,8 @@ public class UpdateJournalEntryHandler implements RequestHandler<Map<String, Obj
             // 4. Build update expression
             Map<String, String> attributeNames = new HashMap<>();
             Map<String, AttributeValue> attributeValues = new HashMap<>();
-            StringBuilder updateExpression = new StringBuilder("SET ");
+            List<String> assignments = new ArrayList<>();
+            Map<String, AttributeValue> changes = new HashMap<>();
 
             int counter = 1;
             for (Map.Entry<String, Object> entry : requestBody.entrySet()) {
@@ -62,27 +71,86 @@ public class UpdateJournalEntryHandler implements RequestHandler<Map<String, Obj
                     attributeValues.put(placeholder, AttributeValue.builder().s(value.toString()).build());
                 }
 
-                updateExpression.append("#").append(attribute).append(" = ").append(placeholder);
-                if (counter < requestBody.size()) updateExpression.append(", ");
+                assignments.add("#" + attribute + " = " + placeholder);
+                changes.put(attribute, attributeValues.get(placeholder));
                 counter++;
             }
-            
-
-            // 5. Perform update
-            UpdateItemResponse response = dynamoDb.updateItem(UpdateItemRequest.builder()
-                .tableName(System.getenv("JOURNAL_ENTRIES_TABLE"))
-                .key(Map.of(
-                    "ClientId", AttributeValue.builder().s(clientId).build(),
-                    "JournalEntryId", AttributeValue.builder().s(journalEntryId).build()
-                ))
-                .updateExpression(updateExpression.toString())
-                .expressionAttributeNames(attributeNames)
-                .expressionAttributeValues(attributeValues)
-                .returnValues(ReturnValue.ALL_NEW)
-                .build());
+
+            if (assignments.isEmpty()) {
+                return ResponseUtils.errorResponse(400, "No attributes to update");
+            }
+
+            // Every edit moves the entry to the end of the change feed used by ?since= syncs
+            assignments.add("changedAt = :changedAt");
+            attributeValues.put(":changedAt", ChangeTracking.changedAt(Instant.now(), journalEntryId));
+            changes.put(ChangeTracking.CHANGED_AT, attributeValues.get(":changedAt"));
+
+            // 5. Perform update. The entry is read first so its old and new versions can be moved between mood
+            //    rollup buckets in the same transaction; the write is conditioned on the entry being unchanged
+            //    since, and is recomputed if another write got in between. Deleted entries can't be edited.
+            String tableName = System.getenv("JOURNAL_ENTRIES_TABLE");
+            Map<String, AttributeValue> key = Map.of(
+                "ClientId", AttributeValue.builder().s(clientId).build(),
+                "JournalEntryId", AttributeValue.builder().s(journalEntryId).build()
+            );
+            Map<String, AttributeValue> item = null;
+            for (int attempt = 1; item == null; attempt++) {
+                Map<String, AttributeValue> current = dynamoDb.getItem(GetItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key)
+                    .consistentRead(true)
+                    .build()).item();
+                if (current == null || current.isEmpty() || ChangeTracking.isDeleted(current)) {
+                    return ResponseUtils.errorResponse(404, "Journal entry not found");
+                }
+
+                Map<String, AttributeValue> updated = new HashMap<>(current);
+                updated.putAll(changes);
+                // Keeps the entry's DateIndex key in step with its date and time
+                updated.put(JournalEntries.DATE_KEY, JournalEntries.dateKey(updated.get("date"), updated.get("time")));
+                MoodRollups.Delta rollups = new MoodRollups.Delta(clientId);
+                rollups.remove(current);
+                boolean rolledUp = rollups.add(updated);
+
+                List<String> setClauses = new ArrayList<>(assignments);
+                Map<String, String> names = new HashMap<>(attributeNames);
+                Map<String, AttributeValue> values = new HashMap<>(attributeValues);
+                setClauses.add("#dateKey = :dateKey");
+                names.put("#dateKey", JournalEntries.DATE_KEY);
+                values.put(":dateKey", updated.get(JournalEntries.DATE_KEY));
+                if (rolledUp) {
+                    setClauses.add(MoodRollups.ROLLED_UP + " = :rolledUp");
+                    values.put(":rolledUp", updated.get(MoodRollups.ROLLED_UP));
+                }
+                MoodRollups.addUnchangedValue(values, current);
+
+                List<TransactWriteItem> writes = new ArrayList<>();
+                writes.add(TransactWriteItem.builder()
+                    .update(Update.builder()
+                        .tableName(tableName)
+                        .key(key)
+                        .conditionExpression("attribute_not_exists(deleted) AND " + MoodRollups.unchangedCondition(current))
+                        .updateExpression("SET " + String.join(", ", setClauses)
+                            + (rolledUp ? "" : " REMOVE " + MoodRollups.ROLLED_UP))
+                        .expressionAttributeNames(names)
+                        .expressionAttributeValues(values)
+                        .build())
+                    .build());
+                writes.addAll(rollups.writes());
+
+                try {
+                    dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(writes)
+                        .build());
+                    item = updated;
+                } catch (TransactionCanceledException e) {
+                    if (attempt == MoodRollups.MAX_ATTEMPTS || !Transactions.lostRace(e)) {
+                        throw e;
+                    }
+                }
+            }
 
             // 6. Return updated journal entry
-            Map<String, AttributeValue> item = response.attributes();
             Map<String, Object> journalEntry = new HashMap<>();
             journalEntry.put("ClientId", item.get("ClientId").s());
             journalEntry.put("JournalEntryId", item.get("JournalEntryId").s());
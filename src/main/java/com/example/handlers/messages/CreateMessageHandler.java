@@ -1,44 +1,72 @@
 package com.example.handlers.messages;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.Message;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.InboxSummary;
+import com.example.util.MessageKeys;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
-public class CreateMessageHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class CreateMessageHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
-            Map<String, Object> requestBody = ResponseUtils.parseBody(input);
+            Message request = ApiGatewayEvent.from(input).body(Message.READER);
+            if (request.senderId() == null || request.recipientId() == null || request.content() == null) {
+                throw new IllegalArgumentException("senderId, recipientId and content are required");
+            }
             
             String messageId = UUID.randomUUID().toString();
-            String timestamp = Instant.now().toString();
+            Instant sentAt = Instant.now();
+            String timestamp = sentAt.toString();
             
-            dynamoDb.putItem(PutItemRequest.builder()
-                .tableName(System.getenv("MESSAGES_TABLE"))
-                .item(Map.of(
-                    "messageId", AttributeValue.builder().s(messageId).build(),
-                    "senderId", AttributeValue.builder().s((String) requestBody.get("senderId")).build(),
-                    "recipientId", AttributeValue.builder().s((String) requestBody.get("recipientId")).build(),
-                    "content", AttributeValue.builder().s((String) requestBody.get("content")).build(),
-                    "timestamp", AttributeValue.builder().s(timestamp).build(),
-                    "status", AttributeValue.builder().s("sent").build()
-                ))
-                .build());
+            // Stored under the conversation, ordered by send time
+            String conversationId = MessageKeys.conversationId(request.senderId(), request.recipientId());
+            String sortKey = MessageKeys.sortKey(sentAt, messageId);
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("conversationId", AttributeValue.builder().s(conversationId).build());
+            item.put("sortKey", AttributeValue.builder().s(sortKey).build());
+            item.put("messageId", AttributeValue.builder().s(messageId).build());
+            item.put("senderId", AttributeValue.builder().s(request.senderId()).build());
+            item.put("recipientId", AttributeValue.builder().s(request.recipientId()).build());
+            item.put("content", AttributeValue.builder().s(request.content()).build());
+            item.put("timestamp", AttributeValue.builder().s(timestamp).build());
+            item.put("status", AttributeValue.builder().s("sent").build());
+            item.put(ChangeTracking.CHANGED_AT, ChangeTracking.changedAt(sentAt, messageId));
+            item.put(InboxSummary.COUNTED, AttributeValue.builder().bool(true).build());
+
+            // Written in one transaction with the recipient's unread count and both inbox previews
+            InboxSummary.send(dynamoDb,
+                TransactWriteItem.builder()
+                    .put(Put.builder().tableName(MessageKeys.tableName()).item(item).build())
+                    .build(),
+                new InboxSummary.Sent(conversationId, messageId, sortKey, request.senderId(),
+                    request.recipientId(), request.content(), timestamp));
 
             return ResponseUtils.successResponse(200, Map.of(
                 "messageId", messageId,
                 "status", "sent",
-                "timestamp", timestamp
+                "timestamp", timestamp,
+                "conversationId", conversationId,
+                "sortKey", sortKey
             ));
 
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, "Invalid request body: " + e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Error sending message: " + e.getMessage());
         }
@@ -1,29 +1,98 @@
 package com.example.handlers.messages;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.InboxSummary;
+import com.example.util.MessageKeys;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import java.time.Instant;
 import java.util.Map;
 
-public class DeleteMessageHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class DeleteMessageHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
-            Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
-            String messageId = pathParams.get("messageId");
+            ApiGatewayEvent event = ApiGatewayEvent.from(input);
+            String messageId = event.pathParameter("messageId");
 
-            dynamoDb.deleteItem(DeleteItemRequest.builder()
-                .tableName(System.getenv("MESSAGES_TABLE"))
+            // Leave a tombstone so clients syncing the conversation learn about the delete;
+            // the table's TTL removes it once TOMBSTONE_RETENTION has passed
+            Map<String, AttributeValue> key = MessageKeys.resolve(dynamoDb, messageId, event);
+            Map<String, AttributeValue> current = key == null ? null : dynamoDb.getItem(GetItemRequest.builder()
+                .tableName(MessageKeys.tableName())
+                .key(key)
+                .consistentRead(true)
+                .build()).item();
+            if (current != null && !current.isEmpty() && !ChangeTracking.isDeleted(current)) {
+                Instant deletedAt = Instant.now();
+                String condition = "attribute_exists(messageId) AND attribute_not_exists(deleted)";
+                String update = "SET deleted = :deleted, changedAt = :changedAt, expiresAt = :expiresAt "
+                    + "REMOVE content, " + InboxSummary.COUNTED;
+                Map<String, AttributeValue> values = Map.of(
+                    ":deleted", ChangeTracking.deletedFlag(),
+                    ":changedAt", ChangeTracking.changedAt(deletedAt, messageId),
+                    ":expiresAt", ChangeTracking.expiresAt(deletedAt)
+                );
+
+                // An unread message also comes off the recipient's unread count, in the same transaction
+                String conversationId = current.get("conversationId").s();
+                boolean released = current.containsKey(InboxSummary.COUNTED) && InboxSummary.release(dynamoDb,
+                    Update.builder()
+                        .tableName(MessageKeys.tableName())
+                        .key(key)
+                        .conditionExpression(condition + " AND attribute_exists(" + InboxSummary.COUNTED + ")")
+                        .updateExpression(update)
+                        .expressionAttributeValues(values)
+                        .build(),
+                    current.get("recipientId").s(), conversationId);
+                if (!released) {
+                    try {
+                        dynamoDb.updateItem(UpdateItemRequest.builder()
+                            .tableName(MessageKeys.tableName())
+                            .key(key)
+                            .conditionExpression(condition)
+                            .updateExpression(update)
+                            .expressionAttributeValues(values)
+                            .build());
+                    } catch (ConditionalCheckFailedException e) {
+                        // Already deleted
+                    }
+                }
+
+                // Don't keep showing the deleted text as the conversation's last message
+                InboxSummary.updatePreview(dynamoDb, current.get("recipientId").s(), conversationId, messageId, "");
+                InboxSummary.updatePreview(dynamoDb, current.get("senderId").s(), conversationId, messageId, "");
+            }
+
+            // Also remove any copy still in the legacy table, so a later migration run can't bring it back
+            boolean legacyDeleted = MessageKeys.legacyTableName() != null && dynamoDb.deleteItem(DeleteItemRequest.builder()
+                .tableName(MessageKeys.legacyTableName())
                 .key(Map.of("messageId", AttributeValue.builder().s(messageId).build()))
-                .build());
+                .returnValues(ReturnValue.ALL_OLD)
+                .build()).hasAttributes();
 
+            // Nothing found: don't answer 204 for a message that may just not be in MessageIdIndex yet,
+            // the client should retry (or pass the conversationId and sortKey from create)
+            if ((current == null || current.isEmpty()) && !legacyDeleted) {
+                return ResponseUtils.errorResponse(404, "Message not found");
+            }
             return ResponseUtils.noContentResponse();
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Error deleting message: " + e.getMessage());
         }
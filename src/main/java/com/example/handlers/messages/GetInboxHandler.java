@@ -0,0 +1,71 @@
+package com.example.handlers.messages;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.InboxSummary;
+import com.example.util.ResponseUtils;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// GET /messages/inbox/{userId}: unread badge plus one row per conversation, latest message first.
+// Served from the user's InboxSummary item with a single GetItem.
+public class GetInboxHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        try {
+            String userId = ApiGatewayEvent.from(input).pathParameter("userId");
+            if (userId == null || userId.isEmpty()) {
+                return ResponseUtils.errorResponse(400, "User ID is required");
+            }
+
+            // 1. A user who has never sent or received a message has no summary yet
+            Map<String, AttributeValue> summary = InboxSummary.get(dynamoDb, userId);
+            List<Map.Entry<String, Map<String, AttributeValue>>> entries = new ArrayList<>();
+            if (summary != null && summary.containsKey("conversations")) {
+                summary.get("conversations").m().forEach((conversationId, entry) -> {
+                    if (entry.m().containsKey("lastMessageId")) {
+                        entries.add(Map.entry(conversationId, entry.m()));
+                    }
+                });
+            }
+
+            // 2. Latest conversation first
+            entries.sort(Comparator.comparing(
+                (Map.Entry<String, Map<String, AttributeValue>> entry) -> entry.getValue().get("lastSortKey").s()).reversed());
+
+            List<Map<String, Object>> conversations = new ArrayList<>();
+            for (Map.Entry<String, Map<String, AttributeValue>> entry : entries) {
+                Map<String, AttributeValue> fields = entry.getValue();
+                Map<String, Object> conversation = new LinkedHashMap<>();
+                conversation.put("conversationId", entry.getKey());
+                conversation.put("withUserId", fields.get("withUserId").s());
+                conversation.put("unread", Long.parseLong(fields.get("unread").n()));
+                conversation.put("lastMessageId", fields.get("lastMessageId").s());
+                conversation.put("lastSenderId", fields.get("lastSenderId").s());
+                conversation.put("lastPreview", fields.get("lastPreview").s());
+                conversation.put("lastTimestamp", fields.get("lastTimestamp").s());
+                conversations.add(conversation);
+            }
+
+            // 3. Return response
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("userId", userId);
+            body.put("unreadTotal", summary != null && summary.containsKey("unreadTotal")
+                ? Long.parseLong(summary.get("unreadTotal").n()) : 0L);
+            body.put("conversations", conversations);
+            return ResponseUtils.successResponse(200, body);
+
+        } catch (Exception e) {
+            return ResponseUtils.errorResponse(500, "Error retrieving inbox: " + e.getMessage());
+        }
+    }
+}
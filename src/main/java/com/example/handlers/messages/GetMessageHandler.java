@@ -1,40 +1,53 @@
 package com.example.handlers.messages;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.Message;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.MessageKeys;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import java.util.Map;
 
-public class GetMessageHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class GetMessageHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
-            Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
-            String messageId = pathParams.get("messageId");
+            ApiGatewayEvent event = ApiGatewayEvent.from(input);
+            String messageId = event.pathParameter("messageId");
+
+            // Resolve the conversation key (given by the client, or through MessageIdIndex); fall back to
+            // the legacy table for messages that haven't been migrated yet
+            Map<String, AttributeValue> key = MessageKeys.resolve(dynamoDb, messageId, event);
+            String tableName = MessageKeys.tableName();
+            if (key == null && MessageKeys.legacyTableName() != null) {
+                tableName = MessageKeys.legacyTableName();
+                key = Map.of("messageId", AttributeValue.builder().s(messageId).build());
+            }
+            if (key == null) {
+                return ResponseUtils.errorResponse(404, "Message not found");
+            }
 
             var response = dynamoDb.getItem(GetItemRequest.builder()
-                .tableName(System.getenv("MESSAGES_TABLE"))
-                .key(Map.of("messageId", AttributeValue.builder().s(messageId).build()))
+                .tableName(tableName)
+                .key(key)
+                .consistentRead(true)
                 .build());
 
-            if (!response.hasItem()) {
+            if (!response.hasItem() || ChangeTracking.isDeleted(response.item())) {
                 return ResponseUtils.errorResponse(404, "Message not found");
             }
 
-            return ResponseUtils.successResponse(200, Map.of(
-                "messageId", response.item().get("messageId").s(),
-                "senderId", response.item().get("senderId").s(),
-                "recipientId", response.item().get("recipientId").s(),
-                "content", response.item().get("content").s(),
-                "timestamp", response.item().get("timestamp").s(),
-                "status", response.item().get("status").s()
-            ));
+            return ResponseUtils.jsonResponse(200, Message.WRITER, Message.fromItem(response.item()));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Error retrieving message: " + e.getMessage());
         }
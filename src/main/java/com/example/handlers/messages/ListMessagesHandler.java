@@ -1,52 +1,122 @@
 package com.example.handlers.messages;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.Message;
+import com.example.util.BatchReads;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.ItemJsonWriter;
+import com.example.util.MessageKeys;
+import com.example.util.Pagination;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
-public class ListMessagesHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class ListMessagesHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
-            Map<String, String> queryParams = (Map<String, String>) input.get("queryStringParameters");
+            Map<String, String> queryParams = ApiGatewayEvent.from(input).queryStringParameters();
             String senderId = queryParams.get("senderId");
             String recipientId = queryParams.get("recipientId");
+            if (queryParams.get("since") != null) {
+                return handleSync(senderId, recipientId, queryParams);
+            }
+            // Oldest first by default; ?order=desc loads a thread from the latest message backwards
+            boolean newestFirst = "desc".equalsIgnoreCase(queryParams.get("order"));
+            String scope = "messages:" + senderId + ":" + recipientId + ":" + newestFirst;
+            String token = Pagination.token(queryParams);
+            String syncCursor = ChangeTracking.sortableTime(Instant.now());
 
-            QueryRequest queryRequest = buildQueryRequest(senderId, recipientId);
+            QueryRequest queryRequest = buildQueryRequest(senderId, recipientId).toBuilder()
+                .scanIndexForward(!newestFirst)
+                .limit(Pagination.limit(queryParams))
+                .exclusiveStartKey(Pagination.decode(token, scope))
+                .build();
             QueryResponse response = dynamoDb.query(queryRequest);
 
-            List<Map<String, Object>> messages = response.items().stream()
-                .map(this::convertItemToMessageMap)
-                .collect(Collectors.toList());
+            // Sender and recipient indexes only project keys; fetch the page's messages in one batch
+            List<Map<String, AttributeValue>> items = response.items();
+            if (queryRequest.indexName() != null) {
+                items = BatchReads.getAll(dynamoDb, MessageKeys.tableName(), items.stream()
+                    .map(item -> MessageKeys.key(item.get("conversationId").s(), item.get("sortKey").s()))
+                    .collect(Collectors.toList()));
+                items = items.stream().filter(item -> !ChangeTracking.isDeleted(item)).collect(Collectors.toList());
+            }
 
-            return ResponseUtils.successResponse(200, messages);
+            // Written straight from the DynamoDB items, without per-message maps. The first page of a
+            // conversation also carries the cursor for later ?since= syncs.
+            Map<String, Object> extras = new LinkedHashMap<>();
+            if (token == null && senderId != null && recipientId != null) {
+                extras.put("syncCursor", syncCursor);
+            }
+            String nextToken = Pagination.encode(response.lastEvaluatedKey(), scope);
+            if (nextToken != null) {
+                extras.put("nextToken", nextToken);
+            }
+            return ResponseUtils.rawJsonResponse(200, ItemJsonWriter.writeSections(
+                List.of(new ItemJsonWriter.Section("items", Message.ITEM_JSON, items)), extras));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Error retrieving messages: " + e.getMessage());
         }
     }
 
+    // Messages sent, edited or deleted in the conversation since the cursor, oldest change first
+    private Map<String, Object> handleSync(String senderId, String recipientId, Map<String, String> queryParams) {
+        if (senderId == null || recipientId == null) {
+            throw new IllegalArgumentException("since requires both senderId and recipientId");
+        }
+        String since = queryParams.get("since");
+        Instant sinceTime = ChangeTracking.parseCursor(since);
+        if (ChangeTracking.expired(sinceTime)) {
+            return ResponseUtils.errorResponse(410, "since cursor is too old; list the conversation again");
+        }
+
+        String conversationId = MessageKeys.conversationId(senderId, recipientId);
+        String scope = "messages-sync:" + conversationId + ":" + since;
+        QueryResponse response = dynamoDb.query(QueryRequest.builder()
+            .tableName(MessageKeys.tableName())
+            .indexName(ChangeTracking.INDEX)
+            .keyConditionExpression("conversationId = :conversationId AND changedAt >= :since")
+            .expressionAttributeValues(Map.of(
+                ":conversationId", AttributeValue.builder().s(conversationId).build(),
+                ":since", ChangeTracking.lowerBound(sinceTime)
+            ))
+            .limit(Pagination.limit(queryParams))
+            .exclusiveStartKey(Pagination.decode(Pagination.token(queryParams), scope))
+            .build());
+
+        return ResponseUtils.rawJsonResponse(200, ChangeTracking.writeDelta(Message.ITEM_JSON, Message.TOMBSTONE_JSON,
+            response.items(), ChangeTracking.nextCursor(response.items(), since),
+            Pagination.encode(response.lastEvaluatedKey(), scope)));
+    }
+
     private QueryRequest buildQueryRequest(String senderId, String recipientId) {
         if (senderId != null && recipientId != null) {
+            // Both directions of the thread live in one partition, ordered by send time
             return QueryRequest.builder()
-                .tableName(System.getenv("MESSAGES_TABLE"))
-                .indexName("ConversationIndex")
-                .keyConditionExpression("senderId = :senderId AND recipientId = :recipientId")
+                .tableName(MessageKeys.tableName())
+                .keyConditionExpression("conversationId = :conversationId")
+                .filterExpression("attribute_not_exists(deleted)")
                 .expressionAttributeValues(Map.of(
-                    ":senderId", AttributeValue.builder().s(senderId).build(),
-                    ":recipientId", AttributeValue.builder().s(recipientId).build()
+                    ":conversationId", AttributeValue.builder()
+                        .s(MessageKeys.conversationId(senderId, recipientId)).build()
                 ))
                 .build();
         } else if (senderId != null) {
             return QueryRequest.builder()
-                .tableName(System.getenv("MESSAGES_TABLE"))
-                .indexName("SenderIndex")
+                .tableName(MessageKeys.tableName())
+                .indexName(MessageKeys.SENDER_INDEX)
                 .keyConditionExpression("senderId = :senderId")
                 .expressionAttributeValues(Map.of(
                     ":senderId", AttributeValue.builder().s(senderId).build()
@@ -54,8 +124,8 @@ public class ListMessagesHandler implements RequestHandler<Map<String, Object>,
                 .build();
         } else if (recipientId != null) {
             return QueryRequest.builder()
-                .tableName(System.getenv("MESSAGES_TABLE"))
-                .indexName("RecipientIndex")
+                .tableName(MessageKeys.tableName())
+                .indexName(MessageKeys.RECIPIENT_INDEX)
                 .keyConditionExpression("recipientId = :recipientId")
                 .expressionAttributeValues(Map.of(
                     ":recipientId", AttributeValue.builder().s(recipientId).build()
@@ -65,15 +135,4 @@ public class ListMessagesHandler implements RequestHandler<Map<String, Object>,
             throw new IllegalArgumentException("Must provide senderId or recipientId");
         }
     }
-
-    private Map<String, Object> convertItemToMessageMap(Map<String, AttributeValue> item) {
-        Map<String, Object> messageMap = new HashMap<>();
-        messageMap.put("messageId", item.get("messageId").s());
-        messageMap.put("senderId", item.get("senderId").s());
-        messageMap.put("recipientId", item.get("recipientId").s());
-        messageMap.put("content", item.get("content").s());
-        messageMap.put("timestamp", item.get("timestamp").s());
-        messageMap.put("status", item.get("status").s());
-        return messageMap;
-    }
 }
@@ -1,46 +1,141 @@
 package com.example.handlers.messages;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.util.ChangeTracking;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.InboxSummary;
+import com.example.util.MessageKeys;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-public class UpdateMessageHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+// Edits a message's content and/or marks it read ({"status": "read"})
+public class UpdateMessageHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
-            Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
-            String messageId = pathParams.get("messageId");
-            
+            ApiGatewayEvent event = ApiGatewayEvent.from(input);
+            String messageId = event.pathParameter("messageId");
+
             Map<String, Object> requestBody = ResponseUtils.parseBody(input);
             String newContent = (String) requestBody.get("content");
+            String newStatus = (String) requestBody.get("status");
+            if (newStatus != null && !"read".equals(newStatus)) {
+                return ResponseUtils.errorResponse(400, "status can only be set to read");
+            }
+            if (newContent == null && newStatus == null) {
+                return ResponseUtils.errorResponse(400, "content or status is required");
+            }
+
+            // Resolve the conversation key; unmigrated messages are updated in the legacy table
+            Map<String, AttributeValue> key = MessageKeys.resolve(dynamoDb, messageId, event);
+            String tableName = MessageKeys.tableName();
+            if (key == null && MessageKeys.legacyTableName() != null) {
+                tableName = MessageKeys.legacyTableName();
+                key = Map.of("messageId", AttributeValue.builder().s(messageId).build());
+            }
+            if (key == null) {
+                return ResponseUtils.errorResponse(404, "Message not found");
+            }
+
+            Instant updatedAt = Instant.now();
+            List<String> assignments = new ArrayList<>();
+            Map<String, String> names = new HashMap<>();
+            Map<String, AttributeValue> values = new HashMap<>();
+            assignments.add("changedAt = :changedAt");
+            values.put(":changedAt", ChangeTracking.changedAt(updatedAt, messageId));
+            if (newContent != null) {
+                assignments.add("content = :content");
+                assignments.add("#ts = :timestamp");
+                names.put("#ts", "timestamp");
+                values.put(":content", AttributeValue.builder().s(newContent).build());
+                values.put(":timestamp", AttributeValue.builder().s(updatedAt.toString()).build());
+            }
+            if (newStatus != null) {
+                assignments.add("#status = :status");
+                names.put("#status", "status");
+                values.put(":status", AttributeValue.builder().s(newStatus).build());
+            }
+            String condition = "attribute_exists(messageId) AND attribute_not_exists(deleted)";
+
+            // A message still counted as unread is marked read in one transaction with the recipient's
+            // inbox decrement; the condition on inboxCounted makes sure only one read (or delete) decrements
+            if (newStatus != null && tableName.equals(MessageKeys.tableName())) {
+                Map<String, AttributeValue> current = dynamoDb.getItem(GetItemRequest.builder()
+                    .tableName(tableName)
+                    .key(key)
+                    .consistentRead(true)
+                    .build()).item();
+                if (current == null || current.isEmpty() || ChangeTracking.isDeleted(current)) {
+                    return ResponseUtils.errorResponse(404, "Message not found");
+                }
+                if (current.containsKey(InboxSummary.COUNTED)) {
+                    boolean released = InboxSummary.release(dynamoDb, Update.builder()
+                            .tableName(tableName)
+                            .key(key)
+                            .updateExpression("SET " + String.join(", ", assignments) + " REMOVE " + InboxSummary.COUNTED)
+                            .conditionExpression(condition + " AND attribute_exists(" + InboxSummary.COUNTED + ")")
+                            .expressionAttributeNames(names)
+                            .expressionAttributeValues(values)
+                            .build(),
+                        current.get("recipientId").s(), current.get("conversationId").s());
+                    if (released) {
+                        Map<String, AttributeValue> updated = new HashMap<>(current);
+                        if (newContent != null) {
+                            updated.put("content", values.get(":content"));
+                            updated.put("timestamp", values.get(":timestamp"));
+                        }
+                        updated.put("status", values.get(":status"));
+                        return respond(messageId, updated, newContent != null);
+                    }
+                }
+            }
 
             UpdateItemResponse response = dynamoDb.updateItem(UpdateItemRequest.builder()
-                    .tableName(System.getenv("MESSAGES_TABLE"))
-                    .key(Map.of("messageId", AttributeValue.builder().s(messageId).build()))
-                    .updateExpression("SET content = :content, #ts = :timestamp") // Use alias
-                    .expressionAttributeNames(Map.of("#ts", "timestamp")) // Define alias
-                    .expressionAttributeValues(Map.of(
-                        ":content", AttributeValue.builder().s(newContent).build(),
-                        ":timestamp", AttributeValue.builder().s(Instant.now().toString()).build()
-                    ))
+                    .tableName(tableName)
+                    .key(key)
+                    .conditionExpression(condition)
+                    .updateExpression("SET " + String.join(", ", assignments))
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
                     .returnValues(ReturnValue.ALL_NEW)
                     .build());
 
-                return ResponseUtils.successResponse(200, Map.of(
-                    "messageId", messageId,
-                    "content", response.attributes().get("content").s(),
-                    "timestamp", response.attributes().get("timestamp").s()
-                ));
+            return respond(messageId, response.attributes(),
+                newContent != null && tableName.equals(MessageKeys.tableName()));
 
-            } catch (Exception e) {
-                return ResponseUtils.errorResponse(500, "Error updating message: " + e.getMessage());
+        } catch (ConditionalCheckFailedException e) {
+            return ResponseUtils.errorResponse(404, "Message not found");
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
+        } catch (Exception e) {
+            return ResponseUtils.errorResponse(500, "Error updating message: " + e.getMessage());
+        }
     }
+
+    private Map<String, Object> respond(String messageId, Map<String, AttributeValue> item, boolean contentChanged) {
+        // An edit of the latest message in the conversation also changes both participants' inbox previews
+        if (contentChanged) {
+            String conversationId = item.get("conversationId").s();
+            String content = item.get("content").s();
+            InboxSummary.updatePreview(dynamoDb, item.get("recipientId").s(), conversationId, messageId, content);
+            InboxSummary.updatePreview(dynamoDb, item.get("senderId").s(), conversationId, messageId, content);
+        }
+
+        return ResponseUtils.successResponse(200, Map.of(
+            "messageId", messageId,
+            "content", item.containsKey("content") ? item.get("content").s() : "",
+            "timestamp", item.containsKey("timestamp") ? item.get("timestamp").s() : "",
+            "status", item.containsKey("status") ? item.get("status").s() : ""
+        ));
     }
 }
-        
@@ -0,0 +1,213 @@
+package com.example.handlers.router;
+
+import com.example.handlers.appointments.ListAppointmentsHandler;
+import com.example.handlers.appointments.RequestAppointmentHandler;
+import com.example.handlers.clients.CreateClientHandler;
+import com.example.handlers.clients.DeleteClientHandler;
+import com.example.handlers.clients.GetClientHandler;
+import com.example.handlers.clients.ListClientsHandler;
+import com.example.handlers.clients.UpdateClientHandler;
+import com.example.handlers.journals.ApproveJournalAccessHandler;
+import com.example.handlers.journals.CreateJournalEntryHandler;
+import com.example.handlers.journals.DeleteJournalEntryHandler;
+import com.example.handlers.journals.GetJournalEntryHandler;
+import com.example.handlers.journals.GetMoodTrendsHandler;
+import com.example.handlers.journals.ListJournalAccessRequestsHandler;
+import com.example.handlers.journals.ListJournalEntriesHandler;
+import com.example.handlers.journals.RequestJournalAccessHandler;
+import com.example.handlers.journals.UpdateJournalEntryHandler;
+import com.example.handlers.journals.UpdateJournalPermissionsHandler;
+import com.example.handlers.mapping.ApproveRejectMappingHandler;
+import com.example.handlers.mapping.RemoveMappingHandler;
+import com.example.handlers.mapping.RequestMappingHandler;
+import com.example.handlers.messages.CreateMessageHandler;
+import com.example.handlers.messages.DeleteMessageHandler;
+import com.example.handlers.messages.GetInboxHandler;
+import com.example.handlers.messages.GetMessageHandler;
+import com.example.handlers.messages.ListMessagesHandler;
+import com.example.handlers.messages.UpdateMessageHandler;
+import com.example.handlers.search.ClientSearchHandler;
+import com.example.handlers.search.TherapistSearchHandler;
+import com.example.handlers.sessions.DeleteSessionHandler;
+import com.example.handlers.sessions.GetSessionHandler;
+import com.example.handlers.sessions.UpdateSessionHandler;
+import com.example.handlers.sessionslots.CreateSessionSlotHandler;
+import com.example.handlers.sessionslots.CreateSessionSlotsBulkHandler;
+import com.example.handlers.sessionslots.ListFreeWindowsHandler;
+import com.example.handlers.sessionslots.ListSessionSlotsHandler;
+import com.example.handlers.therapists.CreateTherapistHandler;
+import com.example.handlers.therapists.DeleteTherapistHandler;
+import com.example.handlers.therapists.GetTherapistHandler;
+import com.example.handlers.therapists.ListTherapistsHandler;
+import com.example.handlers.therapists.UpdateTherapistHandler;
+import com.example.util.ResponseUtils;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Front controller for router mode: API Gateway sends every request to one function through a greedy
+// proxy resource, and this class dispatches to the same handler the per-route function would run.
+// Handlers are created on first use and then reused for the life of the container.
+public class ApiRouterHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final List<Route> ROUTES = List.of(
+        new Route("POST", "/clients", CreateClientHandler::new),
+        new Route("GET", "/clients", ListClientsHandler::new),
+        new Route("GET", "/clients/{clientId}", GetClientHandler::new),
+        new Route("PUT", "/clients/{clientId}", UpdateClientHandler::new),
+        new Route("DELETE", "/clients/{clientId}", DeleteClientHandler::new),
+        new Route("PUT", "/clients/{clientId}/mapping-requests/{therapistId}", ApproveRejectMappingHandler::new),
+        new Route("DELETE", "/clients/{clientId}/mapped-therapists/{therapistId}", RemoveMappingHandler::new),
+        new Route("GET", "/clients/{clientId}/search", ClientSearchHandler::new),
+
+        new Route("POST", "/therapists", CreateTherapistHandler::new),
+        new Route("GET", "/therapists", ListTherapistsHandler::new),
+        new Route("GET", "/therapists/{therapistId}", GetTherapistHandler::new),
+        new Route("PUT", "/therapists/{therapistId}", UpdateTherapistHandler::new),
+        new Route("DELETE", "/therapists/{therapistId}", DeleteTherapistHandler::new),
+        new Route("POST", "/therapists/{therapistId}/mapping-requests", RequestMappingHandler::new),
+        new Route("POST", "/therapists/{therapistId}/session-slots", CreateSessionSlotHandler::new),
+        new Route("GET", "/therapists/{therapistId}/session-slots", ListSessionSlotsHandler::new),
+        new Route("POST", "/therapists/{therapistId}/session-slots/bulk", CreateSessionSlotsBulkHandler::new),
+        new Route("GET", "/therapists/{therapistId}/free-windows", ListFreeWindowsHandler::new),
+        new Route("POST", "/therapists/{therapistId}/session-slots/appointments", RequestAppointmentHandler::new),
+        new Route("GET", "/therapists/{therapistId}/session-slots/appointments", ListAppointmentsHandler::new),
+        new Route("GET", "/therapists/{therapistId}/search", TherapistSearchHandler::new),
+
+        new Route("POST", "/journal/clients/{clientId}/entries", CreateJournalEntryHandler::new),
+        new Route("GET", "/journal/clients/{clientId}/entries", ListJournalEntriesHandler::new),
+        new Route("GET", "/journal/clients/{clientId}/mood-trends", GetMoodTrendsHandler::new),
+        new Route("GET", "/journal/clients/{clientId}/{journalEntryId}", GetJournalEntryHandler::new),
+        new Route("PUT", "/journal/clients/{clientId}/{journalEntryId}", UpdateJournalEntryHandler::new),
+        new Route("DELETE", "/journal/clients/{clientId}/{journalEntryId}", DeleteJournalEntryHandler::new),
+        new Route("PUT", "/journal/clients/{clientId}/journal-access-permissions", UpdateJournalPermissionsHandler::new),
+        new Route("GET", "/journal/clients/{clientId}/access-requests", ListJournalAccessRequestsHandler::new),
+        new Route("POST", "/journal/clients/{clientId}/approve", ApproveJournalAccessHandler::new),
+        new Route("POST", "/journal/therapists/{therapistId}/request-access", RequestJournalAccessHandler::new),
+
+        new Route("GET", "/sessions/{therapistId}/{sessionId}", GetSessionHandler::new),
+        new Route("PUT", "/sessions/{therapistId}/{sessionId}", UpdateSessionHandler::new),
+        new Route("DELETE", "/sessions/{therapistId}/{sessionId}", DeleteSessionHandler::new),
+
+        new Route("POST", "/messages", CreateMessageHandler::new),
+        new Route("GET", "/messages", ListMessagesHandler::new),
+        new Route("GET", "/messages/inbox/{userId}", GetInboxHandler::new),
+        new Route("GET", "/messages/{messageId}", GetMessageHandler::new),
+        new Route("PUT", "/messages/{messageId}", UpdateMessageHandler::new),
+        new Route("DELETE", "/messages/{messageId}", DeleteMessageHandler::new)
+    );
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        String method = (String) input.get("httpMethod");
+        String[] segments = segments((String) input.get("path"));
+
+        // 1. Find the most specific template for the path; literal segments win over {params},
+        //    so /journal/clients/{clientId}/entries is not taken for a journal entry id. The method
+        //    is checked only against that template, so a method it lacks is a 405, not another route
+        Route template = null;
+        Map<String, String> bestParams = null;
+        for (Route route : ROUTES) {
+            if (template != null && route.literals <= template.literals) {
+                continue;
+            }
+            Map<String, String> params = route.match(segments);
+            if (params != null) {
+                template = route;
+                bestParams = params;
+            }
+        }
+        if (template == null) {
+            return ResponseUtils.errorResponse(404, "No route for " + input.get("path"));
+        }
+
+        Route best = null;
+        for (Route route : ROUTES) {
+            if (route.template.equals(template.template) && route.method.equals(method)) {
+                best = route;
+                break;
+            }
+        }
+        if (best == null) {
+            return ResponseUtils.errorResponse(405, "Method " + method + " not allowed");
+        }
+
+        // 2. Present the event exactly as the per-route integration would
+        Map<String, Object> routed = new HashMap<>(input);
+        routed.put("resource", best.template);
+        routed.put("pathParameters", bestParams);
+
+        // 3. Dispatch to the shared handler instance
+        return best.handler().handleRequest(routed, context);
+    }
+
+    private static String[] segments(String path) {
+        if (path == null) {
+            return new String[0];
+        }
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+    }
+
+    private static class Route {
+        private final String method;
+        private final String template;
+        private final String[] parts;
+        private final int literals;
+        private final Supplier<RequestHandler<Map<String, Object>, Map<String, Object>>> factory;
+        private volatile RequestHandler<Map<String, Object>, Map<String, Object>> instance;
+
+        Route(String method, String template,
+              Supplier<RequestHandler<Map<String, Object>, Map<String, Object>>> factory) {
+            this.method = method;
+            this.template = template;
+            this.parts = segments(template);
+            this.factory = factory;
+
+            int literalCount = 0;
+            for (String part : parts) {
+                if (!part.startsWith("{")) {
+                    literalCount++;
+                }
+            }
+            this.literals = literalCount;
+        }
+
+        // Returns the captured path parameters, or null when the path does not fit the template
+        Map<String, String> match(String[] segments) {
+            if (segments.length != parts.length) {
+                return null;
+            }
+            Map<String, String> params = new HashMap<>();
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i].startsWith("{")) {
+                    params.put(parts[i].substring(1, parts[i].length() - 1), decode(segments[i]));
+                } else if (!parts[i].equals(segments[i])) {
+                    return null;
+                }
+            }
+            return params;
+        }
+
+        RequestHandler<Map<String, Object>, Map<String, Object>> handler() {
+            RequestHandler<Map<String, Object>, Map<String, Object>> handler = instance;
+            if (handler == null) {
+                synchronized (this) {
+                    if (instance == null) {
+                        instance = factory.get();
+                    }
+                    handler = instance;
+                }
+            }
+            return handler;
+        }
+
+        private static String decode(String segment) {
+            return URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8);
+        }
+    }
+}
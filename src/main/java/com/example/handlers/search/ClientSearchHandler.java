@@ -1,23 +1,53 @@
 package com.example.handlers.search;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.ItemJsonWriter;
+import com.example.util.Pagination;
+import com.example.util.ParallelExecution;
 import com.example.util.ResponseUtils;
+import com.example.util.TherapistCache;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-public class ClientSearchHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+import java.util.function.Supplier;
+
+public class ClientSearchHandler extends InstrumentedHandler {
+    private static final ItemJsonWriter THERAPIST_JSON = ItemJsonWriter.builder()
+        .string("therapistId", "TherapistId")
+        .string("name", "name")
+        .string("location", "location")
+        .string("expertise", "expertise")
+        .build();
+    private static final ItemJsonWriter JOURNAL_JSON = ItemJsonWriter.builder()
+        .string("journalEntryId", "JournalEntryId")
+        .string("clientId", "ClientId")
+        .string("content", "content")
+        .string("timestamp", "timestamp")
+        .string("feeling", "feeling")
+        .numberText("intensity", "intensity", "0")
+        .build();
+    private static final ItemJsonWriter NOTE_JSON = ItemJsonWriter.builder()
+        .string("sessionId", "SessionId")
+        .string("date", "date")
+        .string("sharedNotes", "sharedNotes")
+        .string("privateNotes", "privateNotes")
+        .build();
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
     
     private final String therapistsTable = System.getenv("THERAPISTS_TABLE");
     private final String journalEntriesTable = System.getenv("JOURNAL_ENTRIES_TABLE");
     private final String sessionsTable = System.getenv("SESSIONS_TABLE");
     
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected boolean readBudget() {
+        return true;
+    }
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
             String clientId = pathParams.get("clientId");
@@ -30,53 +60,121 @@ public class ClientSearchHandler implements RequestHandler<Map<String, Object>,
                 return ResponseUtils.errorResponse(400, "Client ID and query parameters are required");
             }
 
-            // Execute searches
-            List<Map<String, String>> therapists = searchTherapists(query);
-            List<Map<String, String>> journals = searchJournals(clientId, query);
-            List<Map<String, String>> notes = searchSessionNotes(clientId, query);
+            // Each leg pages independently; a token only carries the legs that still have results
+            int limit = Pagination.limit(queryParams);
+            String token = Pagination.token(queryParams);
+            String scope = "search:client:" + clientId + ":" + query;
+            Map<String, Map<String, AttributeValue>> cursors = Pagination.decodeCursors(token, scope);
+
+            // Execute searches concurrently; latency tracks the slowest leg instead of the sum
+            Map<String, Supplier<Pagination.Page<Map<String, AttributeValue>>>> searches = new LinkedHashMap<>();
+            // Therapist legs don't depend on the client, so their pages are shared through the cache
+            searches.put("therapistsByLocation", () -> TherapistCache.search(
+                therapistSearchKey("location", query, limit, cursors.get("therapistsByLocation")),
+                () -> searchTherapistsByLocation(query, limit, cursors.get("therapistsByLocation"))));
+            searches.put("therapistsByExpertise", () -> TherapistCache.search(
+                therapistSearchKey("expertise", query, limit, cursors.get("therapistsByExpertise")),
+                () -> searchTherapistsByExpertise(query, limit, cursors.get("therapistsByExpertise"))));
+            searches.put("journals", () -> searchJournals(clientId, query, limit, cursors.get("journals")));
+            searches.put("notes", () -> searchSessionNotes(clientId, query, limit, cursors.get("notes")));
+            if (token != null) {
+                searches.keySet().retainAll(cursors.keySet());
+            }
+
+            ParallelExecution.LegResults<Pagination.Page<Map<String, AttributeValue>>> legs =
+                ParallelExecution.runLegs(searches, ParallelExecution.legTimeoutMillis());
+            TherapistCache.reportStats(context.getLogger());
+
+            // Failed legs keep their incoming cursor so the next page retries them
+            Map<String, Map<String, AttributeValue>> nextCursors = new LinkedHashMap<>();
+            for (String leg : searches.keySet()) {
+                Pagination.Page<Map<String, AttributeValue>> page = legs.results().get(leg);
+                if (page == null) {
+                    nextCursors.put(leg, cursors.getOrDefault(leg, Collections.emptyMap()));
+                } else if (page.hasMore()) {
+                    nextCursors.put(leg, page.lastEvaluatedKey());
+                }
+            }
+
+            List<Map<String, AttributeValue>> therapists = new ArrayList<>(itemsOf(legs, "therapistsByLocation"));
+            therapists.addAll(itemsOf(legs, "therapistsByExpertise"));
 
-            return ResponseUtils.successResponse(200, Map.of(
-                "therapists", therapists,
-                "journals", journals,
-                "notes", notes
-            ));
+            Map<String, Object> extras = new LinkedHashMap<>();
+            String nextToken = Pagination.encodeCursors(nextCursors, scope);
+            if (nextToken != null) {
+                extras.put("nextToken", nextToken);
+            }
+            if (legs.isPartial()) {
+                extras.put("partial", true);
+                extras.put("failedLegs", legs.failures());
+            }
 
+            // Results are written straight from the DynamoDB items
+            return ResponseUtils.rawJsonResponse(200, ItemJsonWriter.writeSections(List.of(
+                new ItemJsonWriter.Section("therapists", THERAPIST_JSON, therapists),
+                new ItemJsonWriter.Section("journals", JOURNAL_JSON, itemsOf(legs, "journals")),
+                new ItemJsonWriter.Section("notes", NOTE_JSON, itemsOf(legs, "notes"))
+            ), extras));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Search failed: " + e.getMessage());
         }
     }
 
-    private List<Map<String, String>> searchTherapists(String query) {
+    private List<Map<String, AttributeValue>> itemsOf(ParallelExecution.LegResults<Pagination.Page<Map<String, AttributeValue>>> legs, String leg) {
+        Pagination.Page<Map<String, AttributeValue>> page = legs.results().get(leg);
+        return page != null ? page.items() : Collections.emptyList();
+    }
+
+    private String therapistSearchKey(String leg, String query, int limit, Map<String, AttributeValue> cursor) {
+        return leg + "|" + query + "|" + limit + "|" + (cursor != null ? cursor.toString() : "");
+    }
+
+    private Pagination.Page<Map<String, AttributeValue>> searchTherapistsByLocation(String query, int limit,
+                                                                          Map<String, AttributeValue> cursor) {
         try {
-            // Search location index
-            QueryResponse locationResponse = dynamoDb.query(QueryRequest.builder()
+            QueryResponse response = dynamoDb.query(QueryRequest.builder()
                 .tableName(therapistsTable)
                 .indexName("locationIndex")
                 .keyConditionExpression("#loc = :loc")
                 .expressionAttributeNames(Map.of("#loc", "location"))
                 .expressionAttributeValues(Map.of(":loc", AttributeValue.builder().s(query).build()))
+                .limit(limit)
+                .exclusiveStartKey(Pagination.startKey(cursor))
                 .build());
 
-            // Search expertise index
-            QueryResponse expertiseResponse = dynamoDb.query(QueryRequest.builder()
+            return toPage(response);
+
+        } catch (DynamoDbException e) {
+            throw new RuntimeException("Error searching therapists: " + e.getMessage());
+        }
+    }
+
+    private Pagination.Page<Map<String, AttributeValue>> searchTherapistsByExpertise(String query, int limit,
+                                                                           Map<String, AttributeValue> cursor) {
+        try {
+            QueryResponse response = dynamoDb.query(QueryRequest.builder()
                 .tableName(therapistsTable)
                 .indexName("ExpertiseIndex")
                 .keyConditionExpression("#exp = :exp")
                 .expressionAttributeNames(Map.of("#exp", "expertise"))
                 .expressionAttributeValues(Map.of(":exp", AttributeValue.builder().s(query).build()))
+                .limit(limit)
+                .exclusiveStartKey(Pagination.startKey(cursor))
                 .build());
 
-            return Stream.concat(
-                locationResponse.items().stream(),
-                expertiseResponse.items().stream()
-            ).map(this::convertTherapist).collect(Collectors.toList());
-            
+            return toPage(response);
+
         } catch (DynamoDbException e) {
             throw new RuntimeException("Error searching therapists: " + e.getMessage());
         }
     }
 
-    private List<Map<String, String>> searchJournals(String clientId, String query) {
+    // Limit is applied before the filter, so a page may hold fewer matches than the limit
+    private Pagination.Page<Map<String, AttributeValue>> searchJournals(String clientId, String query, int limit,
+                                                              Map<String, AttributeValue> cursor) {
         try {
             QueryResponse response = dynamoDb.query(QueryRequest.builder()
                 .tableName(journalEntriesTable)
@@ -86,18 +184,19 @@ public class ClientSearchHandler implements RequestHandler<Map<String, Object>,
                     ":cid", AttributeValue.builder().s(clientId).build(),
                     ":query", AttributeValue.builder().s(query).build()
                 ))
+                .limit(limit)
+                .exclusiveStartKey(Pagination.startKey(cursor))
                 .build());
 
-            return response.items().stream()
-                .map(this::convertJournal)
-                .collect(Collectors.toList());
-            
+            return toPage(response);
+
         } catch (DynamoDbException e) {
             throw new RuntimeException("Error searching journals: " + e.getMessage());
         }
     }
 
-    private List<Map<String, String>> searchSessionNotes(String clientId, String query) {
+    private Pagination.Page<Map<String, AttributeValue>> searchSessionNotes(String clientId, String query, int limit,
+                                                                  Map<String, AttributeValue> cursor) {
         try {
             QueryResponse response = dynamoDb.query(QueryRequest.builder()
                 .tableName(sessionsTable)
@@ -108,53 +207,18 @@ public class ClientSearchHandler implements RequestHandler<Map<String, Object>,
                     ":cid", AttributeValue.builder().s(clientId).build(),
                     ":query", AttributeValue.builder().s(query).build()
                 ))
+                .limit(limit)
+                .exclusiveStartKey(Pagination.startKey(cursor))
                 .build());
 
-            return response.items().stream()
-                .map(this::convertNote)
-                .collect(Collectors.toList());
-            
+            return toPage(response);
+
         } catch (DynamoDbException e) {
             throw new RuntimeException("Error searching notes: " + e.getMessage());
         }
     }
 
-    // Conversion helpers
-    private Map<String, String> convertTherapist(Map<String, AttributeValue> item) {
-        return Map.of(
-            "therapistId", getStringValue(item, "TherapistId"),
-            "name", getStringValue(item, "name"),
-            "location", getStringValue(item, "location"),
-            "expertise", getStringValue(item, "expertise")
-        );
-    }
-
-    private Map<String, String> convertJournal(Map<String, AttributeValue> item) {
-        return Map.of(
-            "journalEntryId", getStringValue(item, "JournalEntryId"),
-            "clientId", getStringValue(item, "ClientId"),
-            "content", getStringValue(item, "content"),
-            "timestamp", getStringValue(item, "timestamp"),
-            "feeling", getStringValue(item, "feeling"),
-            "intensity", getNumberValue(item, "intensity")
-        );
-    }
-
-    private Map<String, String> convertNote(Map<String, AttributeValue> item) {
-        return Map.of(
-            "sessionId", getStringValue(item, "SessionId"),
-            "date", getStringValue(item, "date"),
-            "sharedNotes", getStringValue(item, "sharedNotes"),
-            "privateNotes", getStringValue(item, "privateNotes")
-        );
-    }
-
-    // Helper methods for safe value extraction
-    private String getStringValue(Map<String, AttributeValue> item, String key) {
-        return item.containsKey(key) ? item.get(key).s() : "";
-    }
-
-    private String getNumberValue(Map<String, AttributeValue> item, String key) {
-        return item.containsKey(key) ? item.get(key).n() : "0";
+    private Pagination.Page<Map<String, AttributeValue>> toPage(QueryResponse response) {
+        return new Pagination.Page<>(response.items(), response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null);
     }
 }
@@ -1,20 +1,46 @@
 package com.example.handlers.search;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.CapacityBudget;
+import com.example.util.ClientSearchIndex;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.ItemJsonWriter;
+import com.example.util.Pagination;
+import com.example.util.ParallelExecution;
 import com.example.util.ResponseUtils;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
-import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
-import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
-public class TherapistSearchHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class TherapistSearchHandler extends InstrumentedHandler {
+    private static final int JOURNAL_QUERY_CONCURRENCY = 8;
+    // Mapped clients read from TherapistClientIndex per request, several batches' worth
+    private static final int CASELOAD_CHUNK = JOURNAL_QUERY_CONCURRENCY * 8;
+
+    private static final ItemJsonWriter CLIENT_JSON = ItemJsonWriter.builder()
+        .string("clientId", "ClientId")
+        .string("name", "name")
+        .string("email", "email")
+        .build();
+    private static final ItemJsonWriter NOTE_JSON = ItemJsonWriter.builder()
+        .string("sessionId", "SessionId")
+        .string("date", "date")
+        .string("sharedNotes", "sharedNotes")
+        .string("privateNotes", "privateNotes")
+        .build();
+    private static final ItemJsonWriter JOURNAL_JSON = ItemJsonWriter.builder()
+        .string("journalEntryId", "JournalEntryId")
+        .string("content", "content")
+        .string("timestamp", "timestamp")
+        .numberText("intensity", "intensity", null)
+        .build();
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
     
    
     
@@ -25,67 +51,85 @@ public class TherapistSearchHandler implements RequestHandler<Map<String, Object
     private final String mappedTherapistsTable = System.getenv("MAPPED_THERAPISTS_TABLE");
     
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected boolean readBudget() {
+        return true;
+    }
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
             String therapistId = pathParams.get("therapistId");
-            String query = ((Map<String, String>) input.get("queryStringParameters")).get("query").toLowerCase();
+            Map<String, String> queryParams = (Map<String, String>) input.get("queryStringParameters");
+            String query = queryParams.get("query").toLowerCase();
+
+            // Each leg pages independently; a token only carries the legs that still have results
+            int limit = Pagination.limit(queryParams);
+            String token = Pagination.token(queryParams);
+            String scope = "search:therapist:" + therapistId + ":" + query;
+            Map<String, Map<String, AttributeValue>> cursors = Pagination.decodeCursors(token, scope);
 
-            // 1. Search Clients
-            List<Map<String, String>> clients = searchClients(query);
+            // Clients, session notes and journals (mapped clients only) are searched concurrently
+            Map<String, Supplier<Pagination.Page<Map<String, AttributeValue>>>> searches = new LinkedHashMap<>();
+            searches.put("clients", () -> searchClients(query, limit, cursors.get("clients")));
+            searches.put("notes", () -> searchSessionNotes(therapistId, query, limit, cursors.get("notes")));
+            searches.put("journals", () -> searchJournals(therapistId, query, limit, cursors.get("journals")));
+            if (token != null) {
+                searches.keySet().retainAll(cursors.keySet());
+            }
 
-            // 2. Search Session Notes
-            List<Map<String, String>> notes = searchSessionNotes(therapistId, query);
+            ParallelExecution.LegResults<Pagination.Page<Map<String, AttributeValue>>> legs =
+                ParallelExecution.runLegs(searches, ParallelExecution.legTimeoutMillis());
 
-            // 3. Search Journals (only for mapped clients)
-            List<Map<String, String>> journals = searchJournals(therapistId, query);
+            // Failed legs keep their incoming cursor so the next page retries them
+            Map<String, Map<String, AttributeValue>> nextCursors = new LinkedHashMap<>();
+            for (String leg : searches.keySet()) {
+                Pagination.Page<Map<String, AttributeValue>> page = legs.results().get(leg);
+                if (page == null) {
+                    nextCursors.put(leg, cursors.getOrDefault(leg, Collections.emptyMap()));
+                } else if (page.hasMore()) {
+                    nextCursors.put(leg, page.lastEvaluatedKey());
+                }
+            }
 
-            return ResponseUtils.successResponse(200, Map.of(
-                "clients", clients,
-                "notes", notes,
-                "journals", journals
-            ));
+            Map<String, Object> extras = new LinkedHashMap<>();
+            String nextToken = Pagination.encodeCursors(nextCursors, scope);
+            if (nextToken != null) {
+                extras.put("nextToken", nextToken);
+            }
+            if (legs.isPartial()) {
+                extras.put("partial", true);
+                extras.put("failedLegs", legs.failures());
+            }
 
+            // Results are written straight from the DynamoDB items
+            return ResponseUtils.rawJsonResponse(200, ItemJsonWriter.writeSections(List.of(
+                new ItemJsonWriter.Section("clients", CLIENT_JSON, itemsOf(legs, "clients")),
+                new ItemJsonWriter.Section("notes", NOTE_JSON, itemsOf(legs, "notes")),
+                new ItemJsonWriter.Section("journals", JOURNAL_JSON, itemsOf(legs, "journals"))
+            ), extras));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Search failed: " + e.getMessage());
         }
     }
-    
-    private Map<String, String> convertNote(Map<String, AttributeValue> item) {
-        return Map.of(
-            "sessionId", item.get("SessionId").s(),
-            "date", item.get("date").s(),
-            "sharedNotes", item.get("sharedNotes") != null ? item.get("sharedNotes").s() : "",
-            "privateNotes", item.get("privateNotes") != null ? item.get("privateNotes").s() : ""
-        );
-    }
-    private Map<String, Object> convertJournal(Map<String, AttributeValue> item) {
-        return Map.of(
-            "journalEntryId", item.get("JournalEntryId").s(),
-            "clientId", item.get("ClientId").s(),
-            "content", item.get("content").s(),
-            "timestamp", item.get("timestamp").s(),
-            "feeling", item.get("feeling") != null ? item.get("feeling").s() : "",
-            "intensity", item.get("intensity") != null ? item.get("intensity").n() : "0"
-        );
-    }
 
-    private List<Map<String, String>> searchClients(String query) {
-        ScanResponse response = dynamoDb.scan(ScanRequest.builder()
-            .tableName(clientsTable)
-            .filterExpression("contains(#n, :query) OR contains(#e, :query)")
-            .expressionAttributeNames(Map.of(
-                "#n", "name",
-                "#e", "email"
-            ))
-            .expressionAttributeValues(Map.of(":query", AttributeValue.builder().s(query).build()))
-            .build());
-        return response.items().stream()
-            .map(this::convertClient)
-            .collect(Collectors.toList());
+    private List<Map<String, AttributeValue>> itemsOf(ParallelExecution.LegResults<Pagination.Page<Map<String, AttributeValue>>> legs, String leg) {
+        Pagination.Page<Map<String, AttributeValue>> page = legs.results().get(leg);
+        return page != null ? page.items() : Collections.emptyList();
+    }
+    
+    private Pagination.Page<Map<String, AttributeValue>> searchClients(String query, int limit,
+                                                                      Map<String, AttributeValue> cursor) {
+        // Exact-key lookup on the prefix index instead of scanning the Clients table
+        return ClientSearchIndex.search(dynamoDb, query, limit, Pagination.startKey(cursor));
     }
 
-    private List<Map<String, String>> searchSessionNotes(String therapistId, String query) {
+    // Limit is applied before the filter, so a page may hold fewer matches than the limit
+    private Pagination.Page<Map<String, AttributeValue>> searchSessionNotes(String therapistId, String query, int limit,
+                                                                  Map<String, AttributeValue> cursor) {
         QueryResponse response = dynamoDb.query(QueryRequest.builder()
             .tableName(sessionsTable)
             .keyConditionExpression("TherapistId = :tid")
@@ -94,65 +138,129 @@ public class TherapistSearchHandler implements RequestHandler<Map<String, Object
                 ":tid", AttributeValue.builder().s(therapistId).build(),
                 ":query", AttributeValue.builder().s(query).build()
             ))
+            .limit(limit)
+            .exclusiveStartKey(Pagination.startKey(cursor))
             .build());
 
-        return response.items().stream()
-            .map(this::convertNote)
-            .collect(Collectors.toList());
+        return new Pagination.Page<>(response.items(), hasMore(response) ? response.lastEvaluatedKey() : null);
+    }
+
+    // Walks mapped clients in TherapistClientIndex (mappedAt) order, reading the index a chunk at a time,
+    // so a page only reads the part of the caseload it searches. The cursor is the index position of the
+    // last client reached (ClientId, mappedAt), plus the JournalEntryId when the page ended inside that
+    // client's journal.
+    private Pagination.Page<Map<String, AttributeValue>> searchJournals(String therapistId, String query, int limit,
+                                                              Map<String, AttributeValue> cursor) {
+        Deque<Map<String, AttributeValue>> pending = new ArrayDeque<>();
+        Map<String, AttributeValue> indexKey = null;
+        Map<String, AttributeValue> resumeKey = null;
+        if (cursor != null && cursor.containsKey("ClientId") && cursor.containsKey("mappedAt")) {
+            Map<String, AttributeValue> position = Map.of(
+                "ClientId", cursor.get("ClientId"),
+                "mappedAt", cursor.get("mappedAt"));
+            indexKey = new HashMap<>(position);
+            indexKey.put("TherapistId", AttributeValue.builder().s(therapistId).build());
+            if (cursor.containsKey("JournalEntryId")) {
+                pending.add(position);
+                resumeKey = Map.of("ClientId", cursor.get("ClientId"), "JournalEntryId", cursor.get("JournalEntryId"));
+            }
+        }
+
+        List<Map<String, AttributeValue>> journals = new ArrayList<>();
+        boolean indexDone = false;
+        Map<String, AttributeValue> last = null;
+        while (true) {
+            if (pending.size() < JOURNAL_QUERY_CONCURRENCY && !indexDone) {
+                QueryResponse page = mappedClients(therapistId, indexKey);
+                page.items().forEach(item -> pending.add(Map.of(
+                    "ClientId", item.get("ClientId"),
+                    "mappedAt", item.get("mappedAt"))));
+                indexKey = hasMore(page) ? page.lastEvaluatedKey() : null;
+                indexDone = indexKey == null;
+            }
+            if (pending.isEmpty()) {
+                return new Pagination.Page<>(journals, null);
+            }
+
+            // A caseload of quiet clients can burn the request's read budget before the page fills;
+            // return the short page with a cursor after the last client searched instead of failing the leg
+            if (last != null && CapacityBudget.exhausted()) {
+                return new Pagination.Page<>(journals, last);
+            }
+
+            // One query per mapped client with a bounded number in flight, so a large caseload
+            // costs ceil(clients / JOURNAL_QUERY_CONCURRENCY) round trips of latency instead of one each
+            int remaining = limit - journals.size();
+            Map<String, AttributeValue> firstStartKey = resumeKey;
+            List<Map<String, AttributeValue>> batch = new ArrayList<>();
+            Iterator<Map<String, AttributeValue>> it = pending.iterator();
+            while (it.hasNext() && batch.size() < JOURNAL_QUERY_CONCURRENCY) {
+                batch.add(it.next());
+            }
+            List<QueryResponse> responses = ParallelExecution.mapBounded(batch, JOURNAL_QUERY_CONCURRENCY,
+                client -> searchClientJournals(client.get("ClientId").s(), query, remaining,
+                    client == batch.get(0) ? firstStartKey : null));
+            resumeKey = null;
+
+            // Consume in caseload order so the cursor always points at one position
+            for (int i = 0; i < responses.size(); i++) {
+                Map<String, AttributeValue> client = pending.removeFirst();
+                QueryResponse response = responses.get(i);
+                List<Map<String, AttributeValue>> items = response.items();
+                for (int j = 0; j < items.size(); j++) {
+                    journals.add(items.get(j));
+                    if (journals.size() == limit && (j + 1 < items.size() || hasMore(response))) {
+                        return new Pagination.Page<>(journals,
+                            insideClient(client, items.get(j).get("JournalEntryId")));
+                    }
+                }
+                if (hasMore(response)) {
+                    return new Pagination.Page<>(journals,
+                        insideClient(client, response.lastEvaluatedKey().get("JournalEntryId")));
+                }
+
+                last = client;
+                if (journals.size() == limit) {
+                    return new Pagination.Page<>(journals, pending.isEmpty() && indexDone ? null : last);
+                }
+            }
+        }
+    }
+
+    private Map<String, AttributeValue> insideClient(Map<String, AttributeValue> client, AttributeValue journalEntryId) {
+        Map<String, AttributeValue> cursor = new HashMap<>(client);
+        cursor.put("JournalEntryId", journalEntryId);
+        return cursor;
     }
 
-    private List<Map<String, String>> searchJournals(String therapistId, String query) {
-        // Get mapped clients
-        QueryResponse mappingResponse = dynamoDb.query(QueryRequest.builder()
+    private QueryResponse mappedClients(String therapistId, Map<String, AttributeValue> startKey) {
+        return dynamoDb.query(QueryRequest.builder()
             .tableName(mappedTherapistsTable)
             .indexName("TherapistClientIndex")
             .keyConditionExpression("TherapistId = :tid")
+            .projectionExpression("ClientId, mappedAt")
             .expressionAttributeValues(Map.of(":tid", AttributeValue.builder().s(therapistId).build()))
+            .limit(CASELOAD_CHUNK)
+            .exclusiveStartKey(startKey)
             .build());
+    }
 
-        List<String> clientIds = mappingResponse.items().stream()
-            .map(item -> item.get("ClientId").s())
-            .collect(Collectors.toList());
-
-        if (clientIds.isEmpty()) return Collections.emptyList();
-
-        // Batch get journal entries
-        List<Map<String, String>> journals = new ArrayList<>();
-        for (String clientId : clientIds) {
-            QueryResponse journalResponse = dynamoDb.query(QueryRequest.builder()
-                .tableName(journalEntriesTable)
-                .keyConditionExpression("ClientId = :cid")
-                .filterExpression("contains(content, :query)")
-                .expressionAttributeValues(Map.of(
-                    ":cid", AttributeValue.builder().s(clientId).build(),
-                    ":query", AttributeValue.builder().s(query).build()
-                ))
-                .build());
-            
-            journals.addAll(journalResponse.items().stream()
-            	    .map(item -> {
-            	        Map<String, String> journalMap = new HashMap<>();
-            	        journalMap.put("journalEntryId", item.get("JournalEntryId").s());
-            	        journalMap.put("content", item.get("content").s());
-            	        journalMap.put("timestamp", item.get("timestamp").s());
-            	        // Convert numbers to strings if needed
-            	        if (item.get("intensity") != null) {
-            	            journalMap.put("intensity", item.get("intensity").n());
-            	        }
-            	        return journalMap;
-            	    })
-            	    .collect(Collectors.toList()));
-        }
-
-        return journals;
+    private QueryResponse searchClientJournals(String clientId, String query, int limit,
+                                               Map<String, AttributeValue> startKey) {
+        return dynamoDb.query(QueryRequest.builder()
+            .tableName(journalEntriesTable)
+            .keyConditionExpression("ClientId = :cid")
+            .filterExpression("contains(content, :query)")
+            .expressionAttributeValues(Map.of(
+                ":cid", AttributeValue.builder().s(clientId).build(),
+                ":query", AttributeValue.builder().s(query).build()
+            ))
+            .limit(limit)
+            .exclusiveStartKey(startKey)
+            .build());
     }
 
-    // Conversion helpers
-    private Map<String, String> convertClient(Map<String, AttributeValue> item) {
-        return Map.of(
-            "clientId", item.get("ClientId").s(),
-            "name", item.get("name").s(),
-            "email", item.get("email").s()
-        );
+    private boolean hasMore(QueryResponse response) {
+        return response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty();
     }
 }
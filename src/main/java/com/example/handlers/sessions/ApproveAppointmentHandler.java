@@ -1,19 +1,25 @@
 package com.example.handlers.sessions;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.AvailabilityCalendar;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
+import com.example.util.SessionSlots;
+import com.example.util.Transactions;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-public class ApproveAppointmentHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class ApproveAppointmentHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract parameters from path and body
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -41,49 +47,130 @@ public class ApproveAppointmentHandler implements RequestHandler<Map<String, Obj
                 return ResponseUtils.errorResponse(400, "Invalid or already processed request");
             }
 
-            // 3. Update appointment status
-            String newStatus = "approve".equalsIgnoreCase(action) ? "Approved" : "Rejected";
-            UpdateItemRequest updateRequest = UpdateItemRequest.builder()
-                .tableName(System.getenv("APPOINTMENT_REQUESTS_TABLE"))
-                .key(Map.of(
-                    "TherapistId", AttributeValue.builder().s(therapistId).build(),
-                    "AppointmentRequestId", AttributeValue.builder().s(appointmentRequestId).build()
-                ))
-                .updateExpression("SET #status = :newStatus")
-                .expressionAttributeNames(Map.of("#status", "status"))
-                .expressionAttributeValues(Map.of(
-                    ":newStatus", AttributeValue.builder().s(newStatus).build()
-                ))
-                .build();
+            // 3. Build the writes: request status, slot status and (on approval) the session.
+            // They commit together, so a slot can't end up Booked without its session or vice versa.
+            boolean approve = "approve".equalsIgnoreCase(action);
+            String newStatus = approve ? "Approved" : "Rejected";
+            Map<String, AttributeValue> request = appointmentRequest.item();
+            List<TransactWriteItem> writes = new ArrayList<>();
+
+            writes.add(TransactWriteItem.builder()
+                .update(Update.builder()
+                    .tableName(System.getenv("APPOINTMENT_REQUESTS_TABLE"))
+                    .key(Map.of(
+                        "TherapistId", AttributeValue.builder().s(therapistId).build(),
+                        "AppointmentRequestId", AttributeValue.builder().s(appointmentRequestId).build()
+                    ))
+                    .updateExpression("SET #status = :newStatus")
+                    .conditionExpression("#status = :pending")
+                    .expressionAttributeNames(Map.of("#status", "status"))
+                    .expressionAttributeValues(Map.of(
+                        ":newStatus", AttributeValue.builder().s(newStatus).build(),
+                        ":pending", AttributeValue.builder().s("Pending").build()
+                    ))
+                    .build())
+                .build());
 
-            dynamoDb.updateItem(updateRequest);
+            // The slot must still be held for this request. Requests made before slots were reserved
+            // at booking time find their slot Available; approving those books it directly.
+            Map<String, AttributeValue> slotKey = Map.of(
+                "TherapistId", AttributeValue.builder().s(therapistId).build(),
+                "SlotId", request.get("SlotId")
+            );
+            Map<String, AttributeValue> slotValues = new HashMap<>();
+            slotValues.put(":pending", AttributeValue.builder().s("Pending").build());
+            slotValues.put(":available", AttributeValue.builder().s("Available").build());
+            slotValues.put(":requestId", AttributeValue.builder().s(appointmentRequestId).build());
+            Update.Builder slotUpdate = Update.builder()
+                .tableName(System.getenv("SESSION_SLOTS_TABLE"))
+                .key(slotKey)
+                .expressionAttributeNames(Map.of("#status", "status"));
+            boolean updatesSlot = true;
 
             // Declare sessionId outside the if block
             String sessionId = null;
 
-            // 4. Create session if approved
-            if ("approve".equalsIgnoreCase(action)) {
+            // 4. Create session if approved; a rejection releases the slot
+            if (approve) {
                 sessionId = UUID.randomUUID().toString();
                 
                 Map<String, AttributeValue> sessionItem = new HashMap<>();
                 sessionItem.put("TherapistId", AttributeValue.builder().s(therapistId).build());
                 sessionItem.put("SessionId", AttributeValue.builder().s(sessionId).build());
-                sessionItem.put("clientId", appointmentRequest.item().get("ClientId")); // Lower case 'c' to match schema
-                sessionItem.put("date", appointmentRequest.item().get("Date")); 
-                sessionItem.put("startTime", appointmentRequest.item().get("StartTime"));
-                sessionItem.put("endTime", appointmentRequest.item().get("EndTime"));
+                sessionItem.put("clientId", request.get("ClientId")); // Lower case 'c' to match schema
+                sessionItem.put("date", request.get("Date")); 
+                sessionItem.put("startTime", request.get("StartTime"));
+                sessionItem.put("endTime", request.get("EndTime"));
                 sessionItem.put("status", AttributeValue.builder().s("Scheduled").build());
                 
                 // Add sharedNotes and privateNotes explicitly
                 sessionItem.put("sharedNotes", AttributeValue.builder().s("").build()); // Initialize empty
                 sessionItem.put("privateNotes", AttributeValue.builder().s(therapistNotes).build()); // From request
-                
-                dynamoDb.putItem(PutItemRequest.builder()
-                    .tableName(System.getenv("SESSIONS_TABLE"))
-                    .item(sessionItem)
+
+                slotValues.put(":booked", AttributeValue.builder().s("Booked").build());
+                slotValues.put(":sessionId", AttributeValue.builder().s(sessionId).build());
+                slotUpdate.updateExpression("SET #status = :booked, AppointmentRequestId = :requestId, SessionId = :sessionId "
+                    + "REMOVE availableAt")
+                    .conditionExpression("(#status = :pending AND AppointmentRequestId = :requestId) OR #status = :available");
+
+                writes.add(TransactWriteItem.builder()
+                    .put(Put.builder()
+                        .tableName(System.getenv("SESSIONS_TABLE"))
+                        .item(sessionItem)
+                        .conditionExpression("attribute_not_exists(SessionId)")
+                        .build())
+                    .build());
+            } else {
+                // Only a slot this request holds is released. A legacy request's slot may be Available or
+                // held by another request by now; rejecting it then changes just the request.
+                Map<String, AttributeValue> slot = dynamoDb.getItem(GetItemRequest.builder()
+                    .tableName(System.getenv("SESSION_SLOTS_TABLE"))
+                    .key(slotKey)
+                    .consistentRead(true)
+                    .build()).item();
+                updatesSlot = slot != null && slot.containsKey("status") && "Pending".equals(slot.get("status").s())
+                    && slot.containsKey("AppointmentRequestId")
+                    && appointmentRequestId.equals(slot.get("AppointmentRequestId").s());
+
+                // Released slots go back into the availability index
+                slotValues.put(":availableAt", SessionSlots.availableAt(request.get("Date"), request.get("StartTime")));
+                slotUpdate.updateExpression("SET #status = :available, availableAt = :availableAt "
+                    + "REMOVE reservedBy, AppointmentRequestId")
+                    .conditionExpression("#status = :pending AND AppointmentRequestId = :requestId");
+            }
+            if (updatesSlot) {
+                writes.add(TransactWriteItem.builder()
+                    .update(slotUpdate.expressionAttributeValues(slotValues).build())
                     .build());
             }
 
+            // 5. Commit everything in one round trip, closing the slot's time on the day's availability
+            // bitmap on approval (already closed at booking unless the request predates reservations)
+            // and reopening it when a rejection releases the slot
+            String date = request.get("Date").s();
+            String startTime = request.get("StartTime").s();
+            String endTime = request.get("EndTime").s();
+            try {
+                if (updatesSlot && AvailabilityCalendar.onGrid(startTime, endTime)) {
+                    AvailabilityCalendar.transactWithDay(dynamoDb, therapistId, date, day -> {
+                        if (approve) {
+                            day.close(startTime, endTime);
+                        } else {
+                            day.reopen(startTime, endTime);
+                        }
+                    }, writes);
+                } else {
+                    dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(writes)
+                        .build());
+                }
+            } catch (TransactionCanceledException e) {
+                if (Transactions.lostRace(e)) {
+                    return ResponseUtils.errorResponse(409, "Request or slot was changed by another operation");
+                }
+                throw e;
+            }
+
             return ResponseUtils.successResponse(200, Map.of(
                 "appointmentRequestId", appointmentRequestId,
                 "status", newStatus,
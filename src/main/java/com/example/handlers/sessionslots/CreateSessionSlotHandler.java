@@ -1,20 +1,28 @@
 package com.example.handlers.sessionslots;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.AvailabilityCalendar;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
+import com.example.util.SessionSlots;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-public class CreateSessionSlotHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class CreateSessionSlotHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // Validate therapistId
             String therapistId = ((Map<String,String>) input.get("pathParameters")).get("therapistId");
@@ -33,19 +41,42 @@ public class CreateSessionSlotHandler implements RequestHandler<Map<String, Obje
 
             // Create session slot
             String slotId = UUID.randomUUID().toString();
-            Map<String, AttributeValue> item = Map.of(
+            Map<String, AttributeValue> item = new HashMap<>(Map.of(
                 "TherapistId", AttributeValue.builder().s(therapistId).build(),
                 "SlotId", AttributeValue.builder().s(slotId).build(),
                 "date", AttributeValue.builder().s(body.get("date").toString()).build(),
                 "startTime", AttributeValue.builder().s(body.get("startTime").toString()).build(),
                 "endTime", AttributeValue.builder().s(body.get("endTime").toString()).build(),
                 "status", AttributeValue.builder().s(body.get("status").toString()).build()
-            );
+            ));
+            // Only open slots go into the sparse availability index
+            if (SessionSlots.AVAILABLE.equals(body.get("status").toString())) {
+                item.put(SessionSlots.AVAILABLE_AT,
+                    SessionSlots.availableAt(body.get("date").toString(), body.get("startTime").toString()));
+            }
 
-            dynamoDb.putItem(PutItemRequest.builder()
-                .tableName(System.getenv("SESSION_SLOTS_TABLE"))
-                .item(item)
-                .build());
+            // Reject overlaps against the day's occupancy bitmap and store the slot together with
+            // the updated bitmap in one transaction
+            String date = body.get("date").toString();
+            String startTime = body.get("startTime").toString();
+            String endTime = body.get("endTime").toString();
+            LocalDate.parse(date);
+            boolean available = SessionSlots.AVAILABLE.equals(body.get("status").toString());
+            try {
+                AvailabilityCalendar.transactWithDay(dynamoDb, therapistId, date, day -> {
+                    if (day.overlaps(startTime, endTime)) {
+                        throw new SlotOverlapException();
+                    }
+                    day.addSlot(startTime, endTime, available);
+                }, List.of(TransactWriteItem.builder()
+                    .put(Put.builder()
+                        .tableName(System.getenv("SESSION_SLOTS_TABLE"))
+                        .item(item)
+                        .build())
+                    .build()));
+            } catch (SlotOverlapException e) {
+                return ResponseUtils.errorResponse(409, "Slot overlaps an existing slot");
+            }
 
             return ResponseUtils.successResponse(201, Map.of(
                 "slotId", slotId,
@@ -56,8 +87,13 @@ public class CreateSessionSlotHandler implements RequestHandler<Map<String, Obje
                 "status", body.get("status")
             ));
 
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Error creating slot: " + e.getMessage());
         }
     }
+
+    private static class SlotOverlapException extends RuntimeException {
+    }
 }
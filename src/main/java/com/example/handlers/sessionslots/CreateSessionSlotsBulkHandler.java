@@ -0,0 +1,128 @@
+package com.example.handlers.sessionslots;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.AvailabilityCalendar;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.ParallelExecution;
+import com.example.util.ResponseUtils;
+import com.example.util.SessionSlots;
+import com.example.util.SlotRecurrence;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Publishes many slots in one call from weekly recurrence rules (see SlotRecurrence for the body format)
+public class CreateSessionSlotsBulkHandler extends InstrumentedHandler {
+    private static final int MAX_CONCURRENT_DAYS = 8;
+    // TransactWriteItems takes 100 items; one of them is the day's bitmap
+    private static final int MAX_SLOTS_PER_TRANSACTION = 99;
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        try {
+            // 1. Validate therapistId
+            String therapistId = ((Map<String, String>) input.get("pathParameters")).get("therapistId");
+            if (therapistId == null || therapistId.isEmpty()) {
+                return ResponseUtils.errorResponse(400, "Missing therapistId");
+            }
+
+            // 2. Expand the rules into concrete slots
+            List<SlotRecurrence.Slot> slots = SlotRecurrence.expand(ResponseUtils.parseBody(input));
+            if (slots.isEmpty()) {
+                return ResponseUtils.errorResponse(400, "Rules did not produce any slots");
+            }
+
+            // 3. Create each day's slots (days in parallel). Slots that overlap existing slots, or an
+            // earlier slot of the same request, are skipped and reported instead of failing the request.
+            Map<String, List<SlotRecurrence.Slot>> byDate = new TreeMap<>();
+            slots.forEach(slot -> byDate.computeIfAbsent(slot.date(), date -> new ArrayList<>()).add(slot));
+            List<DayResult> results = ParallelExecution.mapBounded(
+                new ArrayList<>(byDate.values()), MAX_CONCURRENT_DAYS, daySlots -> createDay(therapistId, daySlots));
+
+            List<Map<String, String>> created = new ArrayList<>(slots.size());
+            List<Map<String, String>> skipped = new ArrayList<>();
+            for (DayResult result : results) {
+                created.addAll(result.created());
+                skipped.addAll(result.skipped());
+            }
+
+            return ResponseUtils.successResponse(201, Map.of(
+                "therapistId", therapistId,
+                "created", created.size(),
+                "slots", created,
+                "skipped", skipped
+            ));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
+        } catch (Exception e) {
+            return ResponseUtils.errorResponse(500, "Error creating slots: " + e.getMessage());
+        }
+    }
+
+    private record DayResult(List<Map<String, String>> created, List<Map<String, String>> skipped) {}
+
+    // Commits the day's slot rows in the same transaction as its bitmap, at most MAX_SLOTS_PER_TRANSACTION
+    // at a time, so a failure never leaves time marked on the calendar without the slots behind it.
+    // Overlap is decided on the freshly read day on every attempt, and each accepted slot's cells are
+    // marked before the next one is checked, so duplicates within the request are skipped too.
+    // Transactional writes cost twice the WCU of plain puts: a 500-slot publish uses about 1,000 WCU plus
+    // two per day for the bitmaps, the price of never committing one without the other.
+    private DayResult createDay(String therapistId, List<SlotRecurrence.Slot> daySlots) {
+        String date = daySlots.get(0).date();
+        List<Map<String, String>> created = new ArrayList<>();
+        List<Map<String, String>> skipped = new ArrayList<>();
+        for (int from = 0; from < daySlots.size(); from += MAX_SLOTS_PER_TRANSACTION) {
+            List<SlotRecurrence.Slot> chunk = daySlots.subList(from, Math.min(from + MAX_SLOTS_PER_TRANSACTION, daySlots.size()));
+            List<Map<String, String>> chunkCreated = new ArrayList<>();
+            List<Map<String, String>> chunkSkipped = new ArrayList<>();
+            AvailabilityCalendar.transactWithDay(dynamoDb, therapistId, date, day -> {
+                chunkCreated.clear();
+                chunkSkipped.clear();
+                List<TransactWriteItem> puts = new ArrayList<>();
+                for (SlotRecurrence.Slot slot : chunk) {
+                    if (day.overlaps(slot.startTime(), slot.endTime())) {
+                        chunkSkipped.add(Map.of("date", slot.date(), "startTime", slot.startTime(), "endTime", slot.endTime()));
+                        continue;
+                    }
+                    day.addSlot(slot.startTime(), slot.endTime(), true);
+                    String slotId = UUID.randomUUID().toString();
+                    puts.add(TransactWriteItem.builder()
+                        .put(Put.builder()
+                            .tableName(System.getenv("SESSION_SLOTS_TABLE"))
+                            .item(Map.of(
+                                "TherapistId", AttributeValue.builder().s(therapistId).build(),
+                                "SlotId", AttributeValue.builder().s(slotId).build(),
+                                "date", AttributeValue.builder().s(slot.date()).build(),
+                                "startTime", AttributeValue.builder().s(slot.startTime()).build(),
+                                "endTime", AttributeValue.builder().s(slot.endTime()).build(),
+                                "status", AttributeValue.builder().s(SessionSlots.AVAILABLE).build(),
+                                SessionSlots.AVAILABLE_AT, SessionSlots.availableAt(slot.date(), slot.startTime())
+                            ))
+                            .build())
+                        .build());
+                    chunkCreated.add(Map.of(
+                        "slotId", slotId,
+                        "date", slot.date(),
+                        "startTime", slot.startTime(),
+                        "endTime", slot.endTime()
+                    ));
+                }
+                return puts;
+            });
+            created.addAll(chunkCreated);
+            skipped.addAll(chunkSkipped);
+        }
+        return new DayResult(created, skipped);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.handlers.sessionslots;
+
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.AvailabilityCalendar;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.ResponseUtils;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Next N free windows for a therapist: runs of open (Available, unbooked) slot time merged across
+// adjacent slots, read from the per-day availability bitmaps in date order
+public class ListFreeWindowsHandler extends InstrumentedHandler {
+    private static final int DEFAULT_COUNT = 10;
+    private static final int MAX_COUNT = 50;
+    private static final int DAYS_PER_PAGE = 14;
+    private static final int MAX_DAYS = 90;
+
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
+        try {
+            // 1. Extract and validate parameters
+            Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
+            String therapistId = pathParams.get("therapistId");
+            if (therapistId == null || therapistId.isEmpty()) {
+                return ResponseUtils.errorResponse(400, "Missing therapistId in path");
+            }
+
+            Map<String, String> queryParams = (Map<String, String>) input.get("queryStringParameters");
+            String from = queryParams != null && queryParams.get("from") != null
+                ? LocalDate.parse(queryParams.get("from")).toString()
+                : LocalDate.now(ZoneOffset.UTC).toString();
+            int count = intParam(queryParams, "count", DEFAULT_COUNT, 1, MAX_COUNT);
+            int minMinutes = intParam(queryParams, "minMinutes", 0, 0, 24 * 60);
+            String lastDate = LocalDate.parse(from).plusDays(MAX_DAYS - 1).toString();
+
+            // 2. Walk the day bitmaps from "from" until enough windows are found. Before the calendar
+            // backfill has run, days nobody has written since are missing from the table, so every stored
+            // day in range is read and the gaps are filled from the therapist's slots.
+            NavigableMap<String, AvailabilityCalendar.Day> days = AvailabilityCalendar.backfilled() ? null
+                : new TreeMap<>(AvailabilityCalendar.rebuildAll(dynamoDb, therapistId, null))
+                    .subMap(from, true, lastDate, true);
+            List<AvailabilityCalendar.Window> windows = new ArrayList<>();
+            Map<String, AttributeValue> startKey = null;
+            do {
+                QueryResponse response = dynamoDb.query(QueryRequest.builder()
+                    .tableName(AvailabilityCalendar.tableName())
+                    .keyConditionExpression("TherapistId = :therapistId AND #date BETWEEN :from AND :to")
+                    .expressionAttributeNames(Map.of("#date", "date"))
+                    .expressionAttributeValues(Map.of(
+                        ":therapistId", AttributeValue.builder().s(therapistId).build(),
+                        ":from", AttributeValue.builder().s(from).build(),
+                        ":to", AttributeValue.builder().s(lastDate).build()
+                    ))
+                    .limit(DAYS_PER_PAGE)
+                    .exclusiveStartKey(startKey)
+                    .build());
+
+                for (Map<String, AttributeValue> item : response.items()) {
+                    AvailabilityCalendar.Day day = AvailabilityCalendar.Day.fromItem(item);
+                    if (days != null) {
+                        days.put(day.date(), day); // A stored day is current; the rebuilt one may not be
+                    } else {
+                        addWindows(day, windows, count, minMinutes);
+                    }
+                }
+                startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey() : null;
+            } while (startKey != null && (days != null || windows.size() < count));
+
+            if (days != null) {
+                days.values().forEach(day -> addWindows(day, windows, count, minMinutes));
+            }
+
+            return ResponseUtils.successResponse(200, Map.of(
+                "therapistId", therapistId,
+                "windows", windows
+            ));
+
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
+        } catch (Exception e) {
+            return ResponseUtils.errorResponse(500, "Error listing free windows: " + e.getMessage());
+        }
+    }
+
+    private void addWindows(AvailabilityCalendar.Day day, List<AvailabilityCalendar.Window> windows,
+                            int count, int minMinutes) {
+        for (AvailabilityCalendar.Window window : day.openWindows()) {
+            if (minutes(window) >= minMinutes && windows.size() < count) {
+                windows.add(window);
+            }
+        }
+    }
+
+    private int minutes(AvailabilityCalendar.Window window) {
+        int end = "24:00".equals(window.endTime()) ? 24 * 60 : LocalTime.parse(window.endTime()).toSecondOfDay() / 60;
+        return end - LocalTime.parse(window.startTime()).toSecondOfDay() / 60;
+    }
+
+    private int intParam(Map<String, String> queryParams, String name, int fallback, int min, int max) {
+        String raw = queryParams != null ? queryParams.get(name) : null;
+        if (raw == null || raw.isEmpty()) {
+            return fallback;
+        }
+        try {
+            int value = Integer.parseInt(raw);
+            if (value < min) {
+                throw new IllegalArgumentException(name + " must be at least " + min);
+            }
+            return Math.min(value, max);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+    }
+}
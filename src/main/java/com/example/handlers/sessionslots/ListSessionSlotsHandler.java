@@ -1,20 +1,26 @@
 package com.example.handlers.sessionslots;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.Pagination;
 import com.example.util.ResponseUtils;
+import com.example.util.SessionSlots;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-public class ListSessionSlotsHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class ListSessionSlotsHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract and validate therapistId
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -24,22 +30,65 @@ public class ListSessionSlotsHandler implements RequestHandler<Map<String, Objec
                 return ResponseUtils.errorResponse(400, "Missing therapistId in path");
             }
 
-            // 2. Build query request with new schema attributes
-            QueryRequest request = QueryRequest.builder()
+            // 2. Query the sparse availability index, narrowed to ?from=&to= (yyyy-MM-dd, inclusive).
+            // Only open slots are in the index, so booked history is never read; from defaults to today
+            // (UTC) so slots that passed without being booked are skipped too. Until the index is
+            // backfilled, the therapist's partition is read with the same conditions as a filter.
+            Map<String, String> queryParams = (Map<String, String>) input.get("queryStringParameters");
+            String from = queryParams != null ? queryParams.get("from") : null;
+            String to = queryParams != null ? queryParams.get("to") : null;
+            validateDate(from, "from");
+            validateDate(to, "to");
+            boolean useIndex = SessionSlots.availableIndexBackfilled();
+
+            // The scope holds the from the client sent, so a token stays valid across midnight; a resumed
+            // page reads on from its own position even if that date has passed meanwhile
+            String scope = "session-slots:" + therapistId + ":" + from + ":" + to + ":" + useIndex;
+            Map<String, AttributeValue> startKey = Pagination.decode(Pagination.token(queryParams), scope);
+            if (from == null) {
+                from = LocalDate.now(ZoneOffset.UTC).toString();
+                if (startKey != null && startKey.containsKey(SessionSlots.AVAILABLE_AT)) {
+                    String resumedDate = startKey.get(SessionSlots.AVAILABLE_AT).s().split("#", 2)[0];
+                    from = resumedDate.compareTo(from) < 0 ? resumedDate : from;
+                }
+            }
+            if (to != null && from.compareTo(to) > 0) {
+                return ResponseUtils.successResponse(200, Pagination.envelope(List.of(), null));
+            }
+
+            Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":therapistId", AttributeValue.builder().s(therapistId).build());
+            QueryRequest.Builder request = QueryRequest.builder()
                 .tableName(System.getenv("SESSION_SLOTS_TABLE"))
-                .keyConditionExpression("TherapistId = :therapistId")
-                .filterExpression("#status = :status")
-                .expressionAttributeNames(Map.of("#status", "status"))
-                .expressionAttributeValues(
-                    new HashMap<String, AttributeValue>() {{
-                        put(":therapistId", AttributeValue.builder().s(therapistId).build());
-                        put(":status", AttributeValue.builder().s("Available").build());
-                    }}
-                )
-                .build();
+                .limit(Pagination.limit(queryParams))
+                .exclusiveStartKey(startKey);
+            if (useIndex) {
+                String keyCondition = "TherapistId = :therapistId";
+                if (to != null) {
+                    keyCondition += " AND availableAt BETWEEN :from AND :to";
+                    values.put(":from", SessionSlots.rangeStart(from));
+                    values.put(":to", SessionSlots.rangeEnd(to));
+                } else {
+                    keyCondition += " AND availableAt >= :from";
+                    values.put(":from", SessionSlots.rangeStart(from));
+                }
+                request.indexName(SessionSlots.AVAILABLE_INDEX).keyConditionExpression(keyCondition);
+            } else {
+                String filter = "#status = :available AND #date >= :from";
+                values.put(":available", AttributeValue.builder().s(SessionSlots.AVAILABLE).build());
+                values.put(":from", AttributeValue.builder().s(from).build());
+                if (to != null) {
+                    filter += " AND #date <= :to";
+                    values.put(":to", AttributeValue.builder().s(to).build());
+                }
+                request.keyConditionExpression("TherapistId = :therapistId")
+                    .filterExpression(filter)
+                    .expressionAttributeNames(Map.of("#status", "status", "#date", "date"));
+            }
+            request.expressionAttributeValues(values);
 
             // 3. Execute query
-            QueryResponse response = dynamoDb.query(request);
+            QueryResponse response = dynamoDb.query(request.build());
 
             // 4. Format response with new attributes
             List<Map<String, String>> slots = response.items().stream()
@@ -53,12 +102,26 @@ public class ListSessionSlotsHandler implements RequestHandler<Map<String, Objec
                 ))
                 .collect(Collectors.toList());
 
-            return ResponseUtils.successResponse(200, slots);
+            return ResponseUtils.successResponse(200, Pagination.envelope(slots,
+                Pagination.encode(response.lastEvaluatedKey(), scope)));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (DynamoDbException e) {
             return ResponseUtils.errorResponse(500, "Database error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, "Server error: " + e.getMessage());
         }
     }
+
+    private void validateDate(String value, String name) {
+        if (value == null) {
+            return;
+        }
+        try {
+            LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a yyyy-MM-dd date");
+        }
+    }
 }
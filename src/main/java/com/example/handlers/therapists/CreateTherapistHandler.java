@@ -1,8 +1,10 @@
 package com.example.handlers.therapists;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
+import com.example.util.TherapistCache;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
@@ -14,12 +16,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Arrays;
 
-public class CreateTherapistHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class CreateTherapistHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // Validate request body exists
             if (!input.containsKey("body") || ((String) input.get("body")).isEmpty()) {
@@ -55,6 +57,7 @@ public class CreateTherapistHandler implements RequestHandler<Map<String, Object
                 .tableName(System.getenv("THERAPISTS_TABLE"))
                 .item(item)
                 .build());
+            TherapistCache.invalidate(therapistId);
 
             // Build success response
             Map<String, Object> responseBody = new HashMap<>();
@@ -1,8 +1,10 @@
 package com.example.handlers.therapists;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
+import com.example.util.TherapistCache;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
@@ -10,11 +12,11 @@ import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 import java.util.Collections;
 import java.util.Map;
 
-public class DeleteTherapistHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class DeleteTherapistHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // Extract path parameters
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -37,6 +39,7 @@ public class DeleteTherapistHandler implements RequestHandler<Map<String, Object
 
             // Execute delete operation
             dynamoDb.deleteItem(request);
+            TherapistCache.invalidate(therapistId);
             
             // Return 204 No Content
             return ResponseUtils.successResponse(204, "");
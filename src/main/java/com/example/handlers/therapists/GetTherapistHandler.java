@@ -1,23 +1,26 @@
 package com.example.handlers.therapists;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.Therapist;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
+import com.example.util.TherapistCache;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import java.util.Map;
 import java.util.Collections;
 
-public class GetTherapistHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class GetTherapistHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // Extract path parameters
-            Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
-            String therapistId = pathParams.get("therapistId");
+            String therapistId = ApiGatewayEvent.from(input).pathParameter("therapistId");
 
             // Validate therapistId
             if (therapistId == null || therapistId.isEmpty()) {
@@ -31,23 +34,17 @@ public class GetTherapistHandler implements RequestHandler<Map<String, Object>,
                     AttributeValue.builder().s(therapistId).build()))
                 .build();
 
-            // Execute query
-            Map<String, AttributeValue> item = dynamoDb.getItem(request).item();
+            // Execute query; profiles are served from the container cache while fresh
+            Map<String, AttributeValue> item = TherapistCache.profile(therapistId,
+                () -> dynamoDb.getItem(request).item());
+            TherapistCache.reportStats(context.getLogger());
 
             if (item == null || item.isEmpty()) {
                 return ResponseUtils.errorResponse(404, "Therapist not found");
             }
 
             // Format response according to Swagger schema
-            return ResponseUtils.successResponse(200, Map.of(
-                "therapistId", item.get("TherapistId").s(),
-                "name", item.get("name").s(),
-                "email", item.get("email").s(),
-                "location", item.get("location").s(),
-                "expertise", item.get("expertise").s(),
-                "mappedClientsIds", item.containsKey("mappedClientsIds") ? 
-                    item.get("mappedClientsIds").s().split(",") : new String[0]
-            ));
+            return ResponseUtils.jsonResponse(200, Therapist.WRITER, Therapist.fromItem(item));
 
         } catch (Exception e) {
             return ResponseUtils.errorResponse(500, 
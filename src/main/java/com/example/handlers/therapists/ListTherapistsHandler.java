@@ -1,8 +1,16 @@
 package com.example.handlers.therapists;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.model.ApiGatewayEvent;
+import com.example.model.PageResponse;
+import com.example.model.Therapist;
+import com.example.util.CapacityBudget;
+import com.example.util.DynamoDbClientFactory;
+import com.example.util.Pagination;
+import com.example.util.ParallelScanner;
 import com.example.util.ResponseUtils;
+import com.example.util.TherapistCache;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import java.util.Map;
@@ -10,28 +18,47 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 
-public class ListTherapistsHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class ListTherapistsHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected boolean readBudget() {
+        return true;
+    }
+
+    @Override
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
-            Map<String, String> queryParams = (Map<String, String>) input.get("queryStringParameters");
-            String location = queryParams != null ? queryParams.get("location") : null;
-            String expertise = queryParams != null ? queryParams.get("expertise") : null;
+            Map<String, String> queryParams = ApiGatewayEvent.from(input).queryStringParameters();
+            String location = queryParams.get("location");
+            String expertise = queryParams.get("expertise");
 
-            if (location != null && !location.isEmpty()) {
-                return handleLocationQuery(location, expertise);
-            } else {
-                return handleScan(expertise);
-            }
+            int limit = Pagination.limit(queryParams);
+            String nextToken = Pagination.token(queryParams);
+
+            // Identical page requests are served from the container cache while fresh
+            String cacheKey = location + "|" + expertise + "|" + limit + "|" + nextToken;
+            TherapistCache.Listing listing = TherapistCache.listing(cacheKey, () ->
+                location != null && !location.isEmpty()
+                    ? handleLocationQuery(location, expertise, limit, nextToken)
+                    : handleScan(expertise, limit, nextToken));
+            TherapistCache.reportStats(context.getLogger());
+
+            return formatResponse(listing.items(), listing.nextToken());
+        } catch (IllegalArgumentException e) {
+            return ResponseUtils.errorResponse(400, e.getMessage());
         } catch (Exception e) {
+            if (CapacityBudget.exceeded(e)) {
+                return ResponseUtils.errorResponse(503,
+                    "Listing needs more read capacity than one request may use; filter by location or lower the limit");
+            }
             return ResponseUtils.errorResponse(500, 
                 "Error fetching therapists: " + e.getMessage());
         }
     }
 
-    private Map<String, Object> handleLocationQuery(String location, String expertise) {
+    private TherapistCache.Listing handleLocationQuery(String location, String expertise, int limit, String nextToken) {
+        String scope = "therapists:location:" + location + ":" + expertise;
         Map<String, AttributeValue> attrValues = new HashMap<>();
         Map<String, String> attrNames = new HashMap<>();
         
@@ -52,13 +79,16 @@ public class ListTherapistsHandler implements RequestHandler<Map<String, Object>
             .keyConditionExpression(keyCondition)
             .expressionAttributeNames(attrNames)
             .expressionAttributeValues(attrValues)
+            .limit(limit)
+            .exclusiveStartKey(Pagination.decode(nextToken, scope))
             .build();
 
         QueryResponse response = dynamoDb.query(request);
-        return formatResponse(response.items());
+        return new TherapistCache.Listing(response.items(), Pagination.encode(response.lastEvaluatedKey(), scope));
     }
 
-    private Map<String, Object> handleScan(String expertise) {
+    private TherapistCache.Listing handleScan(String expertise, int limit, String nextToken) {
+        String scope = "therapists:scan:" + expertise;
         ScanRequest.Builder scanBuilder = ScanRequest.builder()
             .tableName(System.getenv("THERAPISTS_TABLE"));
 
@@ -71,21 +101,17 @@ public class ListTherapistsHandler implements RequestHandler<Map<String, Object>
                 );
         }
 
-        ScanResponse response = dynamoDb.scan(scanBuilder.build());
-        return formatResponse(response.items());
+        // Segments are read in parallel; the token carries one cursor per unfinished segment
+        ParallelScanner.SegmentedPage page = ParallelScanner.scanPage(dynamoDb, scanBuilder.build(), limit,
+            Pagination.decodeCursors(nextToken, scope));
+        return new TherapistCache.Listing(page.items(), Pagination.encodeCursors(page.cursors(), scope));
     }
 
-    private Map<String, Object> formatResponse(List<Map<String, AttributeValue>> items) {
-        List<Map<String, String>> therapists = items.stream()
-            .map(item -> Map.of(
-                "therapistId", item.get("TherapistId").s(),
-                "name", item.get("name").s(),
-                "email", item.get("email").s(),
-                "location", item.get("location").s(),
-                "expertise", item.get("expertise").s()
-            ))
+    private Map<String, Object> formatResponse(List<Map<String, AttributeValue>> items, String nextToken) {
+        List<Therapist> therapists = items.stream()
+            .map(Therapist::fromItem)
             .collect(Collectors.toList());
 
-        return ResponseUtils.successResponse(200, therapists);
+        return ResponseUtils.jsonResponse(200, Therapist.PAGE_WRITER, new PageResponse<>(therapists, nextToken));
     }
 }
@@ -1,19 +1,21 @@
 package com.example.handlers.therapists;
 
+import com.example.handlers.InstrumentedHandler;
+import com.example.util.DynamoDbClientFactory;
 import com.example.util.ResponseUtils;
+import com.example.util.TherapistCache;
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.*;
 
-public class UpdateTherapistHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
-    private final DynamoDbClient dynamoDb = DynamoDbClient.create();
+public class UpdateTherapistHandler extends InstrumentedHandler {
+    private final DynamoDbClient dynamoDb = DynamoDbClientFactory.client();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
-    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+    protected Map<String, Object> handle(Map<String, Object> input, Context context) {
         try {
             // 1. Extract path parameters
             Map<String, String> pathParams = (Map<String, String>) input.get("pathParameters");
@@ -72,6 +74,7 @@ public class UpdateTherapistHandler implements RequestHandler<Map<String, Object
 
             // 5. Execute update
             UpdateItemResponse response = dynamoDb.updateItem(request);
+            TherapistCache.invalidate(therapistId);
             Map<String, AttributeValue> updatedItem = response.attributes();
 
             // 6. Format response
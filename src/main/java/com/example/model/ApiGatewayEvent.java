@@ -0,0 +1,59 @@
+package com.example.model;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+// Typed view of the API Gateway proxy event. Handlers still receive the raw Map (the router and
+// the per-route functions share it), and read it once through this record.
+public record ApiGatewayEvent(
+    String httpMethod,
+    String path,
+    Map<String, String> pathParameters,
+    Map<String, String> queryStringParameters,
+    Map<String, String> headers,
+    String body
+) {
+    @SuppressWarnings("unchecked")
+    public static ApiGatewayEvent from(Map<String, Object> input) {
+        Map<String, String> pathParameters = (Map<String, String>) input.get("pathParameters");
+        Map<String, String> queryParameters = (Map<String, String>) input.get("queryStringParameters");
+        Map<String, String> headers = (Map<String, String>) input.get("headers");
+        return new ApiGatewayEvent(
+            (String) input.get("httpMethod"),
+            (String) input.get("path"),
+            pathParameters != null ? pathParameters : Collections.emptyMap(),
+            queryParameters != null ? queryParameters : Collections.emptyMap(),
+            headers != null ? headers : Collections.emptyMap(),
+            (String) input.get("body")
+        );
+    }
+
+    public String pathParameter(String name) {
+        return pathParameters.get(name);
+    }
+
+    public String queryParameter(String name) {
+        return queryStringParameters.get(name);
+    }
+
+    // Header names are case-insensitive, and clients and proxies differ in how they send them
+    public String header(String name) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    // Binds the body straight to a record with a precomputed reader; no intermediate Map
+    public <T> T body(ObjectReader reader) throws IOException {
+        if (body == null || body.isEmpty()) {
+            throw new IllegalArgumentException("Request body is required");
+        }
+        return reader.readValue(body);
+    }
+}
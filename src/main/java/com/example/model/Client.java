@@ -0,0 +1,33 @@
+package com.example.model;
+
+import com.example.util.ResponseUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+public record Client(
+    String clientId,
+    String email,
+    String name,
+    List<String> mappedTherapistsIds
+) {
+    public static final ObjectReader READER = ResponseUtils.MAPPER.readerFor(Client.class)
+        .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    public static final ObjectWriter WRITER = ResponseUtils.MAPPER.writerFor(Client.class);
+    public static final ObjectWriter PAGE_WRITER =
+        ResponseUtils.MAPPER.writerFor(new TypeReference<PageResponse<Client>>() {});
+
+    public static Client fromItem(Map<String, AttributeValue> item) {
+        return new Client(
+            Items.string(item, "ClientId"),
+            Items.string(item, "email"),
+            Items.string(item, "name"),
+            Items.stringList(item, "mappedTherapistsIds")
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.model;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Attribute readers shared by the fromItem factories
+final class Items {
+    private Items() {
+    }
+
+    static String string(Map<String, AttributeValue> item, String key) {
+        String value = optionalString(item, key);
+        return value != null ? value : "";
+    }
+
+    static String optionalString(Map<String, AttributeValue> item, String key) {
+        AttributeValue value = item.get(key);
+        return value != null ? value.s() : null;
+    }
+
+    static Integer optionalInteger(Map<String, AttributeValue> item, String key) {
+        AttributeValue value = item.get(key);
+        return value != null && value.n() != null ? Integer.valueOf(value.n()) : null;
+    }
+
+    // Id lists are stored as a String Set on clients and as a comma-separated String on therapists
+    static List<String> stringList(Map<String, AttributeValue> item, String key) {
+        AttributeValue value = item.get(key);
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        if (value.hasSs()) {
+            return value.ss();
+        }
+        String joined = value.s();
+        return joined == null || joined.isEmpty() ? Collections.emptyList() : Arrays.asList(joined.split(","));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.model;
+
+import com.example.util.ItemJsonWriter;
+import com.example.util.ResponseUtils;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+// Journal responses have always used the table's key names (ClientId, JournalEntryId)
+public record JournalEntry(
+    @JsonProperty("ClientId") String clientId,
+    @JsonProperty("JournalEntryId") String journalEntryId,
+    String date,
+    String time,
+    String content,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String feeling,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Integer intensity
+) {
+    public static final ObjectReader READER = ResponseUtils.MAPPER.readerFor(JournalEntry.class)
+        .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    public static final ObjectWriter WRITER = ResponseUtils.MAPPER.writerFor(JournalEntry.class);
+    public static final ObjectWriter PAGE_WRITER =
+        ResponseUtils.MAPPER.writerFor(new TypeReference<PageResponse<JournalEntry>>() {});
+    // Same JSON as WRITER, written straight from the DynamoDB item
+    public static final ItemJsonWriter ITEM_JSON = ItemJsonWriter.builder()
+        .string("ClientId", "ClientId")
+        .string("JournalEntryId", "JournalEntryId")
+        .string("date", "date")
+        .string("time", "time")
+        .string("content", "content")
+        .optionalString("feeling", "feeling")
+        .number("intensity", "intensity")
+        .build();
+    // Entry in the "deleted" list of a sync response
+    public static final ItemJsonWriter TOMBSTONE_JSON = ItemJsonWriter.builder()
+        .string("JournalEntryId", "JournalEntryId")
+        .build();
+
+    public static JournalEntry fromItem(Map<String, AttributeValue> item) {
+        return new JournalEntry(
+            Items.string(item, "ClientId"),
+            Items.string(item, "JournalEntryId"),
+            Items.string(item, "date"),
+            Items.string(item, "time"),
+            Items.string(item, "content"),
+            Items.optionalString(item, "feeling"),
+            Items.optionalInteger(item, "intensity")
+        );
+    }
+
+    public JournalEntry withKeys(String clientId, String journalEntryId) {
+        return new JournalEntry(clientId, journalEntryId, date, time, content, feeling, intensity);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.model;
+
+import com.example.util.ItemJsonWriter;
+import com.example.util.ResponseUtils;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+public record Message(
+    String messageId,
+    String senderId,
+    String recipientId,
+    String content,
+    String timestamp,
+    String status,
+    // Conversation-table key; pass both back on get/update/delete to skip the MessageIdIndex lookup
+    @JsonInclude(JsonInclude.Include.NON_NULL) String conversationId,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String sortKey
+) {
+    public static final ObjectReader READER = ResponseUtils.MAPPER.readerFor(Message.class)
+        .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    public static final ObjectWriter WRITER = ResponseUtils.MAPPER.writerFor(Message.class);
+    public static final ObjectWriter PAGE_WRITER =
+        ResponseUtils.MAPPER.writerFor(new TypeReference<PageResponse<Message>>() {});
+    // Same JSON as WRITER, written straight from the DynamoDB item
+    public static final ItemJsonWriter ITEM_JSON = ItemJsonWriter.builder()
+        .string("messageId", "messageId")
+        .string("senderId", "senderId")
+        .string("recipientId", "recipientId")
+        .string("content", "content")
+        .string("timestamp", "timestamp")
+        .string("status", "status")
+        .optionalString("conversationId", "conversationId")
+        .optionalString("sortKey", "sortKey")
+        .build();
+    // Entry in the "deleted" list of a sync response
+    public static final ItemJsonWriter TOMBSTONE_JSON = ItemJsonWriter.builder()
+        .string("messageId", "messageId")
+        .build();
+
+    public static Message fromItem(Map<String, AttributeValue> item) {
+        return new Message(
+            Items.string(item, "messageId"),
+            Items.string(item, "senderId"),
+            Items.string(item, "recipientId"),
+            Items.string(item, "content"),
+            Items.string(item, "timestamp"),
+            Items.string(item, "status"),
+            Items.string(item, "conversationId"),
+            Items.string(item, "sortKey")
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Typed form of Pagination.envelope: {"items": [...], "nextToken": "..."}
+public record PageResponse<T>(
+    List<T> items,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String nextToken
+) {
+}
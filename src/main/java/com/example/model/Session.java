@@ -0,0 +1,35 @@
+package com.example.model;
+
+import com.example.util.ResponseUtils;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+public record Session(
+    String therapistId,
+    String sessionId,
+    String clientId,
+    String date,
+    String startTime,
+    String endTime,
+    String status,
+    String sharedNotes,
+    String privateNotes
+) {
+    public static final ObjectWriter WRITER = ResponseUtils.MAPPER.writerFor(Session.class);
+
+    public static Session fromItem(Map<String, AttributeValue> item) {
+        return new Session(
+            Items.string(item, "TherapistId"),
+            Items.string(item, "SessionId"),
+            Items.string(item, "clientId"),
+            Items.string(item, "date"),
+            Items.string(item, "startTime"),
+            Items.string(item, "endTime"),
+            Items.string(item, "status"),
+            Items.string(item, "sharedNotes"),
+            Items.string(item, "privateNotes")
+        );
+    }
+}
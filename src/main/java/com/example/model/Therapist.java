@@ -0,0 +1,33 @@
+package com.example.model;
+
+import com.example.util.ResponseUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+public record Therapist(
+    String therapistId,
+    String name,
+    String email,
+    String location,
+    String expertise,
+    List<String> mappedClientsIds
+) {
+    public static final ObjectWriter WRITER = ResponseUtils.MAPPER.writerFor(Therapist.class);
+    public static final ObjectWriter PAGE_WRITER =
+        ResponseUtils.MAPPER.writerFor(new TypeReference<PageResponse<Therapist>>() {});
+
+    public static Therapist fromItem(Map<String, AttributeValue> item) {
+        return new Therapist(
+            Items.string(item, "TherapistId"),
+            Items.string(item, "name"),
+            Items.string(item, "email"),
+            Items.string(item, "location"),
+            Items.string(item, "expertise"),
+            Items.stringList(item, "mappedClientsIds")
+        );
+    }
+}
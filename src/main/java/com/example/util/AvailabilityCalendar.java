@@ -0,0 +1,310 @@
+package com.example.util;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Per-therapist, per-day occupancy bitmaps in the Availability table (TherapistId, date).
+// Each day is 288 five-minute cells stored as two 36-byte binary attributes:
+//   "slots" - cells covered by any published slot (used to reject overlapping slots)
+//   "open"  - cells covered by a slot that is still Available (used to answer free-time queries)
+// so an overlap check or a day's free time is one GetItem and a few bit operations instead of reading
+// every slot. Writers read the day, change the bits and write it back conditioned on "version"; a
+// concurrent writer makes the condition fail and the caller re-reads and retries.
+public class AvailabilityCalendar {
+    public static final int MINUTES_PER_CELL = 5;
+    public static final int CELLS_PER_DAY = 24 * 60 / MINUTES_PER_CELL;
+    public static final int MAX_ATTEMPTS = 3;
+
+    public record Window(String date, String startTime, String endTime) {}
+
+    public static String tableName() {
+        return System.getenv("AVAILABILITY_TABLE");
+    }
+
+    // Set once BackfillAvailabilityCalendarLambda has completed: every day with slots then has an item
+    public static boolean backfilled() {
+        return "true".equals(System.getenv("AVAILABILITY_CALENDAR_BACKFILLED"));
+    }
+
+    // Loads a day. A missing day is empty once the backfill has run; before that it may hold slots written
+    // before the calendar existed, and is rebuilt from the therapist's slots (once, since the next write
+    // stores the result).
+    public static Day load(DynamoDbClient dynamoDb, String therapistId, String date) {
+        GetItemResponse response = dynamoDb.getItem(GetItemRequest.builder()
+            .tableName(tableName())
+            .key(key(therapistId, date))
+            .consistentRead(true)
+            .build());
+        if (response.hasItem()) {
+            return Day.fromItem(therapistId, date, response.item());
+        }
+        if (backfilled()) {
+            return emptyDay(therapistId, date);
+        }
+        Day rebuilt = rebuildAll(dynamoDb, therapistId, date).get(date);
+        return rebuilt != null ? rebuilt : emptyDay(therapistId, date);
+    }
+
+    // Every day of the therapist's slots, built in one pass over the slot partition; with onlyDate set,
+    // just that day. None of the days are stored.
+    public static Map<String, Day> rebuildAll(DynamoDbClient dynamoDb, String therapistId, String onlyDate) {
+        Map<String, Day> days = new TreeMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":therapistId", AttributeValue.builder().s(therapistId).build());
+        Map<String, String> names = new HashMap<>(Map.of("#date", "date", "#status", "status"));
+        if (onlyDate != null) {
+            values.put(":date", AttributeValue.builder().s(onlyDate).build());
+        }
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryResponse response = dynamoDb.query(QueryRequest.builder()
+                .tableName(System.getenv("SESSION_SLOTS_TABLE"))
+                .keyConditionExpression("TherapistId = :therapistId")
+                .filterExpression(onlyDate != null ? "#date = :date" : null)
+                .expressionAttributeValues(values)
+                .projectionExpression("#date, startTime, endTime, #status")
+                .expressionAttributeNames(names)
+                .exclusiveStartKey(startKey)
+                .build());
+            for (Map<String, AttributeValue> slot : response.items()) {
+                if (slot.get("date") == null) {
+                    continue;
+                }
+                String date = slot.get("date").s();
+                Day day = days.computeIfAbsent(date, d -> emptyDay(therapistId, d));
+                try {
+                    day.addSlot(slot.get("startTime").s(), slot.get("endTime").s(),
+                        SessionSlots.AVAILABLE.equals(slot.get("status").s()));
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    // Legacy slot with unparseable times; it can't be placed on the grid
+                }
+            }
+            startKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                ? response.lastEvaluatedKey() : null;
+        } while (startKey != null);
+        return days;
+    }
+
+    // Commits the writes together with a change to the day's bitmap. The bitmap goes last in the
+    // transaction; when it is the only write that failed (another writer changed the day first), the day
+    // is re-read and the transaction retried. Any other cancellation is rethrown to the caller.
+    public static void transactWithDay(DynamoDbClient dynamoDb, String therapistId, String date,
+                                       Consumer<Day> change, List<TransactWriteItem> writes) {
+        transactWithDay(dynamoDb, therapistId, date, day -> {
+            change.accept(day);
+            return writes;
+        });
+    }
+
+    // Same, for writes that depend on the day's bits: plan is called with the freshly read day on every
+    // attempt, changes it and returns the writes to commit with it. An empty plan writes nothing.
+    public static void transactWithDay(DynamoDbClient dynamoDb, String therapistId, String date,
+                                       Function<Day, List<TransactWriteItem>> plan) {
+        for (int attempt = 1; ; attempt++) {
+            Day day = load(dynamoDb, therapistId, date);
+            List<TransactWriteItem> writes = plan.apply(day);
+            if (writes.isEmpty()) {
+                return;
+            }
+            List<TransactWriteItem> items = new ArrayList<>(writes);
+            items.add(day.toTransactWrite());
+
+            try {
+                dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(items)
+                    .build());
+                return;
+            } catch (TransactionCanceledException e) {
+                if (attempt == MAX_ATTEMPTS || !onlyDayFailed(e, writes.size())) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // True when the times parse and can be placed on the grid; legacy free-text times can't
+    public static boolean onGrid(String startTime, String endTime) {
+        try {
+            cells(startTime, endTime);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Cells [start, end) for a slot, widened to whole cells so partial cells count as occupied
+    public static BitSet cells(String startTime, String endTime) {
+        int start;
+        int end;
+        try {
+            start = LocalTime.parse(startTime).toSecondOfDay() / 60;
+            end = LocalTime.parse(endTime).toSecondOfDay() / 60;
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Slot times must be HH:mm");
+        }
+        if (end <= start) {
+            throw new IllegalArgumentException("endTime must be after startTime");
+        }
+        BitSet cells = new BitSet(CELLS_PER_DAY);
+        cells.set(start / MINUTES_PER_CELL, (end + MINUTES_PER_CELL - 1) / MINUTES_PER_CELL);
+        return cells;
+    }
+
+    private static boolean onlyDayFailed(TransactionCanceledException e, int dayIndex) {
+        if (!Transactions.conditionFailedAt(e, dayIndex)) {
+            return false;
+        }
+        for (int i = 0; i < dayIndex; i++) {
+            String code = e.cancellationReasons().get(i).code();
+            if (code != null && !"None".equals(code)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Day emptyDay(String therapistId, String date) {
+        return new Day(therapistId, date, new BitSet(CELLS_PER_DAY), new BitSet(CELLS_PER_DAY), 0);
+    }
+
+    private static Map<String, AttributeValue> key(String therapistId, String date) {
+        return Map.of(
+            "TherapistId", AttributeValue.builder().s(therapistId).build(),
+            "date", AttributeValue.builder().s(date).build()
+        );
+    }
+
+    public static final class Day {
+        private final String therapistId;
+        private final String date;
+        private final BitSet slots;
+        private final BitSet open;
+        private final long version;
+
+        private Day(String therapistId, String date, BitSet slots, BitSet open, long version) {
+            this.therapistId = therapistId;
+            this.date = date;
+            this.slots = slots;
+            this.open = open;
+            this.version = version;
+        }
+
+        public static Day fromItem(Map<String, AttributeValue> item) {
+            return fromItem(item.get("TherapistId").s(), item.get("date").s(), item);
+        }
+
+        static Day fromItem(String therapistId, String date, Map<String, AttributeValue> item) {
+            return new Day(therapistId, date,
+                BitSet.valueOf(item.get("slots").b().asByteArray()),
+                BitSet.valueOf(item.get("open").b().asByteArray()),
+                Long.parseLong(item.get("version").n()));
+        }
+
+        public String date() {
+            return date;
+        }
+
+        // False for a day rebuilt from slots that has not been written to the table yet
+        public boolean isStored() {
+            return version > 0;
+        }
+
+        public boolean overlaps(String startTime, String endTime) {
+            return slots.intersects(cells(startTime, endTime));
+        }
+
+        public void addSlot(String startTime, String endTime, boolean available) {
+            BitSet cells = cells(startTime, endTime);
+            slots.or(cells);
+            if (available) {
+                open.or(cells);
+            }
+        }
+
+        // Booked or reserved: the time is still taken by the slot but no longer free
+        public void close(String startTime, String endTime) {
+            open.andNot(cells(startTime, endTime));
+        }
+
+        public void reopen(String startTime, String endTime) {
+            open.or(cells(startTime, endTime));
+        }
+
+        // Maximal runs of free cells, in time order
+        public List<Window> openWindows() {
+            List<Window> windows = new ArrayList<>();
+            for (int start = open.nextSetBit(0); start >= 0; start = open.nextSetBit(start)) {
+                int end = open.nextClearBit(start);
+                windows.add(new Window(date, time(start), time(end)));
+                start = end;
+            }
+            return windows;
+        }
+
+        // Put for a transaction, conditioned on nobody having written the day since it was read
+        public TransactWriteItem toTransactWrite() {
+            Put.Builder put = Put.builder()
+                .tableName(tableName())
+                .item(toItem())
+                .conditionExpression(condition());
+            if (version > 0) {
+                put.expressionAttributeValues(conditionValues());
+            }
+            return TransactWriteItem.builder().put(put.build()).build();
+        }
+
+        // Standalone conditional write; throws ConditionalCheckFailedException on a concurrent change
+        public void save(DynamoDbClient dynamoDb) {
+            PutItemRequest.Builder request = PutItemRequest.builder()
+                .tableName(tableName())
+                .item(toItem())
+                .conditionExpression(condition());
+            if (version > 0) {
+                request.expressionAttributeValues(conditionValues());
+            }
+            dynamoDb.putItem(request.build());
+        }
+
+        private String condition() {
+            return version == 0 ? "attribute_not_exists(TherapistId)" : "version = :version";
+        }
+
+        private Map<String, AttributeValue> conditionValues() {
+            return Map.of(":version", AttributeValue.builder().n(Long.toString(version)).build());
+        }
+
+        private Map<String, AttributeValue> toItem() {
+            Map<String, AttributeValue> item = new HashMap<>(key(therapistId, date));
+            item.put("slots", AttributeValue.builder().b(SdkBytes.fromByteArray(slots.toByteArray())).build());
+            item.put("open", AttributeValue.builder().b(SdkBytes.fromByteArray(open.toByteArray())).build());
+            item.put("version", AttributeValue.builder().n(Long.toString(version + 1)).build());
+            return item;
+        }
+
+        private static String time(int cell) {
+            int minutes = cell * MINUTES_PER_CELL;
+            return minutes >= 24 * 60 ? "24:00" : String.format("%02d:%02d", minutes / 60, minutes % 60);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BatchReads {
+    public static final int MAX_BATCH_SIZE = 100; // DynamoDB BatchGetItem limit
+    private static final int MAX_ATTEMPTS = 8;
+
+    // Fetches full items for primary keys (e.g. from a KEYS_ONLY index page, reduced to the table's key
+    // attributes) and returns them in key order. Keys whose item no longer exists are left out.
+    public static List<Map<String, AttributeValue>> getAll(DynamoDbClient dynamoDb, String tableName,
+                                                          List<Map<String, AttributeValue>> keys) {
+        Map<Map<String, AttributeValue>, Map<String, AttributeValue>> found = new HashMap<>();
+        for (int i = 0; i < keys.size(); i += MAX_BATCH_SIZE) {
+            List<Map<String, AttributeValue>> batch = keys.subList(i, Math.min(i + MAX_BATCH_SIZE, keys.size()));
+            Map<String, KeysAndAttributes> pending = Map.of(tableName, KeysAndAttributes.builder().keys(batch).build());
+
+            for (int attempt = 0; !pending.isEmpty(); attempt++) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new IllegalStateException("Unprocessed keys remained after " + MAX_ATTEMPTS
+                        + " attempts reading " + tableName);
+                }
+                if (attempt > 0) {
+                    sleep(Math.min(1000L, 25L << attempt));
+                }
+
+                BatchGetItemResponse response = dynamoDb.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(pending)
+                    .build());
+                for (Map<String, AttributeValue> item : response.responses().getOrDefault(tableName, List.of())) {
+                    found.put(keyOf(item, batch.get(0)), item);
+                }
+                pending = response.unprocessedKeys();
+            }
+        }
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>(keys.size());
+        for (Map<String, AttributeValue> key : keys) {
+            Map<String, AttributeValue> item = found.get(key);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    // Extracts the primary key attributes (named like the sample key) from an item
+    private static Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item, Map<String, AttributeValue> sampleKey) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        sampleKey.keySet().forEach(name -> key.put(name, item.get(name)));
+        return key;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying batch read", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.List;
+import java.util.Map;
+
+public class BatchWrites {
+    public static final int MAX_BATCH_SIZE = 25; // DynamoDB BatchWriteItem limit
+    private static final int MAX_ATTEMPTS = 8;
+
+    // Writes all requests in 25-item chunks
+    public static void writeAll(DynamoDbClient dynamoDb, String tableName, List<WriteRequest> writes) {
+        for (int i = 0; i < writes.size(); i += MAX_BATCH_SIZE) {
+            writeBatch(dynamoDb, tableName, writes.subList(i, Math.min(i + MAX_BATCH_SIZE, writes.size())));
+        }
+    }
+
+    // Writes a single chunk, re-submitting unprocessed items with exponential backoff
+    public static void writeBatch(DynamoDbClient dynamoDb, String tableName, List<WriteRequest> batch) {
+        Map<String, List<WriteRequest>> pending = Map.of(tableName, batch);
+
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt == MAX_ATTEMPTS) {
+                throw new IllegalStateException("Unprocessed items remained after " + MAX_ATTEMPTS
+                    + " attempts writing to " + tableName);
+            }
+            if (attempt > 0) {
+                sleep(Math.min(1000L, 25L << attempt));
+            }
+
+            BatchWriteItemResponse response = dynamoDb.batchWriteItem(BatchWriteItemRequest.builder()
+                .requestItems(pending)
+                .build());
+            pending = response.unprocessedItems();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying batch write", e);
+        }
+    }
+}
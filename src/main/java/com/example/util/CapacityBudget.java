@@ -0,0 +1,47 @@
+package com.example.util;
+
+// Per-request ceiling on read capacity (REQUEST_RCU_BUDGET, default 250 RCU) for the search and listing
+// routes, which opt in through InstrumentedHandler.readBudget(); admin jobs and single-item routes are
+// never limited. Every DynamoDB response reports the capacity it consumed (see DynamoDbMetrics); once an
+// invocation has used up its budget,
+// further reads fail with ExceededException before they are sent. Writes are never blocked, so a request
+// can always finish what it has started. Search legs that hit the budget come back as failed legs of a
+// partial result, and loops over many reads can check exhausted() to stop early with a cursor.
+// Like Metrics, this is tracked per Lambda invocation and is off outside Lambda.
+public class CapacityBudget {
+    private static final double DEFAULT_READ_UNITS = 250;
+    private static final double READ_UNITS = System.getenv("REQUEST_RCU_BUDGET") != null
+        ? Double.parseDouble(System.getenv("REQUEST_RCU_BUDGET")) : DEFAULT_READ_UNITS;
+
+    public static class ExceededException extends RuntimeException {
+        public ExceededException(String message) {
+            super(message);
+        }
+    }
+
+    public static boolean exhausted() {
+        return exhausted(Metrics.current());
+    }
+
+    private static boolean exhausted(Metrics.Invocation invocation) {
+        return invocation != null && invocation.readBudget() && invocation.readUnits() >= READ_UNITS;
+    }
+
+    static void checkRead(Metrics.Invocation invocation, String operation) {
+        if (exhausted(invocation)) {
+            throw new ExceededException(String.format(
+                "Read capacity budget of %.0f RCU used up (%.1f consumed); %s not sent",
+                READ_UNITS, invocation.readUnits(), operation));
+        }
+    }
+
+    // The SDK may wrap exceptions thrown by interceptors, so look through the causes
+    public static boolean exceeded(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ExceededException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Change feed for incremental ("since") sync of messages and journal entries.
+// Every write stamps changedAt = fixed-width UTC write time + "#" + item id, and ChangesIndex orders each
+// partition by it, so "everything that changed after X" is one Query on the index. Deletes leave a
+// tombstone (deleted = true, payload removed) that sync can still see for TOMBSTONE_RETENTION; after that
+// the table's TTL on expiresAt removes it, and cursors older than the retention must do a full sync.
+public class ChangeTracking {
+    public static final String INDEX = "ChangesIndex";
+    public static final String CHANGED_AT = "changedAt";
+    public static final String DELETED = "deleted";
+    public static final String EXPIRES_AT = "expiresAt";
+    public static final Duration TOMBSTONE_RETENTION = Duration.ofDays(30);
+
+    // Writers stamp changedAt with their own clock before the write lands, so a change can become visible
+    // slightly behind a cursor already handed out. Each sync re-reads this much before the cursor and
+    // clients drop changes they already applied (by id).
+    private static final Duration OVERLAP = Duration.ofSeconds(5);
+
+    // Fixed width so lexicographic order is time order (Instant.toString drops trailing zeros)
+    private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS'Z'";
+    private static final DateTimeFormatter SORTABLE_TIME =
+        DateTimeFormatter.ofPattern(PATTERN).withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter CURSOR_PARSER = DateTimeFormatter.ofPattern(PATTERN);
+
+    public static String sortableTime(Instant time) {
+        return SORTABLE_TIME.format(time);
+    }
+
+    public static AttributeValue changedAt(Instant time, String id) {
+        return AttributeValue.builder().s(sortableTime(time) + "#" + id).build();
+    }
+
+    public static AttributeValue deletedFlag() {
+        return AttributeValue.builder().bool(true).build();
+    }
+
+    // TTL attribute (epoch seconds) for a tombstone written at deletedAt
+    public static AttributeValue expiresAt(Instant deletedAt) {
+        return AttributeValue.builder().n(Long.toString(deletedAt.plus(TOMBSTONE_RETENTION).getEpochSecond())).build();
+    }
+
+    public static boolean isDeleted(Map<String, AttributeValue> item) {
+        return item.containsKey(DELETED);
+    }
+
+    public static Instant parseCursor(String cursor) {
+        try {
+            return LocalDateTime.parse(cursor, CURSOR_PARSER).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid since cursor");
+        }
+    }
+
+    // Tombstones older than the retention may already be gone, so such a cursor can't be served as a delta
+    public static boolean expired(Instant since) {
+        return since.isBefore(Instant.now().minus(TOMBSTONE_RETENTION).plus(OVERLAP));
+    }
+
+    // Value for "changedAt >= :since"; any "time#id" at or after the time sorts after the bare time prefix
+    public static AttributeValue lowerBound(Instant since) {
+        return AttributeValue.builder().s(sortableTime(since.minus(OVERLAP))).build();
+    }
+
+    // Cursor for the next sync: the newest change on the page (pages are in changedAt order), or the
+    // fallback when the page is empty
+    public static String nextCursor(List<Map<String, AttributeValue>> changes, String fallback) {
+        if (changes.isEmpty()) {
+            return fallback;
+        }
+        String changedAt = changes.get(changes.size() - 1).get(CHANGED_AT).s();
+        return changedAt.substring(0, changedAt.indexOf('#'));
+    }
+
+    // {"items": [changed...], "deleted": [tombstones...], "syncCursor": "...", "nextToken": "..."}
+    public static String writeDelta(ItemJsonWriter itemJson, ItemJsonWriter tombstoneJson,
+                                    List<Map<String, AttributeValue>> changes, String syncCursor, String nextToken) {
+        List<Map<String, AttributeValue>> changed = new ArrayList<>();
+        List<Map<String, AttributeValue>> deleted = new ArrayList<>();
+        for (Map<String, AttributeValue> item : changes) {
+            (isDeleted(item) ? deleted : changed).add(item);
+        }
+
+        Map<String, Object> extras = new LinkedHashMap<>();
+        extras.put("syncCursor", syncCursor);
+        if (nextToken != null) {
+            extras.put("nextToken", nextToken);
+        }
+        return ItemJsonWriter.writeSections(List.of(
+            new ItemJsonWriter.Section("items", itemJson, changed),
+            new ItemJsonWriter.Section("deleted", tombstoneJson, deleted)
+        ), extras);
+    }
+}
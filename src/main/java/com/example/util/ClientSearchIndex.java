@@ -0,0 +1,138 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Prefix index over client name and email. Every client owns one row per search term
+// (partition key "term", sort key "ClientId"), so a lookup is a single Query on an exact key
+// and costs O(matches) instead of a scan over the whole Clients table.
+public class ClientSearchIndex {
+    public static final int MIN_TERM_LENGTH = 2;
+    public static final int MAX_TERM_LENGTH = 20;
+
+    public static String tableName() {
+        return System.getenv("CLIENT_SEARCH_INDEX_TABLE");
+    }
+
+    // Prefixes of the full name, full email, email domain and every word in either field
+    public static Set<String> terms(String name, String email) {
+        Set<String> terms = new HashSet<>();
+        String normalizedName = normalize(name);
+        String normalizedEmail = normalize(email);
+
+        addPrefixes(terms, normalizedName);
+        addPrefixes(terms, normalizedEmail);
+        if (normalizedEmail.contains("@")) {
+            addPrefixes(terms, normalizedEmail.substring(normalizedEmail.indexOf('@') + 1));
+        }
+        for (String token : (normalizedName + " " + normalizedEmail).split("[^a-z0-9]+")) {
+            addPrefixes(terms, token);
+        }
+        return terms;
+    }
+
+    public static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    public static void index(DynamoDbClient dynamoDb, String clientId, String name, String email) {
+        sync(dynamoDb, clientId, null, null, name, email);
+    }
+
+    public static void remove(DynamoDbClient dynamoDb, String clientId, String name, String email) {
+        sync(dynamoDb, clientId, name, email, null, null);
+    }
+
+    // Deletes terms that no longer apply and (re)writes the current ones with fresh display fields
+    public static void sync(DynamoDbClient dynamoDb, String clientId,
+                            String oldName, String oldEmail, String newName, String newEmail) {
+        if (Objects.equals(oldName, newName) && Objects.equals(oldEmail, newEmail)) {
+            return;
+        }
+
+        Set<String> oldTerms = oldName == null && oldEmail == null ? Set.of() : terms(oldName, oldEmail);
+        Set<String> newTerms = newName == null && newEmail == null ? Set.of() : terms(newName, newEmail);
+
+        List<WriteRequest> writes = new ArrayList<>();
+        for (String term : oldTerms) {
+            if (!newTerms.contains(term)) {
+                writes.add(WriteRequest.builder()
+                    .deleteRequest(DeleteRequest.builder()
+                        .key(Map.of(
+                            "term", AttributeValue.builder().s(term).build(),
+                            "ClientId", AttributeValue.builder().s(clientId).build()
+                        ))
+                        .build())
+                    .build());
+            }
+        }
+        for (String term : newTerms) {
+            writes.add(WriteRequest.builder()
+                .putRequest(PutRequest.builder()
+                    .item(Map.of(
+                        "term", AttributeValue.builder().s(term).build(),
+                        "ClientId", AttributeValue.builder().s(clientId).build(),
+                        "name", AttributeValue.builder().s(newName != null ? newName : "").build(),
+                        "email", AttributeValue.builder().s(newEmail != null ? newEmail : "").build()
+                    ))
+                    .build())
+                .build());
+        }
+
+        BatchWrites.writeAll(dynamoDb, tableName(), writes);
+    }
+
+    // Returns one page of index rows (ClientId, name, email) whose name or email starts a word with the query
+    public static Pagination.Page<Map<String, AttributeValue>> search(DynamoDbClient dynamoDb, String query,
+                                                                      int limit, Map<String, AttributeValue> startKey) {
+        String normalized = normalize(query);
+        if (normalized.length() < MIN_TERM_LENGTH) {
+            return new Pagination.Page<>(Collections.emptyList(), null);
+        }
+
+        String term = normalized.length() > MAX_TERM_LENGTH ? normalized.substring(0, MAX_TERM_LENGTH) : normalized;
+        QueryResponse response = dynamoDb.query(QueryRequest.builder()
+            .tableName(tableName())
+            .keyConditionExpression("#term = :term")
+            .expressionAttributeNames(Map.of("#term", "term"))
+            .expressionAttributeValues(Map.of(":term", AttributeValue.builder().s(term).build()))
+            .limit(limit)
+            .exclusiveStartKey(startKey)
+            .build());
+        List<Map<String, AttributeValue>> items = response.items();
+
+        // Terms are capped, so longer queries are narrowed down after the lookup
+        if (normalized.length() > MAX_TERM_LENGTH) {
+            items = items.stream()
+                .filter(item -> normalize(item.get("name").s()).contains(normalized)
+                    || normalize(item.get("email").s()).contains(normalized))
+                .collect(Collectors.toList());
+        }
+        return new Pagination.Page<>(items, response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null);
+    }
+
+    private static void addPrefixes(Set<String> terms, String value) {
+        int max = Math.min(value.length(), MAX_TERM_LENGTH);
+        for (int i = MIN_TERM_LENGTH; i <= max; i++) {
+            String prefix = value.substring(0, i);
+            if (!prefix.endsWith(" ")) {
+                terms.add(prefix);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.util;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.DefaultAwsRegionProviderChain;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+
+// One DynamoDB client per execution environment, shared by every handler and worker thread.
+// The HTTP client, region and credentials are pinned explicitly so the SDK skips classpath and
+// provider-chain discovery, and the first call is made during init so TLS is already set up
+// when the first request arrives.
+public class DynamoDbClientFactory {
+    // Matches ParallelExecution's pool so parallel legs do not queue for a kept-alive connection
+    private static final String MAX_CONNECTIONS = "16";
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration SOCKET_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration API_CALL_ATTEMPT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration API_CALL_TIMEOUT = Duration.ofSeconds(20);
+    private static final int MAX_RETRIES = 3;
+
+    private static class Holder {
+        private static final DynamoDbClient CLIENT = create();
+    }
+
+    public static DynamoDbClient client() {
+        return Holder.CLIENT;
+    }
+
+    // Opens the connection and completes the TLS handshake; failures only cost the warm-up and are
+    // counted as DynamoDbWarmUpFailures on the next invocation's metrics
+    public static void prime(DynamoDbClient dynamoDb) {
+        try {
+            dynamoDb.describeEndpoints();
+        } catch (RuntimeException e) {
+            Metrics.recordWarmUpFailure();
+        }
+    }
+
+    private static DynamoDbClient create() {
+        long start = System.nanoTime();
+
+        // Read once by the JDK keep-alive cache, so it must be set before the first connection
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", MAX_CONNECTIONS);
+        }
+
+        DynamoDbClientBuilder builder = DynamoDbClient.builder()
+            .httpClientBuilder(UrlConnectionHttpClient.builder()
+                .connectionTimeout(CONNECTION_TIMEOUT)
+                .socketTimeout(SOCKET_TIMEOUT))
+            .region(region())
+            .credentialsProvider(credentialsProvider())
+            .overrideConfiguration(ClientOverrideConfiguration.builder()
+                .apiCallAttemptTimeout(API_CALL_ATTEMPT_TIMEOUT)
+                .apiCallTimeout(API_CALL_TIMEOUT)
+                .retryPolicy(RetryPolicy.builder(RetryMode.STANDARD)
+                    .numRetries(MAX_RETRIES)
+                    .build())
+                .addExecutionInterceptor(new DynamoDbMetrics())
+                .build());
+        // DynamoDB Local (see loadtest/); never set in Lambda
+        String endpoint = System.getenv("DYNAMODB_ENDPOINT");
+        if (endpoint != null) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        DynamoDbClient dynamoDb = builder.build();
+        prime(dynamoDb);
+        SnapStartPriming.register();
+
+        Metrics.recordClientInit((System.nanoTime() - start) / 1e6);
+        return dynamoDb;
+    }
+
+    // Lambda always sets AWS_REGION; the region chain is only for local runs
+    private static Region region() {
+        String region = System.getenv("AWS_REGION");
+        return region != null ? Region.of(region) : new DefaultAwsRegionProviderChain().getRegion();
+    }
+
+    // On-demand functions get the credential variables. SnapStart functions don't (keys captured in a
+    // snapshot would be stale after a restore) and get container credentials through
+    // AWS_CONTAINER_CREDENTIALS_FULL_URI instead, which only DefaultCredentialsProvider resolves, so the
+    // fallback is used in production, not just locally.
+    private static AwsCredentialsProvider credentialsProvider() {
+        return System.getenv("AWS_ACCESS_KEY_ID") != null
+            ? EnvironmentVariableCredentialsProvider.create()
+            : DefaultCredentialsProvider.create();
+    }
+}
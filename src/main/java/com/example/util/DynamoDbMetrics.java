@@ -0,0 +1,234 @@
+package com.example.util;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Times every call made through the shared client, counts its retries and asks DynamoDB for the capacity
+// it consumed (ReturnConsumedCapacity TOTAL), then hands the numbers to Metrics. Reads are refused once
+// the request's CapacityBudget is used up, and calls slower than SLOW_QUERY_MILLIS (default 200) or
+// costlier than SLOW_QUERY_CAPACITY_UNITS (default 25) are logged as a "SlowQuery" JSON line with their
+// expressions (never the values). Added to the client by DynamoDbClientFactory.
+public class DynamoDbMetrics implements ExecutionInterceptor {
+    private static final double SLOW_QUERY_MILLIS = System.getenv("SLOW_QUERY_MILLIS") != null
+        ? Double.parseDouble(System.getenv("SLOW_QUERY_MILLIS")) : 200;
+    private static final double SLOW_QUERY_CAPACITY_UNITS = System.getenv("SLOW_QUERY_CAPACITY_UNITS") != null
+        ? Double.parseDouble(System.getenv("SLOW_QUERY_CAPACITY_UNITS")) : 25;
+
+    private static final ExecutionAttribute<Long> START = new ExecutionAttribute<>("MetricsStartNanos");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("MetricsAttempts");
+    // The invocation that issued the call, so a call finishing late is not charged to the next one
+    private static final ExecutionAttribute<Metrics.Invocation> INVOCATION = new ExecutionAttribute<>("MetricsInvocation");
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        ParallelExecution.checkNotCancelled();
+        Metrics.Invocation invocation = Metrics.current();
+        attributes.putAttribute(START, System.nanoTime());
+        attributes.putAttribute(ATTEMPTS, 0);
+        if (invocation != null) {
+            attributes.putAttribute(INVOCATION, invocation);
+        }
+        if (isRead(context.request())) {
+            CapacityBudget.checkRead(invocation, attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME));
+        }
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes attributes) {
+        return withConsumedCapacity(context.request());
+    }
+
+    // Called once per attempt, so attempts - 1 is the number of retries
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes attributes) {
+        attributes.putAttribute(ATTEMPTS, attributes.getAttribute(ATTEMPTS) + 1);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        double readUnits = 0;
+        double writeUnits = 0;
+        boolean write = isWrite(context.request());
+        for (ConsumedCapacity capacity : consumedCapacity(context.response())) {
+            if (capacity.readCapacityUnits() != null || capacity.writeCapacityUnits() != null) {
+                readUnits += capacity.readCapacityUnits() != null ? capacity.readCapacityUnits() : 0;
+                writeUnits += capacity.writeCapacityUnits() != null ? capacity.writeCapacityUnits() : 0;
+            } else if (capacity.capacityUnits() != null) {
+                if (write) {
+                    writeUnits += capacity.capacityUnits();
+                } else {
+                    readUnits += capacity.capacityUnits();
+                }
+            }
+        }
+        double latencyMillis = latencyMillis(attributes);
+        record(attributes, latencyMillis, readUnits, writeUnits, false);
+        if (latencyMillis >= SLOW_QUERY_MILLIS || readUnits + writeUnits >= SLOW_QUERY_CAPACITY_UNITS) {
+            logSlowQuery(context.request(), attributes, latencyMillis, readUnits, writeUnits);
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        record(attributes, latencyMillis(attributes), 0, 0, true);
+    }
+
+    private static double latencyMillis(ExecutionAttributes attributes) {
+        Long start = attributes.getAttribute(START);
+        return start != null ? (System.nanoTime() - start) / 1e6 : 0;
+    }
+
+    private static int retries(ExecutionAttributes attributes) {
+        Integer attempts = attributes.getAttribute(ATTEMPTS);
+        return attempts != null ? Math.max(0, attempts - 1) : 0;
+    }
+
+    private static void record(ExecutionAttributes attributes, double latencyMillis,
+                               double readUnits, double writeUnits, boolean failed) {
+        Metrics.recordDynamoDbCall(attributes.getAttribute(INVOCATION),
+            attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME),
+            latencyMillis, retries(attributes), readUnits, writeUnits, failed);
+    }
+
+    private static void logSlowQuery(SdkRequest request, ExecutionAttributes attributes, double latencyMillis,
+                                     double readUnits, double writeUnits) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", "SlowQuery");
+        line.put("operation", attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME));
+        Metrics.Invocation invocation = attributes.getAttribute(INVOCATION);
+        if (invocation != null) {
+            line.put("route", invocation.route());
+            line.put("requestId", invocation.requestId());
+        }
+        line.put("latencyMillis", latencyMillis);
+        line.put("retries", retries(attributes));
+        line.put("consumedRCU", readUnits);
+        line.put("consumedWCU", writeUnits);
+        describe(request, line);
+        Metrics.emit(line);
+    }
+
+    // Table, index and expressions of the request; attribute values are left out, they may hold client data
+    private static void describe(SdkRequest request, Map<String, Object> line) {
+        if (request instanceof QueryRequest r) {
+            line.put("table", r.tableName());
+            line.put("index", r.indexName());
+            line.put("keyConditionExpression", r.keyConditionExpression());
+            line.put("filterExpression", r.filterExpression());
+            line.put("projectionExpression", r.projectionExpression());
+            line.put("limit", r.limit());
+            line.put("paged", r.hasExclusiveStartKey());
+        } else if (request instanceof ScanRequest r) {
+            line.put("table", r.tableName());
+            line.put("index", r.indexName());
+            line.put("filterExpression", r.filterExpression());
+            line.put("projectionExpression", r.projectionExpression());
+            line.put("limit", r.limit());
+            line.put("segment", r.segment() != null ? r.segment() + "/" + r.totalSegments() : null);
+        } else if (request instanceof GetItemRequest r) {
+            line.put("table", r.tableName());
+            line.put("projectionExpression", r.projectionExpression());
+        } else if (request instanceof PutItemRequest r) {
+            line.put("table", r.tableName());
+            line.put("conditionExpression", r.conditionExpression());
+        } else if (request instanceof UpdateItemRequest r) {
+            line.put("table", r.tableName());
+            line.put("updateExpression", r.updateExpression());
+            line.put("conditionExpression", r.conditionExpression());
+        } else if (request instanceof DeleteItemRequest r) {
+            line.put("table", r.tableName());
+            line.put("conditionExpression", r.conditionExpression());
+        } else if (request instanceof BatchGetItemRequest r) {
+            line.put("tables", r.requestItems().keySet());
+        } else if (request instanceof BatchWriteItemRequest r) {
+            line.put("tables", r.requestItems().keySet());
+        } else if (request instanceof TransactGetItemsRequest r) {
+            line.put("items", r.transactItems().size());
+        } else if (request instanceof TransactWriteItemsRequest r) {
+            line.put("items", r.transactItems().size());
+        }
+        line.values().removeIf(Objects::isNull);
+    }
+
+    // The request with ReturnConsumedCapacity TOTAL, for the data-plane calls that support it
+    public static SdkRequest withConsumedCapacity(SdkRequest request) {
+        ReturnConsumedCapacity total = ReturnConsumedCapacity.TOTAL;
+        if (request instanceof GetItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        } else if (request instanceof PutItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        } else if (request instanceof UpdateItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        } else if (request instanceof DeleteItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        } else if (request instanceof QueryRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        } else if (request instanceof ScanRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        } else if (request instanceof BatchGetItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        } else if (request instanceof BatchWriteItemRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        } else if (request instanceof TransactGetItemsRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        } else if (request instanceof TransactWriteItemsRequest r && r.returnConsumedCapacity() == null) {
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        }
+        return request;
+    }
+
+    // Consumed capacity reported in a response, one entry per table; empty when there is none
+    public static List<ConsumedCapacity> consumedCapacity(SdkResponse response) {
+        ConsumedCapacity single = null;
+        List<ConsumedCapacity> list = null;
+        if (response instanceof GetItemResponse r) {
+            single = r.consumedCapacity();
+        } else if (response instanceof PutItemResponse r) {
+            single = r.consumedCapacity();
+        } else if (response instanceof UpdateItemResponse r) {
+            single = r.consumedCapacity();
+        } else if (response instanceof DeleteItemResponse r) {
+            single = r.consumedCapacity();
+        } else if (response instanceof QueryResponse r) {
+            single = r.consumedCapacity();
+        } else if (response instanceof ScanResponse r) {
+            single = r.consumedCapacity();
+        } else if (response instanceof BatchGetItemResponse r && r.hasConsumedCapacity()) {
+            list = r.consumedCapacity();
+        } else if (response instanceof BatchWriteItemResponse r && r.hasConsumedCapacity()) {
+            list = r.consumedCapacity();
+        } else if (response instanceof TransactGetItemsResponse r && r.hasConsumedCapacity()) {
+            list = r.consumedCapacity();
+        } else if (response instanceof TransactWriteItemsResponse r && r.hasConsumedCapacity()) {
+            list = r.consumedCapacity();
+        }
+        if (single != null) {
+            return List.of(single);
+        }
+        return list != null ? list : Collections.emptyList();
+    }
+
+    private static boolean isRead(SdkRequest request) {
+        return request instanceof GetItemRequest || request instanceof QueryRequest
+            || request instanceof ScanRequest || request instanceof BatchGetItemRequest
+            || request instanceof TransactGetItemsRequest;
+    }
+
+    private static boolean isWrite(SdkRequest request) {
+        return request instanceof PutItemRequest || request instanceof UpdateItemRequest
+            || request instanceof DeleteItemRequest || request instanceof BatchWriteItemRequest
+            || request instanceof TransactWriteItemsRequest;
+    }
+}
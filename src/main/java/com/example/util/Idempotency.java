@@ -0,0 +1,240 @@
+package com.example.util;
+
+import com.example.model.ApiGatewayEvent;
+import com.amazonaws.services.lambda.runtime.Context;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Idempotency-Key support for POST requests, backed by the IdempotencyTable (IdempotencyKey, TTL expiresAt).
+// One item per "<METHOD> <path>#<key>":
+//   requestHash          first 16 bytes of SHA-256 over the body, so a reused key with another body is refused
+//   lockedUntil          set while the first request executes; a retry meanwhile gets 409
+//   statusCode, body     the stored response once it completed (bodyGzip instead when the body is large)
+// A retry of a completed request is answered from the item with one consistent GetItem and never reaches
+// the handler. The first request claims the key with a conditional put, so concurrent retries cannot both
+// execute. 5xx responses and exceptions release the key, so the client can retry them for real.
+public class Idempotency {
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long RETENTION_SECONDS = 24 * 60 * 60;
+    private static final long DEFAULT_LOCK_MILLIS = 30_000;
+    private static final int GZIP_THRESHOLD_BYTES = 1024;
+    private static final Map<String, String> REPLAY_HEADERS = Map.of(
+        "Content-Type", "application/json",
+        "Idempotent-Replayed", "true");
+
+    public static String tableName() {
+        return System.getenv("IDEMPOTENCY_TABLE");
+    }
+
+    // Runs execute at most once per Idempotency-Key; requests without the header (or functions without
+    // the table) run as before
+    public static Map<String, Object> run(DynamoDbClient dynamoDb, Map<String, Object> input, Context context,
+                                          Supplier<Map<String, Object>> execute) {
+        ApiGatewayEvent event = ApiGatewayEvent.from(input);
+        String key = event.header(HEADER);
+        if (key == null || tableName() == null) {
+            return execute.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseUtils.errorResponse(400, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String path = event.path() != null ? event.path() : (String) input.get("resource");
+        Map<String, AttributeValue> itemKey = Map.of(
+            "IdempotencyKey", AttributeValue.builder().s(event.httpMethod() + " " + path + "#" + key).build());
+        SdkBytes requestHash = hash(event.body());
+
+        // 1. Fast path: a retry of a request that already completed
+        Map<String, AttributeValue> existing = dynamoDb.getItem(GetItemRequest.builder()
+            .tableName(tableName())
+            .key(itemKey)
+            .consistentRead(true)
+            .build()).item();
+        if (existing != null && !existing.isEmpty() && !expired(existing)) {
+            Map<String, Object> answer = answer(existing, requestHash);
+            if (answer != null) {
+                return answer;
+            }
+        }
+
+        // 2. Claim the key; a lock left behind by a request that timed out can be taken over
+        long now = System.currentTimeMillis();
+        long lockMillis = context != null ? context.getRemainingTimeInMillis() : DEFAULT_LOCK_MILLIS;
+        AttributeValue lockedUntil = number(now + lockMillis);
+        Map<String, AttributeValue> claim = new HashMap<>(itemKey);
+        claim.put("requestHash", AttributeValue.builder().b(requestHash).build());
+        claim.put("lockedUntil", lockedUntil);
+        claim.put("expiresAt", number(Instant.ofEpochMilli(now).getEpochSecond() + RETENTION_SECONDS));
+        try {
+            dynamoDb.putItem(PutItemRequest.builder()
+                .tableName(tableName())
+                .item(claim)
+                .conditionExpression("attribute_not_exists(IdempotencyKey) OR expiresAt < :nowSeconds "
+                    + "OR (attribute_not_exists(statusCode) AND lockedUntil < :now)")
+                .expressionAttributeValues(Map.of(
+                    ":now", number(now),
+                    ":nowSeconds", number(Instant.ofEpochMilli(now).getEpochSecond())))
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Another attempt claimed or completed it between our read and the put
+            Map<String, AttributeValue> current = dynamoDb.getItem(GetItemRequest.builder()
+                .tableName(tableName())
+                .key(itemKey)
+                .consistentRead(true)
+                .build()).item();
+            Map<String, Object> answer = current != null && !current.isEmpty() ? answer(current, requestHash) : null;
+            return answer != null ? answer : inProgress();
+        }
+
+        // 3. Execute and store the response; server errors release the key instead
+        Map<String, Object> response;
+        try {
+            response = execute.get();
+        } catch (RuntimeException e) {
+            release(dynamoDb, itemKey, lockedUntil, context);
+            throw e;
+        }
+        int statusCode = response != null && response.get("statusCode") instanceof Number
+            ? ((Number) response.get("statusCode")).intValue() : 500;
+        if (statusCode >= 500) {
+            release(dynamoDb, itemKey, lockedUntil, context);
+        } else {
+            store(dynamoDb, itemKey, lockedUntil, statusCode, (String) response.get("body"), context);
+        }
+        return response;
+    }
+
+    // The stored response, a conflict, or null when the item can be claimed again
+    private static Map<String, Object> answer(Map<String, AttributeValue> item, SdkBytes requestHash) {
+        if (!requestHash.equals(item.get("requestHash").b())) {
+            return ResponseUtils.errorResponse(422, HEADER + " was already used for a different request");
+        }
+        if (item.containsKey("statusCode")) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("statusCode", Integer.parseInt(item.get("statusCode").n()));
+            response.put("headers", REPLAY_HEADERS);
+            response.put("body", item.containsKey("bodyGzip")
+                ? gunzip(item.get("bodyGzip").b().asByteArray())
+                : item.containsKey("body") ? item.get("body").s() : "");
+            return response;
+        }
+        if (Long.parseLong(item.get("lockedUntil").n()) >= System.currentTimeMillis()) {
+            return inProgress();
+        }
+        return null;
+    }
+
+    private static Map<String, Object> inProgress() {
+        return ResponseUtils.errorResponse(409, "A request with this " + HEADER + " is still in progress");
+    }
+
+    // Conditioned on our own lock, so a request that outlived its lock never overwrites the one that took over
+    private static void store(DynamoDbClient dynamoDb, Map<String, AttributeValue> itemKey, AttributeValue lockedUntil,
+                              int statusCode, String body, Context context) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":statusCode", number(statusCode));
+        values.put(":lockedUntil", lockedUntil);
+        String bodyAttribute;
+        byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > GZIP_THRESHOLD_BYTES) {
+            bodyAttribute = "bodyGzip";
+            values.put(":body", AttributeValue.builder().b(SdkBytes.fromByteArray(gzip(bytes))).build());
+        } else {
+            bodyAttribute = "body";
+            values.put(":body", AttributeValue.builder().s(body != null ? body : "").build());
+        }
+        try {
+            dynamoDb.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName())
+                .key(itemKey)
+                .updateExpression("SET statusCode = :statusCode, " + bodyAttribute + " = :body REMOVE lockedUntil")
+                .conditionExpression("lockedUntil = :lockedUntil")
+                .expressionAttributeValues(values)
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Lost the lock; the attempt that took over stores its own response
+        } catch (SdkException e) {
+            // The write already happened; a retry will re-execute once the lock expires
+            log(context, "Could not store idempotent response: " + e.getMessage());
+        }
+    }
+
+    private static void release(DynamoDbClient dynamoDb, Map<String, AttributeValue> itemKey, AttributeValue lockedUntil,
+                                Context context) {
+        try {
+            dynamoDb.deleteItem(DeleteItemRequest.builder()
+                .tableName(tableName())
+                .key(itemKey)
+                .conditionExpression("lockedUntil = :lockedUntil")
+                .expressionAttributeValues(Map.of(":lockedUntil", lockedUntil))
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Already taken over by another attempt
+        } catch (SdkException e) {
+            log(context, "Could not release " + HEADER + ": " + e.getMessage());
+        }
+    }
+
+    // Through the Lambda logger, so the line carries the request id like the handlers' own logs
+    private static void log(Context context, String message) {
+        if (context != null) {
+            context.getLogger().log(message);
+        }
+    }
+
+    // TTL deletion runs in the background, so items past expiresAt may still be read
+    private static boolean expired(Map<String, AttributeValue> item) {
+        return item.containsKey("expiresAt")
+            && Long.parseLong(item.get("expiresAt").n()) < Instant.now().getEpochSecond();
+    }
+
+    private static SdkBytes hash(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest((body != null ? body : "").getBytes(StandardCharsets.UTF_8));
+            return SdkBytes.fromByteArray(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String gunzip(byte[] bytes) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Per-user inbox summary in the Inbox table (partition key userId), one item per user:
+//   unreadTotal             - unread messages across all conversations (the badge)
+//   conversations.<convId>  - {withUserId, unread, lastMessageId, lastSortKey, lastSenderId, lastPreview, lastTimestamp}
+// so the inbox is a single GetItem. Counters only move through ADD, in the same transaction as the message
+// write that causes the change, so concurrent senders never lose an increment and a failed message write
+// never moves a counter. Messages counted as unread carry "inboxCounted" until they are read or deleted;
+// whichever of the two removes it (conditionally) is the one that decrements.
+// The whole summary is one item, so it is bound by DynamoDB's 400 KB item limit: an entry takes roughly
+// 300-400 bytes with a full preview, so a user runs into it at about 1,000 conversations, and every send
+// to a user rewrites (and bills WCUs for) their whole item.
+public class InboxSummary {
+    public static final String COUNTED = "inboxCounted";
+    public static final int PREVIEW_LENGTH = 100;
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BASE_BACKOFF_MILLIS = 20;
+    private static final long MAX_BACKOFF_MILLIS = 500;
+
+    public record Sent(String conversationId, String messageId, String sortKey, String senderId,
+                       String recipientId, String content, String timestamp) {}
+
+    public static String tableName() {
+        return System.getenv("INBOX_TABLE");
+    }
+
+    // Commits the message write together with the recipient's unread increment and both participants'
+    // last-message fields. A participant whose summary already shows a newer message keeps it.
+    public static void send(DynamoDbClient dynamoDb, TransactWriteItem messageWrite, Sent sent) {
+        List<Participant> participants = new ArrayList<>();
+        participants.add(new Participant(sent.recipientId(), sent.senderId(), 1));
+        if (!sent.senderId().equals(sent.recipientId())) {
+            participants.add(new Participant(sent.senderId(), sent.recipientId(), 0));
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            List<TransactWriteItem> items = new ArrayList<>();
+            items.add(messageWrite);
+            List<Participant> written = new ArrayList<>();
+            for (Participant participant : participants) {
+                if (participant.unreadDelta != 0 || participant.updatesLast) {
+                    items.add(participant.toTransactWrite(sent));
+                    written.add(participant);
+                }
+            }
+            try {
+                dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+                return;
+            } catch (TransactionCanceledException e) {
+                if (attempt == MAX_ATTEMPTS || failed(e, 0)) {
+                    throw e;
+                }
+                // Senders to the same user contend for one summary item; back off before retrying a
+                // conflict so they do not collide again in lockstep
+                if (conflicted(e)) {
+                    sleep(ThreadLocalRandom.current().nextLong(
+                        Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt) + 1));
+                }
+                // A summary condition failed: either the conversation has no entry yet, or the entry already
+                // shows a newer message. Create the entry if needed and look at what it shows now.
+                for (int i = 0; i < written.size(); i++) {
+                    if (Transactions.conditionFailedAt(e, i + 1)) {
+                        Participant participant = written.get(i);
+                        ensureConversation(dynamoDb, participant.userId, sent.conversationId(), participant.withUserId);
+                        participant.updatesLast =
+                            lastSortKey(dynamoDb, participant.userId, sent.conversationId()).compareTo(sent.sortKey()) < 0;
+                    }
+                }
+            }
+        }
+    }
+
+    // Commits a message update that removes COUNTED (and is conditioned on it being present) together with
+    // the matching decrement for the recipient. Returns false, without writing anything, when the message
+    // was not counted or another read/delete got to it first.
+    public static boolean release(DynamoDbClient dynamoDb, Update messageUpdate, String recipientId, String conversationId) {
+        TransactWriteItem decrement = TransactWriteItem.builder()
+            .update(Update.builder()
+                .tableName(tableName())
+                .key(key(recipientId))
+                .updateExpression("ADD unreadTotal :minusOne, conversations.#c.unread :minusOne")
+                .conditionExpression("attribute_exists(conversations.#c)")
+                .expressionAttributeNames(Map.of("#c", conversationId))
+                .expressionAttributeValues(Map.of(":minusOne", AttributeValue.builder().n("-1").build()))
+                .build())
+            .build();
+        try {
+            dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder()
+                .transactItems(TransactWriteItem.builder().update(messageUpdate).build(), decrement)
+                .build());
+            return true;
+        } catch (TransactionCanceledException e) {
+            if (Transactions.conditionFailedAt(e, 0)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    // Keeps the preview in step with an edited (or, with "", deleted) message, if it is still the last one
+    public static void updatePreview(DynamoDbClient dynamoDb, String userId, String conversationId,
+                                     String messageId, String content) {
+        try {
+            dynamoDb.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName())
+                .key(key(userId))
+                .updateExpression("SET conversations.#c.lastPreview = :preview")
+                .conditionExpression("conversations.#c.lastMessageId = :messageId")
+                .expressionAttributeNames(Map.of("#c", conversationId))
+                .expressionAttributeValues(Map.of(
+                    ":preview", AttributeValue.builder().s(preview(content)).build(),
+                    ":messageId", AttributeValue.builder().s(messageId).build()
+                ))
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            // A newer message is shown, or the conversation predates the summary
+        }
+    }
+
+    public static Map<String, AttributeValue> get(DynamoDbClient dynamoDb, String userId) {
+        GetItemResponse response = dynamoDb.getItem(GetItemRequest.builder()
+            .tableName(tableName())
+            .key(key(userId))
+            .build());
+        return response.hasItem() ? response.item() : null;
+    }
+
+    public static String preview(String content) {
+        if (content == null) {
+            return "";
+        }
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
+    }
+
+    // Creates the user's item and an empty entry for the conversation unless they exist. Map entries can't
+    // be created by the ADD/SET on their nested fields, and SET on the map and on an entry can't share an
+    // expression, hence two idempotent writes; they only happen for a conversation's first message.
+    private static void ensureConversation(DynamoDbClient dynamoDb, String userId, String conversationId,
+                                           String withUserId) {
+        dynamoDb.updateItem(UpdateItemRequest.builder()
+            .tableName(tableName())
+            .key(key(userId))
+            .updateExpression("SET conversations = if_not_exists(conversations, :empty), "
+                + "unreadTotal = if_not_exists(unreadTotal, :zero)")
+            .expressionAttributeValues(Map.of(
+                ":empty", AttributeValue.builder().m(Map.of()).build(),
+                ":zero", AttributeValue.builder().n("0").build()
+            ))
+            .build());
+
+        try {
+            dynamoDb.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName())
+                .key(key(userId))
+                .updateExpression("SET conversations.#c = :entry")
+                .conditionExpression("attribute_not_exists(conversations.#c)")
+                .expressionAttributeNames(Map.of("#c", conversationId))
+                .expressionAttributeValues(Map.of(":entry", AttributeValue.builder().m(Map.of(
+                    "withUserId", AttributeValue.builder().s(withUserId).build(),
+                    "unread", AttributeValue.builder().n("0").build(),
+                    "lastSortKey", AttributeValue.builder().s("").build()
+                )).build()))
+                .build());
+        } catch (ConditionalCheckFailedException e) {
+            // Created concurrently by another message in the conversation
+        }
+    }
+
+    private static String lastSortKey(DynamoDbClient dynamoDb, String userId, String conversationId) {
+        GetItemResponse response = dynamoDb.getItem(GetItemRequest.builder()
+            .tableName(tableName())
+            .key(key(userId))
+            .projectionExpression("conversations.#c.lastSortKey")
+            .expressionAttributeNames(Map.of("#c", conversationId))
+            .consistentRead(true)
+            .build());
+        AttributeValue entry = response.hasItem() && response.item().containsKey("conversations")
+            ? response.item().get("conversations").m().get(conversationId) : null;
+        return entry != null && entry.m().containsKey("lastSortKey") ? entry.m().get("lastSortKey").s() : "";
+    }
+
+    private static boolean failed(TransactionCanceledException e, int index) {
+        List<CancellationReason> reasons = e.cancellationReasons();
+        if (reasons == null || reasons.size() <= index) {
+            return true;
+        }
+        String code = reasons.get(index).code();
+        return code != null && !"None".equals(code);
+    }
+
+    private static boolean conflicted(TransactionCanceledException e) {
+        List<CancellationReason> reasons = e.cancellationReasons();
+        return reasons != null && reasons.stream().anyMatch(r -> "TransactionConflict".equals(r.code()));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying message send", e);
+        }
+    }
+
+    private static Map<String, AttributeValue> key(String userId) {
+        return Map.of("userId", AttributeValue.builder().s(userId).build());
+    }
+
+    private static final class Participant {
+        private final String userId;
+        private final String withUserId;
+        private final int unreadDelta;
+        private boolean updatesLast = true;
+
+        private Participant(String userId, String withUserId, int unreadDelta) {
+            this.userId = userId;
+            this.withUserId = withUserId;
+            this.unreadDelta = unreadDelta;
+        }
+
+        // Conditioned on the entry existing and, when the last-message fields are set, on it showing an
+        // older message, so out-of-order commits can't replace the preview with an earlier message
+        private TransactWriteItem toTransactWrite(Sent sent) {
+            List<String> clauses = new ArrayList<>();
+            Map<String, AttributeValue> values = new HashMap<>();
+            String condition = "attribute_exists(conversations.#c)";
+
+            if (unreadDelta != 0) {
+                clauses.add("ADD unreadTotal :delta, conversations.#c.unread :delta");
+                values.put(":delta", AttributeValue.builder().n(Integer.toString(unreadDelta)).build());
+            }
+            if (updatesLast) {
+                clauses.add("SET conversations.#c.lastMessageId = :messageId, conversations.#c.lastSortKey = :sortKey, "
+                    + "conversations.#c.lastSenderId = :senderId, conversations.#c.lastPreview = :preview, "
+                    + "conversations.#c.lastTimestamp = :timestamp");
+                values.put(":messageId", AttributeValue.builder().s(sent.messageId()).build());
+                values.put(":sortKey", AttributeValue.builder().s(sent.sortKey()).build());
+                values.put(":senderId", AttributeValue.builder().s(sent.senderId()).build());
+                values.put(":preview", AttributeValue.builder().s(preview(sent.content())).build());
+                values.put(":timestamp", AttributeValue.builder().s(sent.timestamp()).build());
+                condition += " AND conversations.#c.lastSortKey < :sortKey";
+            }
+
+            return TransactWriteItem.builder()
+                .update(Update.builder()
+                    .tableName(tableName())
+                    .key(key(userId))
+                    .updateExpression(String.join(" ", clauses))
+                    .conditionExpression(condition)
+                    .expressionAttributeNames(Map.of("#c", sent.conversationId()))
+                    .expressionAttributeValues(values)
+                    .build())
+                .build();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Writes DynamoDB items straight to a JsonGenerator from a per-entity field spec, so list responses
+// skip the per-item HashMap, the collected List of maps and the second pass through ObjectMapper.
+// Specs are built once (see the ITEM_JSON constants on the model records) and are thread-safe.
+public class ItemJsonWriter {
+    private final List<FieldWriter> fields;
+
+    private ItemJsonWriter(List<FieldWriter> fields) {
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public void writeItem(JsonGenerator generator, Map<String, AttributeValue> item) throws IOException {
+        generator.writeStartObject();
+        for (FieldWriter field : fields) {
+            field.write(generator, item);
+        }
+        generator.writeEndObject();
+    }
+
+    public void writeArray(JsonGenerator generator, Iterable<Map<String, AttributeValue>> items) throws IOException {
+        generator.writeStartArray();
+        for (Map<String, AttributeValue> item : items) {
+            writeItem(generator, item);
+        }
+        generator.writeEndArray();
+    }
+
+    // {"items": [...], "nextToken": "..."}; the token is omitted on the last page
+    public String writePage(Iterable<Map<String, AttributeValue>> items, String nextToken) {
+        return writeSections(List.of(new Section("items", this, items)),
+            nextToken != null ? Map.of("nextToken", nextToken) : Map.of());
+    }
+
+    // One JSON object with an array per section followed by plain fields serialized by ResponseUtils.MAPPER
+    public static String writeSections(List<Section> sections, Map<String, ?> extras) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = ResponseUtils.MAPPER.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            for (Section section : sections) {
+                generator.writeFieldName(section.name());
+                section.writer().writeArray(generator, section.items());
+            }
+            for (Map.Entry<String, ?> extra : extras.entrySet()) {
+                generator.writeObjectField(extra.getKey(), extra.getValue());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    public record Section(String name, ItemJsonWriter writer, Iterable<Map<String, AttributeValue>> items) {}
+
+    private interface FieldWriter {
+        void write(JsonGenerator generator, Map<String, AttributeValue> item) throws IOException;
+    }
+
+    public static class Builder {
+        private final List<FieldWriter> fields = new ArrayList<>();
+
+        // String attribute; written as "" when missing
+        public Builder string(String jsonName, String attribute) {
+            fields.add((generator, item) -> {
+                AttributeValue value = item.get(attribute);
+                generator.writeStringField(jsonName, value != null && value.s() != null ? value.s() : "");
+            });
+            return this;
+        }
+
+        // String attribute; omitted when missing
+        public Builder optionalString(String jsonName, String attribute) {
+            fields.add((generator, item) -> {
+                AttributeValue value = item.get(attribute);
+                if (value != null && value.s() != null) {
+                    generator.writeStringField(jsonName, value.s());
+                }
+            });
+            return this;
+        }
+
+        // Number attribute written as a JSON number (DynamoDB's decimal text as-is); omitted when missing
+        public Builder number(String jsonName, String attribute) {
+            fields.add((generator, item) -> {
+                AttributeValue value = item.get(attribute);
+                if (value != null && value.n() != null) {
+                    generator.writeFieldName(jsonName);
+                    generator.writeNumber(value.n());
+                }
+            });
+            return this;
+        }
+
+        // Number attribute written as a JSON string; falls back to the given text, or is omitted if that is null
+        public Builder numberText(String jsonName, String attribute, String fallback) {
+            fields.add((generator, item) -> {
+                AttributeValue value = item.get(attribute);
+                String text = value != null && value.n() != null ? value.n() : fallback;
+                if (text != null) {
+                    generator.writeStringField(jsonName, text);
+                }
+            });
+            return this;
+        }
+
+        // String Set, or a comma-separated String for older items; [] when missing
+        public Builder stringList(String jsonName, String attribute) {
+            fields.add((generator, item) -> {
+                AttributeValue value = item.get(attribute);
+                generator.writeArrayFieldStart(jsonName);
+                if (value != null && value.hasSs()) {
+                    for (String element : value.ss()) {
+                        generator.writeString(element);
+                    }
+                } else if (value != null && value.s() != null && !value.s().isEmpty()) {
+                    for (String element : value.s().split(",")) {
+                        generator.writeString(element);
+                    }
+                }
+                generator.writeEndArray();
+            });
+            return this;
+        }
+
+        public ItemJsonWriter build() {
+            return new ItemJsonWriter(fields);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Shared conventions for the JournalEntries table.
+// Live entries carry a "Date" attribute (date#time), the sort key of DateIndex (ClientId, Date), so a
+// client's journal is listed in date order and a from/to range only reads the entries inside it.
+// Tombstones of deleted entries drop the attribute and leave the index. DATE is a DynamoDB reserved
+// word, so expressions must refer to it through an attribute name placeholder.
+public class JournalEntries {
+    public static final String DATE_INDEX = "DateIndex";
+    public static final String DATE_KEY = "Date";
+
+    // Sorts after any time suffix, so "<date>" + UPPER_BOUND is the last key on that date
+    private static final String UPPER_BOUND = "#~";
+
+    // Set (JOURNAL_DATE_INDEX_BACKFILLED) once BackfillJournalDateIndexLambda has completed; until then
+    // entries written earlier have no Date and are missing from DateIndex, so listings read the table
+    public static boolean dateIndexBackfilled() {
+        return "true".equals(System.getenv("JOURNAL_DATE_INDEX_BACKFILLED"));
+    }
+
+    public static AttributeValue dateKey(String date, String time) {
+        return AttributeValue.builder().s(date + "#" + time).build();
+    }
+
+    public static AttributeValue dateKey(AttributeValue date, AttributeValue time) {
+        return dateKey(date.s(), time.s());
+    }
+
+    // Inclusive bounds for a date range query on Date
+    public static AttributeValue rangeStart(String fromDate) {
+        return AttributeValue.builder().s(fromDate).build();
+    }
+
+    public static AttributeValue rangeEnd(String toDate) {
+        return AttributeValue.builder().s(toDate + UPPER_BOUND).build();
+    }
+}
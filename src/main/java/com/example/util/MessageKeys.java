@@ -0,0 +1,76 @@
+package com.example.util;
+
+import com.example.model.ApiGatewayEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.Instant;
+import java.util.Map;
+
+// Key layout of the conversation-partitioned Messages table. Both directions of a thread share one
+// partition (conversationId = the two participant ids in sorted order), and the sort key is a
+// fixed-width UTC timestamp plus the message id, so a thread is a single ordered Query.
+// Lookups by messageId alone go through the KEYS_ONLY MessageIdIndex, which is eventually consistent, so
+// create returns the conversationId and sortKey and get/update/delete accept them to address the item directly.
+public class MessageKeys {
+    public static final String MESSAGE_ID_INDEX = "MessageIdIndex";
+    public static final String SENDER_INDEX = "SenderIndex";
+    public static final String RECIPIENT_INDEX = "RecipientIndex";
+
+    public static String tableName() {
+        return System.getenv("MESSAGES_TABLE");
+    }
+
+    // Table keyed by messageId alone, read until MigrateMessagesHandler has copied it over
+    public static String legacyTableName() {
+        String name = System.getenv("LEGACY_MESSAGES_TABLE");
+        return name == null || name.isEmpty() ? null : name;
+    }
+
+    public static String conversationId(String userA, String userB) {
+        return userA.compareTo(userB) <= 0 ? userA + "#" + userB : userB + "#" + userA;
+    }
+
+    public static String sortKey(Instant sentAt, String messageId) {
+        return ChangeTracking.sortableTime(sentAt) + "#" + messageId;
+    }
+
+    public static Map<String, AttributeValue> key(String conversationId, String sortKey) {
+        return Map.of(
+            "conversationId", AttributeValue.builder().s(conversationId).build(),
+            "sortKey", AttributeValue.builder().s(sortKey).build()
+        );
+    }
+
+    // Primary key of a message in the conversation table: taken from ?conversationId=&sortKey= when the
+    // client passes them, otherwise looked up in MessageIdIndex (null if it isn't there, or not yet)
+    public static Map<String, AttributeValue> resolve(DynamoDbClient dynamoDb, String messageId, ApiGatewayEvent event) {
+        String conversationId = event.queryParameter("conversationId");
+        String sortKey = event.queryParameter("sortKey");
+        if (conversationId == null && sortKey == null) {
+            return find(dynamoDb, messageId);
+        }
+        if (conversationId == null || sortKey == null || !sortKey.endsWith("#" + messageId)) {
+            throw new IllegalArgumentException("conversationId and sortKey must both be given and belong to message " + messageId);
+        }
+        return key(conversationId, sortKey);
+    }
+
+    // Primary key of a message in the conversation table, or null if it isn't there
+    public static Map<String, AttributeValue> find(DynamoDbClient dynamoDb, String messageId) {
+        QueryResponse response = dynamoDb.query(QueryRequest.builder()
+            .tableName(tableName())
+            .indexName(MESSAGE_ID_INDEX)
+            .keyConditionExpression("messageId = :messageId")
+            .expressionAttributeValues(Map.of(":messageId", AttributeValue.builder().s(messageId).build()))
+            .limit(1)
+            .build());
+        if (response.items().isEmpty()) {
+            return null;
+        }
+        Map<String, AttributeValue> item = response.items().get(0);
+        return Map.of("conversationId", item.get("conversationId"), "sortKey", item.get("sortKey"));
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.util;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+
+// Per-invocation metrics written as CloudWatch Embedded Metric Format log lines: one line per invocation
+// (Route dimension) and one per DynamoDB operation it used (Operation dimension). CloudWatch extracts the
+// metrics from the function's log stream, so the hot path makes no metric API calls, and it keeps every
+// latency value, so p50/p95/p99 come from the full distribution.
+// Lambda runs one invocation at a time per execution environment, so the current invocation is a static
+// field and DynamoDB calls made on ParallelExecution's threads are charged to it as well. Off outside
+// Lambda (AWS_LAMBDA_FUNCTION_NAME unset), e.g. in the load-test harness.
+public class Metrics {
+    private static final String NAMESPACE = System.getenv("METRICS_NAMESPACE") != null
+        ? System.getenv("METRICS_NAMESPACE") : "TherapyService";
+    private static final boolean ENABLED = System.getenv("AWS_LAMBDA_FUNCTION_NAME") != null;
+    // EMF accepts at most 100 values per metric in one line
+    private static final int MAX_VALUES = 100;
+
+    private static final AtomicBoolean coldStart = new AtomicBoolean(true);
+    // Init-time measurements, reported by the next invocation's line and then cleared
+    private static final AtomicReference<Double> clientInitMillis = new AtomicReference<>();
+    private static final AtomicInteger warmUpFailures = new AtomicInteger();
+    private static volatile Invocation current;
+
+    // The first invocation after a SnapStart restore pays restore costs, so it counts as a cold start too
+    public static void markColdStart() {
+        coldStart.set(true);
+    }
+
+    // Time DynamoDbClientFactory took to build and warm up the client
+    static void recordClientInit(double millis) {
+        clientInitMillis.set(millis);
+    }
+
+    static void recordWarmUpFailure() {
+        warmUpFailures.incrementAndGet();
+    }
+
+    public static Invocation start(String route, Context context) {
+        Invocation invocation = new Invocation(route, context, coldStart.getAndSet(false));
+        if (ENABLED) {
+            current = invocation;
+        }
+        return invocation;
+    }
+
+    // The invocation in progress, or null outside Lambda
+    static Invocation current() {
+        return current;
+    }
+
+    static void recordDynamoDbCall(Invocation invocation, String operation, double latencyMillis, int retries,
+                                   double readUnits, double writeUnits, boolean failed) {
+        if (invocation != null) {
+            invocation.readUnits.add(readUnits);
+            invocation.operations.computeIfAbsent(operation, o -> new OperationStats())
+                .record(latencyMillis, retries, readUnits, writeUnits, failed);
+        }
+    }
+
+    public static final class Invocation {
+        private final String route;
+        private final Context context;
+        private final boolean coldStart;
+        private final long startNanos = System.nanoTime();
+        private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+        private final DoubleAdder readUnits = new DoubleAdder();
+        private volatile boolean readBudget;
+
+        private Invocation(String route, Context context, boolean coldStart) {
+            this.route = route;
+            this.context = context;
+            this.coldStart = coldStart;
+        }
+
+        String route() {
+            return route;
+        }
+
+        // Opts this invocation into CapacityBudget
+        public void limitReads() {
+            readBudget = true;
+        }
+
+        boolean readBudget() {
+            return readBudget;
+        }
+
+        String requestId() {
+            return context != null ? context.getAwsRequestId() : null;
+        }
+
+        // Read capacity consumed so far by the invocation's DynamoDB calls, on any thread
+        double readUnits() {
+            return readUnits.sum();
+        }
+
+        // response is null when the handler threw
+        public void finish(Map<String, Object> response) {
+            if (!ENABLED) {
+                return;
+            }
+            current = null;
+            double latencyMillis = (System.nanoTime() - startNanos) / 1e6;
+            int statusCode = response != null && response.get("statusCode") instanceof Number
+                ? ((Number) response.get("statusCode")).intValue() : 500;
+
+            int calls = 0;
+            int retries = 0;
+            double readUnits = 0;
+            double writeUnits = 0;
+            for (OperationStats stats : operations.values()) {
+                synchronized (stats) {
+                    calls += stats.calls;
+                    retries += stats.retries;
+                    readUnits += stats.readUnits;
+                    writeUnits += stats.writeUnits;
+                }
+            }
+
+            List<Map<String, String>> metrics = new ArrayList<>(List.of(
+                metric("Latency", "Milliseconds"), metric("ColdStart", "Count"), metric("ServerErrors", "Count"),
+                metric("ClientErrors", "Count"), metric("DynamoDbCalls", "Count"), metric("DynamoDbRetries", "Count"),
+                metric("ConsumedRCU", "Count"), metric("ConsumedWCU", "Count")));
+            Double initMillis = clientInitMillis.getAndSet(null);
+            int failedWarmUps = warmUpFailures.getAndSet(0);
+            if (initMillis != null) {
+                metrics.add(metric("DynamoDbClientInit", "Milliseconds"));
+            }
+            if (failedWarmUps > 0) {
+                metrics.add(metric("DynamoDbWarmUpFailures", "Count"));
+            }
+            Map<String, Object> line = document("Route", metrics);
+            line.put("Route", route);
+            line.put("Latency", latencyMillis);
+            line.put("ColdStart", coldStart ? 1 : 0);
+            line.put("ServerErrors", statusCode >= 500 ? 1 : 0);
+            line.put("ClientErrors", statusCode >= 400 && statusCode < 500 ? 1 : 0);
+            line.put("DynamoDbCalls", calls);
+            line.put("DynamoDbRetries", retries);
+            line.put("ConsumedRCU", readUnits);
+            line.put("ConsumedWCU", writeUnits);
+            if (initMillis != null) {
+                line.put("DynamoDbClientInit", initMillis);
+            }
+            if (failedWarmUps > 0) {
+                line.put("DynamoDbWarmUpFailures", failedWarmUps);
+            }
+            line.put("StatusCode", statusCode);
+            line.put("RequestId", requestId());
+            emit(line);
+
+            operations.forEach((operation, stats) -> {
+                Map<String, Object> operationLine = document("Operation", List.of(
+                    metric("DynamoDbLatency", "Milliseconds"), metric("DynamoDbRetries", "Count"),
+                    metric("DynamoDbErrors", "Count"), metric("ConsumedRCU", "Count"), metric("ConsumedWCU", "Count")));
+                operationLine.put("Operation", operation);
+                operationLine.put("Route", route);
+                synchronized (stats) {
+                    operationLine.put("DynamoDbLatency", new ArrayList<>(stats.latencies));
+                    operationLine.put("DynamoDbRetries", stats.retries);
+                    operationLine.put("DynamoDbErrors", stats.errors);
+                    operationLine.put("ConsumedRCU", stats.readUnits);
+                    operationLine.put("ConsumedWCU", stats.writeUnits);
+                }
+                emit(operationLine);
+            });
+        }
+    }
+
+    private static final class OperationStats {
+        private final List<Double> latencies = new ArrayList<>();
+        private int calls;
+        private int retries;
+        private int errors;
+        private double readUnits;
+        private double writeUnits;
+
+        synchronized void record(double latencyMillis, int retries, double readUnits, double writeUnits, boolean failed) {
+            if (latencies.size() < MAX_VALUES) {
+                latencies.add(latencyMillis);
+            }
+            this.calls++;
+            this.retries += retries;
+            this.errors += failed ? 1 : 0;
+            this.readUnits += readUnits;
+            this.writeUnits += writeUnits;
+        }
+    }
+
+    private static Map<String, Object> document(String dimension, List<Map<String, String>> metrics) {
+        Map<String, Object> directive = new LinkedHashMap<>();
+        directive.put("Namespace", NAMESPACE);
+        directive.put("Dimensions", List.of(List.of(dimension)));
+        directive.put("Metrics", metrics);
+
+        Map<String, Object> aws = new LinkedHashMap<>();
+        aws.put("Timestamp", System.currentTimeMillis());
+        aws.put("CloudWatchMetrics", List.of(directive));
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("_aws", aws);
+        return line;
+    }
+
+    private static Map<String, String> metric(String name, String unit) {
+        return Map.of("Name", name, "Unit", unit);
+    }
+
+    // The one writer of structured log lines: metric documents and DynamoDbMetrics' SlowQuery records
+    static void emit(Map<String, Object> line) {
+        try {
+            System.out.println(ResponseUtils.MAPPER.writeValueAsString(line));
+        } catch (JsonProcessingException e) {
+            System.err.println("Could not write metrics: " + e.getMessage());
+        }
+    }
+}
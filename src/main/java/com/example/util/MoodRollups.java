@@ -0,0 +1,163 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Pre-aggregated mood trends in the MoodRollups table (ClientId, bucket), with one item per client and
+// period: bucket = "D#2024-03-05", "W#2024-W10" or "M#2024-03". Buckets only hold additive attributes
+//   entries, intensityCount, intensitySum, "intensity:<n>" (entries per intensity value), "feeling:<name>"
+// so creating, editing or deleting an entry is a set of ADD deltas, and min/max are read off the intensity
+// histogram instead of rescanning a bucket's entries after a delete.
+// Entries counted in the rollups carry "rolledUp". Deltas are committed in the same transaction as the
+// entry write, conditioned on the entry being unchanged since it was read, so every entry is counted once.
+public class MoodRollups {
+    public static final String ROLLED_UP = "rolledUp";
+    public static final String INTENSITY_PREFIX = "intensity:";
+    public static final String FEELING_PREFIX = "feeling:";
+    public static final int MAX_ATTEMPTS = 3;
+
+    public static String tableName() {
+        return System.getenv("MOOD_ROLLUPS_TABLE");
+    }
+
+    public static String dayBucket(LocalDate date) {
+        return "D#" + date;
+    }
+
+    public static String weekBucket(LocalDate date) {
+        return String.format("W#%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    public static String monthBucket(LocalDate date) {
+        return "M#" + YearMonth.from(date);
+    }
+
+    // Condition that the entry still looks the way it did when read: every journal write sets changedAt
+    public static String unchangedCondition(Map<String, AttributeValue> item) {
+        return item.containsKey(ChangeTracking.CHANGED_AT)
+            ? "changedAt = :readChangedAt" : "attribute_not_exists(changedAt)";
+    }
+
+    public static void addUnchangedValue(Map<String, AttributeValue> values, Map<String, AttributeValue> item) {
+        if (item.containsKey(ChangeTracking.CHANGED_AT)) {
+            values.put(":readChangedAt", item.get(ChangeTracking.CHANGED_AT));
+        }
+    }
+
+    // Accumulates the per-bucket changes of one entry write; old and new versions landing in the same
+    // bucket merge into a single update, since a transaction can't touch an item twice
+    public static final class Delta {
+        private final String clientId;
+        private final Map<String, Map<String, Long>> buckets = new LinkedHashMap<>();
+
+        public Delta(String clientId) {
+            this.clientId = clientId;
+        }
+
+        // Takes the previous version of an entry out of its buckets, if it was counted
+        public void remove(Map<String, AttributeValue> item) {
+            if (item.containsKey(ROLLED_UP)) {
+                apply(item, -1);
+            }
+        }
+
+        // Counts the new version of an entry and marks it ROLLED_UP; entries whose date isn't yyyy-MM-dd
+        // can't be placed in a bucket and are left out
+        public boolean add(Map<String, AttributeValue> item) {
+            if (apply(item, 1)) {
+                item.put(ROLLED_UP, AttributeValue.builder().bool(true).build());
+                return true;
+            }
+            item.remove(ROLLED_UP);
+            return false;
+        }
+
+        public List<TransactWriteItem> writes() {
+            List<TransactWriteItem> writes = new ArrayList<>();
+            buckets.forEach((bucket, counters) -> {
+                List<String> clauses = new ArrayList<>();
+                Map<String, String> names = new HashMap<>();
+                Map<String, AttributeValue> values = new HashMap<>();
+                counters.forEach((attribute, amount) -> {
+                    if (amount != 0) {
+                        String index = Integer.toString(names.size());
+                        clauses.add("#a" + index + " :v" + index);
+                        names.put("#a" + index, attribute);
+                        values.put(":v" + index, AttributeValue.builder().n(Long.toString(amount)).build());
+                    }
+                });
+                if (clauses.isEmpty()) {
+                    return;
+                }
+                writes.add(TransactWriteItem.builder()
+                    .update(Update.builder()
+                        .tableName(tableName())
+                        .key(Map.of(
+                            "ClientId", AttributeValue.builder().s(clientId).build(),
+                            "bucket", AttributeValue.builder().s(bucket).build()
+                        ))
+                        .updateExpression("ADD " + String.join(", ", clauses))
+                        .expressionAttributeNames(names)
+                        .expressionAttributeValues(values)
+                        .build())
+                    .build());
+            });
+            return writes;
+        }
+
+        private boolean apply(Map<String, AttributeValue> item, int sign) {
+            LocalDate date;
+            try {
+                date = LocalDate.parse(item.get("date").s());
+            } catch (DateTimeParseException | NullPointerException e) {
+                return false;
+            }
+
+            Map<String, Long> counters = new LinkedHashMap<>();
+            counters.put("entries", (long) sign);
+            Long value = intensity(item.get("intensity"));
+            if (value != null) {
+                counters.put("intensityCount", (long) sign);
+                counters.put("intensitySum", sign * value);
+                counters.put(INTENSITY_PREFIX + value, (long) sign);
+            }
+            AttributeValue feeling = item.get("feeling");
+            if (feeling != null && feeling.s() != null && !feeling.s().isBlank()) {
+                counters.put(FEELING_PREFIX + feeling.s().trim().toLowerCase(Locale.ROOT), (long) sign);
+            }
+
+            for (String bucket : List.of(dayBucket(date), weekBucket(date), monthBucket(date))) {
+                Map<String, Long> bucketCounters = buckets.computeIfAbsent(bucket, b -> new LinkedHashMap<>());
+                counters.forEach((attribute, amount) -> bucketCounters.merge(attribute, amount, Long::sum));
+            }
+            return true;
+        }
+
+        // Entries written before intensity was validated as an integer may hold values like 7.5; they are
+        // rounded half up (the same way when they are added and removed), unreadable values are left out
+        private static Long intensity(AttributeValue intensity) {
+            if (intensity == null || intensity.n() == null) {
+                return null;
+            }
+            try {
+                return new BigDecimal(intensity.n()).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            } catch (ArithmeticException | NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Shared cursor pagination for list and search endpoints.
+// Clients pass "limit" and the opaque "nextToken" from the previous page. A token wraps one
+// DynamoDB LastEvaluatedKey per cursor ("leg") and is HMAC-signed together with a scope
+// (route + partition), so it cannot be forged or replayed against a different listing.
+public class Pagination {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 100;
+
+    private static final String SINGLE_CURSOR = "_";
+    private static final TypeReference<Map<String, Map<String, Map<String, String>>>> PAYLOAD_TYPE =
+        new TypeReference<>() {};
+
+    public record Page<T>(List<T> items, Map<String, AttributeValue> lastEvaluatedKey) {
+        public boolean hasMore() {
+            return lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty();
+        }
+    }
+
+    public static int limit(Map<String, String> queryParams) {
+        String raw = queryParams != null ? queryParams.get("limit") : null;
+        if (raw == null || raw.isEmpty()) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int limit = Integer.parseInt(raw);
+            if (limit < 1) {
+                throw new IllegalArgumentException("limit must be a positive integer");
+            }
+            return Math.min(limit, MAX_LIMIT);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("limit must be a positive integer");
+        }
+    }
+
+    public static String token(Map<String, String> queryParams) {
+        String token = queryParams != null ? queryParams.get("nextToken") : null;
+        return token == null || token.isEmpty() ? null : token;
+    }
+
+    // Converts a cursor to an ExclusiveStartKey; an empty cursor means "start from the beginning"
+    public static Map<String, AttributeValue> startKey(Map<String, AttributeValue> cursor) {
+        return cursor == null || cursor.isEmpty() ? null : cursor;
+    }
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey, String scope) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        return encodeCursors(Map.of(SINGLE_CURSOR, lastEvaluatedKey), scope);
+    }
+
+    public static Map<String, AttributeValue> decode(String token, String scope) {
+        if (token == null) {
+            return null;
+        }
+        Map<String, Map<String, AttributeValue>> cursors = decodeCursors(token, scope);
+        if (!cursors.containsKey(SINGLE_CURSOR)) {
+            throw new IllegalArgumentException("Invalid pagination token");
+        }
+        return cursors.get(SINGLE_CURSOR);
+    }
+
+    public static String encodeCursors(Map<String, Map<String, AttributeValue>> cursors, String scope) {
+        if (cursors == null || cursors.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Map<String, Map<String, String>>> payload = new LinkedHashMap<>();
+        cursors.forEach((leg, key) -> {
+            Map<String, Map<String, String>> encodedKey = new LinkedHashMap<>();
+            key.forEach((name, value) -> encodedKey.put(name, encodeValue(value)));
+            payload.put(leg, encodedKey);
+        });
+
+        try {
+            String body = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(ResponseUtils.MAPPER.writeValueAsBytes(payload));
+            return body + "." + sign(scope, body);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encode pagination token", e);
+        }
+    }
+
+    // Returns an empty map when there is no token
+    public static Map<String, Map<String, AttributeValue>> decodeCursors(String token, String scope) {
+        if (token == null) {
+            return Collections.emptyMap();
+        }
+
+        int separator = token.indexOf('.');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid pagination token");
+        }
+        String body = token.substring(0, separator);
+        byte[] signature = token.substring(separator + 1).getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(signature, sign(scope, body).getBytes(StandardCharsets.UTF_8))) {
+            throw new IllegalArgumentException("Invalid pagination token");
+        }
+
+        Map<String, Map<String, Map<String, String>>> payload;
+        try {
+            payload = ResponseUtils.MAPPER.readValue(Base64.getUrlDecoder().decode(body), PAYLOAD_TYPE);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid pagination token");
+        }
+
+        Map<String, Map<String, AttributeValue>> cursors = new LinkedHashMap<>();
+        payload.forEach((leg, encodedKey) -> {
+            Map<String, AttributeValue> key = new LinkedHashMap<>();
+            encodedKey.forEach((name, value) -> key.put(name, decodeValue(value)));
+            cursors.put(leg, key);
+        });
+        return cursors;
+    }
+
+    // Standard list response body: {"items": [...], "nextToken": "..."} (token omitted on the last page)
+    public static Map<String, Object> envelope(List<?> items, String nextToken) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", items);
+        if (nextToken != null) {
+            body.put("nextToken", nextToken);
+        }
+        return body;
+    }
+
+    private static Map<String, String> encodeValue(AttributeValue value) {
+        if (value.s() != null) {
+            return Map.of("S", value.s());
+        }
+        if (value.n() != null) {
+            return Map.of("N", value.n());
+        }
+        throw new IllegalStateException("Unsupported key attribute type in pagination cursor");
+    }
+
+    private static AttributeValue decodeValue(Map<String, String> value) {
+        if (value.containsKey("S")) {
+            return AttributeValue.builder().s(value.get("S")).build();
+        }
+        if (value.containsKey("N")) {
+            return AttributeValue.builder().n(value.get("N")).build();
+        }
+        throw new IllegalArgumentException("Invalid pagination token");
+    }
+
+    // The signing key is fetched once per container from Secrets Manager (PAGINATION_TOKEN_SECRET_ARN);
+    // a failed fetch is retried by the next request. PAGINATION_TOKEN_SECRET holds the key itself and is
+    // only meant for local runs (loadtest/).
+    private static volatile byte[] signingKey;
+
+    private static byte[] signingKey() {
+        byte[] key = signingKey;
+        if (key != null) {
+            return key;
+        }
+        synchronized (Pagination.class) {
+            if (signingKey == null) {
+                String secret = System.getenv("PAGINATION_TOKEN_SECRET");
+                String secretArn = System.getenv("PAGINATION_TOKEN_SECRET_ARN");
+                if ((secret == null || secret.isEmpty()) && secretArn != null) {
+                    try (SecretsManagerClient secretsManager = SecretsManagerClient.builder()
+                            .httpClientBuilder(UrlConnectionHttpClient.builder())
+                            .build()) {
+                        secret = secretsManager.getSecretValue(GetSecretValueRequest.builder()
+                            .secretId(secretArn)
+                            .build()).secretString();
+                    }
+                }
+                if (secret == null || secret.isEmpty()) {
+                    throw new IllegalStateException("PAGINATION_TOKEN_SECRET_ARN is not configured");
+                }
+                signingKey = secret.getBytes(StandardCharsets.UTF_8);
+            }
+            return signingKey;
+        }
+    }
+
+    // Tests can't set environment variables, so they set the key directly
+    static void setSigningKey(String secret) {
+        signingKey = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sign(String scope, String body) {
+        byte[] key = signingKey();
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            byte[] digest = mac.doFinal((scope + "\n" + body).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not sign pagination token", e);
+        }
+    }
+}
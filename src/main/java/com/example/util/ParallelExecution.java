@@ -0,0 +1,190 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Runs independent DynamoDB calls concurrently on a shared daemon pool. The synchronous
+// client is thread-safe, so this avoids pulling the async (Netty) stack into cold starts.
+public class ParallelExecution {
+    private static final int POOL_SIZE = 16;
+    // Read once per container; a malformed value fails the init instead of every search request
+    private static final long LEG_TIMEOUT_MILLIS = longEnv("SEARCH_LEG_TIMEOUT_MS", 5_000);
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(POOL_SIZE, runnable -> {
+        Thread thread = new Thread(runnable, "parallel-execution");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // mapBounded runs on its own pool: it is called from inside legs, and legs blocked on work queued
+    // behind other legs on the same pool could starve it
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(POOL_SIZE, runnable -> {
+        Thread thread = new Thread(runnable, "parallel-execution-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static long legTimeoutMillis() {
+        return LEG_TIMEOUT_MILLIS;
+    }
+
+    private static long longEnv(String name, long fallback) {
+        String value = System.getenv(name);
+        return value != null ? Long.parseLong(value) : fallback;
+    }
+
+    // Starts every leg at once and waits until all finish or the timeout elapses.
+    // Legs that fail or time out are reported by name instead of failing the whole call.
+    public static <T> LegResults<T> runLegs(Map<String, Supplier<T>> legs, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Map<String, Leg> contexts = new LinkedHashMap<>();
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        legs.forEach((name, leg) -> {
+            Leg context = new Leg(deadline);
+            contexts.put(name, context);
+            futures.put(name, CompletableFuture.supplyAsync(() -> context.call(leg), EXECUTOR));
+        });
+
+        Map<String, T> results = new LinkedHashMap<>();
+        Map<String, String> failures = new LinkedHashMap<>();
+
+        for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.put(entry.getKey(), entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                // cancel() does not interrupt a CompletableFuture's task; the flag stops the leg at its
+                // next DynamoDB call (see checkNotCancelled)
+                contexts.get(entry.getKey()).cancelled = true;
+                entry.getValue().cancel(true);
+                failures.put(entry.getKey(), "Timed out after " + timeoutMillis + " ms");
+            } catch (ExecutionException e) {
+                failures.put(entry.getKey(), String.valueOf(e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.put(entry.getKey(), "Interrupted");
+            }
+        }
+        return new LegResults<>(results, failures);
+    }
+
+    // Fire-and-forget work on the shared pool; callers coordinate completion themselves
+    public static CompletableFuture<Void> runAsync(Runnable task) {
+        Leg leg = CURRENT_LEG.get();
+        return CompletableFuture.runAsync(leg != null ? () -> leg.call(() -> {
+            task.run();
+            return null;
+        }) : task, EXECUTOR);
+    }
+
+    // Throws once the leg running on this thread has timed out or been cancelled. Called before every
+    // DynamoDB call (DynamoDbMetrics), so abandoned legs stop instead of spending capacity that would be
+    // charged to whatever invocation runs next.
+    public static void checkNotCancelled() {
+        Leg leg = CURRENT_LEG.get();
+        if (leg != null && leg.expired()) {
+            throw new CancellationException("Search leg timed out");
+        }
+    }
+
+    // Applies the function to every input with at most maxConcurrency calls in flight. The caller
+    // blocks while the window is full, so work is never queued faster than it completes.
+    // Results keep input order; the first failure is rethrown once all calls have settled.
+    // Runs on WORKERS, so it can be called from a leg; do not nest mapBounded calls.
+    // Inside a leg, the calls inherit its deadline and the wait ends when the leg times out.
+    public static <T, R> List<R> mapBounded(List<T> inputs, int maxConcurrency, Function<T, R> function) {
+        Leg leg = CURRENT_LEG.get();
+        Semaphore window = new Semaphore(maxConcurrency);
+        List<CompletableFuture<R>> futures = new ArrayList<>(inputs.size());
+
+        try {
+            for (T input : inputs) {
+                checkNotCancelled();
+                window.acquire();
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return leg != null ? leg.call(() -> function.apply(input)) : function.apply(input);
+                    } finally {
+                        window.release();
+                    }
+                }, WORKERS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scheduling parallel calls", e);
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        try {
+            if (leg != null) {
+                all.get(Math.max(0, leg.deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } else {
+                all.join();
+            }
+        } catch (CompletionException | ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new CancellationException("Search leg timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for parallel calls", e);
+        }
+
+        List<R> results = new ArrayList<>(futures.size());
+        futures.forEach(future -> results.add(future.join()));
+        return results;
+    }
+
+    private static final ThreadLocal<Leg> CURRENT_LEG = new ThreadLocal<>();
+
+    // Deadline and cancellation flag of one leg, visible on every thread that does the leg's work
+    private static final class Leg {
+        private final long deadlineNanos;
+        private volatile boolean cancelled;
+
+        Leg(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        boolean expired() {
+            return cancelled || System.nanoTime() - deadlineNanos > 0;
+        }
+
+        <T> T call(Supplier<T> work) {
+            Leg previous = CURRENT_LEG.get();
+            CURRENT_LEG.set(this);
+            try {
+                return work.get();
+            } finally {
+                CURRENT_LEG.set(previous);
+            }
+        }
+    }
+
+    public record LegResults<T>(Map<String, T> results, Map<String, String> failures) {
+        public T resultOr(String leg, T fallback) {
+            return results.getOrDefault(leg, fallback);
+        }
+
+        public boolean isPartial() {
+            return !failures.isEmpty();
+        }
+
+        public Map<String, String> failures() {
+            return Collections.unmodifiableMap(failures);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Segmented parallel Scan (Segment/TotalSegments). scanPage serves one API page with a cursor per
+// segment; scanAll streams a whole table to a single consumer through a bounded queue.
+// All segments of one scan share a backoff delay, so throttling slows the whole scan down together.
+// A scan that runs into the caller's CapacityBudget stops like one whose keepGoing returned false.
+public class ParallelScanner {
+    private static final int MAX_SEGMENTS = 8; // stays below ParallelExecution's pool size
+    private static final int QUEUED_PAGES_PER_SEGMENT = 2;
+    private static final int MAX_THROTTLED_ATTEMPTS = 10;
+    private static final long MIN_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+    private static final long POLL_MILLIS = 100;
+
+    public record SegmentedPage(List<Map<String, AttributeValue>> items,
+                                Map<String, Map<String, AttributeValue>> cursors) {}
+
+    // Scan I/O is mostly waiting, so run a couple of segments per core
+    public static int defaultSegments() {
+        String configured = System.getenv("SCAN_SEGMENTS");
+        int segments = configured != null
+            ? Integer.parseInt(configured)
+            : Runtime.getRuntime().availableProcessors() * 2;
+        return Math.max(1, Math.min(MAX_SEGMENTS, segments));
+    }
+
+    // Reads up to limit items spread over the pending segments. Cursors are keyed "segment/total"
+    // (an empty key means the segment has not started) and round-trip through Pagination.encodeCursors;
+    // pass an empty map to start a new scan.
+    public static SegmentedPage scanPage(DynamoDbClient dynamoDb, ScanRequest request, int limit,
+                                         Map<String, Map<String, AttributeValue>> cursors) {
+        Map<String, Map<String, AttributeValue>> pending = new LinkedHashMap<>();
+        if (cursors.isEmpty()) {
+            int total = defaultSegments();
+            for (int segment = 0; segment < total; segment++) {
+                pending.put(segment + "/" + total, Collections.emptyMap());
+            }
+        } else {
+            cursors.keySet().forEach(ParallelScanner::parseLeg);
+            pending.putAll(cursors);
+        }
+
+        // Never read more than limit items: with a small limit only some segments advance this page
+        List<String> active = new ArrayList<>(pending.keySet()).subList(0, Math.min(limit, pending.size()));
+        int perSegment = limit / active.size();
+        Throttle throttle = new Throttle();
+
+        List<ScanResponse> responses = ParallelExecution.mapBounded(active, MAX_SEGMENTS, leg -> {
+            int[] segment = parseLeg(leg);
+            return throttle.scan(dynamoDb, request.toBuilder()
+                .segment(segment[0])
+                .totalSegments(segment[1])
+                .limit(perSegment)
+                .exclusiveStartKey(Pagination.startKey(pending.get(leg)))
+                .build());
+        });
+
+        // Segments that sat this page out go first next time
+        Map<String, Map<String, AttributeValue>> next = new LinkedHashMap<>();
+        pending.forEach((leg, cursor) -> {
+            if (!active.contains(leg)) {
+                next.put(leg, cursor);
+            }
+        });
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (int i = 0; i < active.size(); i++) {
+            ScanResponse response = responses.get(i);
+            items.addAll(response.items());
+            if (hasMore(response)) {
+                next.put(active.get(i), response.lastEvaluatedKey());
+            }
+        }
+        return new SegmentedPage(items, next);
+    }
+
+    public static void scanAll(DynamoDbClient dynamoDb, ScanRequest request,
+                               Consumer<Map<String, AttributeValue>> consumer) {
+        Map<Integer, Map<String, AttributeValue>> startKeys = new HashMap<>();
+        int total = defaultSegments();
+        for (int segment = 0; segment < total; segment++) {
+            startKeys.put(segment, Collections.emptyMap());
+        }
+        scanAll(dynamoDb, request, total, startKeys, consumer, () -> true);
+    }
+
+    public record Resume(int totalSegments, Map<Integer, Map<String, AttributeValue>> startKeys) {}
+
+    // Start keys for a resumable admin scan: every segment from the beginning, or the
+    // {"totalSegments": n, "resumeFrom": {"<segment>": key}} a previous run returned. A key is either the
+    // value of keyAttribute ("" for a segment that has not started) or a map of string key attributes
+    // ({} likewise). Input that doesn't fit, e.g. a hand-edited totalSegments, is refused rather than
+    // scanning with segments that miss or repeat part of the table.
+    public static Resume resume(Map<String, Object> input, String keyAttribute) {
+        Map<Integer, Map<String, AttributeValue>> startKeys = new HashMap<>();
+        if (input == null || input.get("resumeFrom") == null) {
+            int total = defaultSegments();
+            for (int segment = 0; segment < total; segment++) {
+                startKeys.put(segment, Collections.emptyMap());
+            }
+            return new Resume(total, startKeys);
+        }
+
+        if (!(input.get("totalSegments") instanceof Number) || !(input.get("resumeFrom") instanceof Map)) {
+            throw new IllegalArgumentException("resumeFrom must be an object and come with a numeric totalSegments");
+        }
+        Number totalSegments = (Number) input.get("totalSegments");
+        int total = totalSegments.intValue();
+        if (total != totalSegments.doubleValue() || total < 1 || total > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("totalSegments must be a whole number from 1 to " + MAX_SEGMENTS
+                + ", and the same as in the run being resumed");
+        }
+        ((Map<?, ?>) input.get("resumeFrom")).forEach((segment, key) -> {
+            int index;
+            try {
+                index = Integer.parseInt(String.valueOf(segment));
+            } catch (NumberFormatException e) {
+                index = -1;
+            }
+            if (index < 0 || index >= total) {
+                throw new IllegalArgumentException("resumeFrom segment " + segment + " is not between 0 and "
+                    + (total - 1));
+            }
+            Map<String, AttributeValue> startKey = new HashMap<>();
+            if (key instanceof String value) {
+                if (!value.isEmpty()) {
+                    startKey.put(keyAttribute, AttributeValue.builder().s(value).build());
+                }
+            } else if (key instanceof Map<?, ?> attributes) {
+                attributes.forEach((name, value) -> {
+                    if (!(value instanceof String)) {
+                        throw new IllegalArgumentException("resumeFrom segment " + segment + " has a non-string key");
+                    }
+                    startKey.put(String.valueOf(name), AttributeValue.builder().s((String) value).build());
+                });
+            } else {
+                throw new IllegalArgumentException("resumeFrom segment " + segment + " has no start key");
+            }
+            startKeys.put(index, startKey);
+        });
+        return new Resume(total, startKeys);
+    }
+
+    // Streams every item to the consumer on the calling thread while segment workers read ahead.
+    // At most QUEUED_PAGES_PER_SEGMENT pages per segment are buffered, so memory stays bounded
+    // however large the table is. Stops early once keepGoing returns false and returns the start key
+    // of every unfinished segment (empty when complete); items after those keys were not consumed.
+    public static Map<Integer, Map<String, AttributeValue>> scanAll(DynamoDbClient dynamoDb, ScanRequest request,
+                                                                   int totalSegments,
+                                                                   Map<Integer, Map<String, AttributeValue>> startKeys,
+                                                                   Consumer<Map<String, AttributeValue>> consumer,
+                                                                   BooleanSupplier keepGoing) {
+        BlockingQueue<SegmentPage> queue = new ArrayBlockingQueue<>(
+            Math.max(1, startKeys.size()) * QUEUED_PAGES_PER_SEGMENT);
+        AtomicBoolean stopped = new AtomicBoolean();
+        AtomicBoolean outOfBudget = new AtomicBoolean();
+        Throttle throttle = new Throttle();
+
+        Map<Integer, Map<String, AttributeValue>> remaining = new HashMap<>(startKeys);
+        remaining.forEach((segment, startKey) -> ParallelExecution.runAsync(() ->
+            produce(dynamoDb, request, segment, totalSegments, startKey, throttle, queue, stopped, outOfBudget)));
+
+        try {
+            while (!remaining.isEmpty() && !outOfBudget.get() && keepGoing.getAsBoolean()) {
+                SegmentPage page = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (page == null) {
+                    continue;
+                }
+                if (page.error() != null) {
+                    throw page.error();
+                }
+
+                page.items().forEach(consumer);
+                if (page.nextKey() == null) {
+                    remaining.remove(page.segment());
+                } else {
+                    remaining.put(page.segment(), page.nextKey());
+                }
+            }
+            return remaining;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning " + request.tableName(), e);
+        } finally {
+            stopped.set(true);
+            queue.clear();
+        }
+    }
+
+    private static void produce(DynamoDbClient dynamoDb, ScanRequest request, int segment, int totalSegments,
+                                Map<String, AttributeValue> startKey, Throttle throttle,
+                                BlockingQueue<SegmentPage> queue, AtomicBoolean stopped, AtomicBoolean outOfBudget) {
+        try {
+            Map<String, AttributeValue> next = Pagination.startKey(startKey);
+            do {
+                if (stopped.get()) {
+                    return;
+                }
+                ScanResponse response = throttle.scan(dynamoDb, request.toBuilder()
+                    .segment(segment)
+                    .totalSegments(totalSegments)
+                    .exclusiveStartKey(next)
+                    .build());
+                next = hasMore(response) ? response.lastEvaluatedKey() : null;
+                put(queue, new SegmentPage(segment, response.items(), next, null), stopped);
+            } while (next != null);
+        } catch (RuntimeException e) {
+            if (CapacityBudget.exceeded(e)) {
+                // The segment's last consumed key stays in remaining, so the caller can resume from it
+                outOfBudget.set(true);
+                return;
+            }
+            put(queue, new SegmentPage(segment, Collections.emptyList(), null, e), stopped);
+        }
+    }
+
+    // Blocks while the queue is full (this is the backpressure) but gives up once the scan is stopped
+    private static void put(BlockingQueue<SegmentPage> queue, SegmentPage page, AtomicBoolean stopped) {
+        try {
+            while (!stopped.get()) {
+                if (queue.offer(page, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int[] parseLeg(String leg) {
+        try {
+            String[] parts = leg.split("/");
+            int segment = Integer.parseInt(parts[0]);
+            int total = Integer.parseInt(parts[1]);
+            if (parts.length == 2 && segment >= 0 && segment < total && total <= MAX_SEGMENTS) {
+                return new int[] {segment, total};
+            }
+        } catch (RuntimeException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid pagination token");
+    }
+
+    private static boolean hasMore(ScanResponse response) {
+        return response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty();
+    }
+
+    private record SegmentPage(int segment, List<Map<String, AttributeValue>> items,
+                               Map<String, AttributeValue> nextKey, RuntimeException error) {}
+
+    // Shared by the segments of one scan: every throttled call doubles the delay all segments wait
+    // before their next request, every successful call halves it again
+    private static class Throttle {
+        private final AtomicLong delayMillis = new AtomicLong();
+
+        ScanResponse scan(DynamoDbClient dynamoDb, ScanRequest request) {
+            for (int attempt = 1; ; attempt++) {
+                pause(delayMillis.get());
+                try {
+                    ScanResponse response = dynamoDb.scan(request);
+                    delayMillis.updateAndGet(delay -> delay / 2);
+                    return response;
+                } catch (ProvisionedThroughputExceededException | RequestLimitExceededException e) {
+                    if (attempt == MAX_THROTTLED_ATTEMPTS) {
+                        throw e;
+                    }
+                    delayMillis.updateAndGet(delay -> Math.min(MAX_BACKOFF_MILLIS, Math.max(MIN_BACKOFF_MILLIS, delay * 2)));
+                }
+            }
+        }
+
+        private static void pause(long millis) {
+            if (millis == 0) {
+                return;
+            }
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while backing off scan", e);
+            }
+        }
+    }
+}
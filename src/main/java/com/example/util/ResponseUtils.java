@@ -2,6 +2,7 @@ package com.example.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -9,19 +10,35 @@ import java.util.Map;
 
 public class ResponseUtils {
     public static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<String, String> JSON_HEADERS = Map.of("Content-Type", "application/json");
 
     public static Map<String, Object> successResponse(int statusCode, Object body) {
+        return jsonResponse(statusCode, MAPPER.writer(), body);
+    }
+
+    // Serializes a typed body with a precomputed writer (e.g. Client.WRITER), so the serializer
+    // for the root type is resolved once per class instead of on every call
+    public static Map<String, Object> jsonResponse(int statusCode, ObjectWriter writer, Object body) {
         Map<String, Object> response = new HashMap<>();
         response.put("statusCode", statusCode);
-        response.put("headers", Map.of("Content-Type", "application/json"));
+        response.put("headers", JSON_HEADERS);
         try {
-            response.put("body", MAPPER.writeValueAsString(body));
+            response.put("body", writer.writeValueAsString(body));
         } catch (JsonProcessingException e) {
             response.put("body", "{}");
         }
         return response;
     }
     
+    // For bodies already rendered as JSON text (e.g. by ItemJsonWriter)
+    public static Map<String, Object> rawJsonResponse(int statusCode, String json) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statusCode", statusCode);
+        response.put("headers", JSON_HEADERS);
+        response.put("body", json);
+        return response;
+    }
+
     public static Map<String, Object> parseBody(Map<String, Object> input) throws IOException {
         String requestBody = (String) input.get("body");
         return MAPPER.readValue(requestBody, Map.class);
@@ -0,0 +1,39 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Shared conventions for the SessionSlots table.
+// Slots carry an "availableAt" attribute (date#startTime) only while their status is Available, so
+// AvailableSlotsIndex (TherapistId, availableAt) is sparse: it holds open availability only, in date
+// order, and booked or expired history never costs read capacity when listing.
+public class SessionSlots {
+    public static final String AVAILABLE_INDEX = "AvailableSlotsIndex";
+    public static final String AVAILABLE_AT = "availableAt";
+    public static final String AVAILABLE = "Available";
+
+    // Sorts after any time suffix, so "<date>" + UPPER_BOUND is the last key on that date
+    private static final String UPPER_BOUND = "#~";
+
+    // Set (AVAILABLE_SLOTS_INDEX_BACKFILLED) once BackfillAvailableSlotsIndexLambda has completed; until
+    // then open slots created earlier have no availableAt and are missing from the index
+    public static boolean availableIndexBackfilled() {
+        return "true".equals(System.getenv("AVAILABLE_SLOTS_INDEX_BACKFILLED"));
+    }
+
+    public static AttributeValue availableAt(String date, String startTime) {
+        return AttributeValue.builder().s(date + "#" + startTime).build();
+    }
+
+    public static AttributeValue availableAt(AttributeValue date, AttributeValue startTime) {
+        return availableAt(date.s(), startTime.s());
+    }
+
+    // Inclusive bounds for a date range query on availableAt
+    public static AttributeValue rangeStart(String fromDate) {
+        return AttributeValue.builder().s(fromDate).build();
+    }
+
+    public static AttributeValue rangeEnd(String toDate) {
+        return AttributeValue.builder().s(toDate + UPPER_BOUND).build();
+    }
+}
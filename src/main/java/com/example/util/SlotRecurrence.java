@@ -0,0 +1,127 @@
+package com.example.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Expands weekly availability rules into concrete session slots.
+// A request looks like:
+// {"startDate": "2024-01-01", "endDate": "2024-03-31", "slotMinutes": 50, "breakMinutes": 10,
+//  "weekly": [{"days": ["MONDAY", "WEDNESDAY"], "startTime": "09:00", "endTime": "17:00"}],
+//  "excludeDates": ["2024-02-19"]}
+// Slots are laid back to back (plus the break) inside each window; a slot that would run past the
+// window's end is dropped. Dates are ISO yyyy-MM-dd and times HH:mm, matching single-slot creation.
+public class SlotRecurrence {
+    public static final int MAX_SLOTS = 1_000;
+    public static final int MAX_RANGE_DAYS = 366;
+
+    public record Slot(String date, String startTime, String endTime) {}
+
+    private record Window(Set<DayOfWeek> days, LocalTime start, LocalTime end) {}
+
+    // Throws IllegalArgumentException describing the first invalid field
+    public static List<Slot> expand(Map<String, Object> rules) {
+        LocalDate startDate = date(rules.get("startDate"), "startDate");
+        LocalDate endDate = date(rules.get("endDate"), "endDate");
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        if (startDate.plusDays(MAX_RANGE_DAYS).isBefore(endDate)) {
+            throw new IllegalArgumentException("Date range may span at most " + MAX_RANGE_DAYS + " days");
+        }
+
+        int slotMinutes = minutes(rules.get("slotMinutes"), "slotMinutes", 5);
+        int breakMinutes = rules.containsKey("breakMinutes") ? minutes(rules.get("breakMinutes"), "breakMinutes", 0) : 0;
+        List<Window> windows = windows(rules.get("weekly"));
+
+        Set<LocalDate> excluded = new HashSet<>();
+        if (rules.get("excludeDates") instanceof List<?> dates) {
+            for (Object value : dates) {
+                excluded.add(date(value, "excludeDates"));
+            }
+        }
+
+        List<Slot> slots = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            if (excluded.contains(day)) {
+                continue;
+            }
+            for (Window window : windows) {
+                if (!window.days().contains(day.getDayOfWeek())) {
+                    continue;
+                }
+                // Minutes since midnight, so a window ending at 23:59 can't wrap into the next day
+                int windowEnd = window.end().toSecondOfDay() / 60;
+                for (int start = window.start().toSecondOfDay() / 60; start + slotMinutes <= windowEnd;
+                     start += slotMinutes + breakMinutes) {
+                    if (slots.size() == MAX_SLOTS) {
+                        throw new IllegalArgumentException("Rules expand to more than " + MAX_SLOTS + " slots");
+                    }
+                    slots.add(new Slot(day.toString(), time(start), time(start + slotMinutes)));
+                }
+            }
+        }
+        return slots;
+    }
+
+    private static List<Window> windows(Object value) {
+        if (!(value instanceof List<?> rules) || rules.isEmpty()) {
+            throw new IllegalArgumentException("weekly must list at least one window");
+        }
+        List<Window> windows = new ArrayList<>();
+        for (Object rule : rules) {
+            if (!(rule instanceof Map<?, ?> fields) || !(fields.get("days") instanceof List<?> dayNames)) {
+                throw new IllegalArgumentException("Each weekly window needs days, startTime and endTime");
+            }
+            Set<DayOfWeek> days = new HashSet<>();
+            for (Object day : dayNames) {
+                try {
+                    days.add(DayOfWeek.valueOf(String.valueOf(day).toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown day: " + day);
+                }
+            }
+            LocalTime start = localTime(fields.get("startTime"));
+            LocalTime end = localTime(fields.get("endTime"));
+            if (!end.isAfter(start)) {
+                throw new IllegalArgumentException("Window endTime must be after startTime");
+            }
+            windows.add(new Window(days, start, end));
+        }
+        return windows;
+    }
+
+    private static LocalDate date(Object value, String field) {
+        try {
+            return LocalDate.parse(String.valueOf(value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " must be a yyyy-MM-dd date");
+        }
+    }
+
+    private static LocalTime localTime(Object value) {
+        try {
+            return LocalTime.parse(String.valueOf(value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Window times must be HH:mm");
+        }
+    }
+
+    private static int minutes(Object value, String field, int min) {
+        if (!(value instanceof Number number) || number.intValue() < min || number.intValue() > 24 * 60) {
+            throw new IllegalArgumentException(field + " must be a whole number of minutes >= " + min);
+        }
+        return number.intValue();
+    }
+
+    private static String time(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
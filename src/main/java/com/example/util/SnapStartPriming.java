@@ -0,0 +1,50 @@
+package com.example.util;
+
+import com.example.model.Client;
+import com.example.model.JournalEntry;
+import com.example.model.PageResponse;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+import java.util.List;
+import java.util.Map;
+
+// Lambda SnapStart hooks. Before the snapshot is taken, Jackson and the DynamoDB client are exercised
+// so their classes and code paths are already loaded in the restored image. After restore the
+// connection is re-established: the snapshot's kept-alive sockets are dead and are dropped by the JDK
+// keep-alive cache once idle past its timeout, so they are never reused.
+// Randomness: IDs come from UUID.randomUUID() (SecureRandom, reseeded by the runtime on restore);
+// nothing here may create java.util.Random or other seeded state before the snapshot.
+public class SnapStartPriming implements Resource {
+    private static final SnapStartPriming INSTANCE = new SnapStartPriming();
+    private static boolean registered;
+
+    // Called once per execution environment; the static instance keeps the resource strongly reachable
+    public static synchronized void register() {
+        if (!registered) {
+            Core.getGlobalContext().register(INSTANCE);
+            registered = true;
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+        // Representative response shapes: a typed list page, a single item and an error, plus a typed body
+        Client client = new Client("priming", "priming@example.com", "Priming Client", List.of("t1"));
+        ResponseUtils.jsonResponse(200, Client.PAGE_WRITER, new PageResponse<>(List.of(client), null));
+        ResponseUtils.jsonResponse(200, Client.WRITER, client);
+        ResponseUtils.successResponse(201, Map.of("message", "primed", "count", 1, "partial", false));
+        ResponseUtils.errorResponse(400, "priming");
+        JournalEntry.READER.readValue("{\"date\":\"2024-01-01\",\"time\":\"09:00\",\"content\":\"priming\",\"intensity\":3}");
+
+        DynamoDbClientFactory.prime(DynamoDbClientFactory.client());
+        Metrics.markColdStart();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) throws Exception {
+        DynamoDbClientFactory.prime(DynamoDbClientFactory.client());
+        Metrics.markColdStart();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.util;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Per-container read-through cache for therapist reads: profiles by id, ListTherapists pages and
+// the therapist legs of client search. Entries live for THERAPIST_CACHE_TTL_SECONDS (default 60).
+// Writes through this container invalidate immediately; other containers converge within the TTL,
+// which is the staleness bound for discovery screens.
+public class TherapistCache {
+    private static final int MAX_ENTRIES = intEnv("THERAPIST_CACHE_MAX_ENTRIES", 1_000);
+    private static final long TTL_MILLIS = intEnv("THERAPIST_CACHE_TTL_SECONDS", 60) * 1_000L;
+    private static final long STATS_INTERVAL_MILLIS = 60_000;
+
+    private static final TtlLruCache<String, Map<String, AttributeValue>> PROFILES =
+        new TtlLruCache<>(MAX_ENTRIES, TTL_MILLIS);
+    private static final TtlLruCache<String, Listing> LISTINGS = new TtlLruCache<>(MAX_ENTRIES, TTL_MILLIS);
+    private static final TtlLruCache<String, Pagination.Page<Map<String, AttributeValue>>> SEARCHES =
+        new TtlLruCache<>(MAX_ENTRIES, TTL_MILLIS);
+    private static final AtomicLong LAST_STATS_LOG = new AtomicLong();
+
+    // A rendered ListTherapists page: items plus the (signed) token for the next page
+    public record Listing(List<Map<String, AttributeValue>> items, String nextToken) {}
+
+    // Returns null when the loader finds no therapist; misses are not cached
+    public static Map<String, AttributeValue> profile(String therapistId,
+                                                      Supplier<Map<String, AttributeValue>> loader) {
+        return PROFILES.get(therapistId, id -> {
+            Map<String, AttributeValue> item = loader.get();
+            return item == null || item.isEmpty() ? null : item;
+        });
+    }
+
+    public static Listing listing(String key, Supplier<Listing> loader) {
+        return LISTINGS.get(key, ignored -> loader.get());
+    }
+
+    public static Pagination.Page<Map<String, AttributeValue>> search(String key,
+                                                                    Supplier<Pagination.Page<Map<String, AttributeValue>>> loader) {
+        return SEARCHES.get(key, ignored -> loader.get());
+    }
+
+    // Any listing or search page may contain the therapist, so those are dropped wholesale
+    public static void invalidate(String therapistId) {
+        if (therapistId != null) {
+            PROFILES.invalidate(therapistId);
+        }
+        LISTINGS.invalidateAll();
+        SEARCHES.invalidateAll();
+    }
+
+    // Logs hit/miss/eviction counters at most once a minute per container, for sizing the cache
+    public static void reportStats(LambdaLogger logger) {
+        long now = System.currentTimeMillis();
+        long last = LAST_STATS_LOG.get();
+        if (now - last < STATS_INTERVAL_MILLIS || !LAST_STATS_LOG.compareAndSet(last, now)) {
+            return;
+        }
+
+        Map<String, TtlLruCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("profiles", PROFILES.stats());
+        stats.put("listings", LISTINGS.stats());
+        stats.put("searches", SEARCHES.stats());
+        try {
+            logger.log("TherapistCache stats " + ResponseUtils.MAPPER.writeValueAsString(stats));
+        } catch (Exception e) {
+            logger.log("TherapistCache stats unavailable: " + e.getMessage());
+        }
+    }
+
+    private static int intEnv(String name, int fallback) {
+        String value = System.getenv(name);
+        return value != null ? Integer.parseInt(value) : fallback;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.util;
+
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.Set;
+
+// Helpers for TransactWriteItems callers
+public class Transactions {
+    // Cancellation codes that mean "someone else changed the data first" rather than a service error
+    private static final Set<String> CONTENTION_CODES = Set.of("ConditionalCheckFailed", "TransactionConflict");
+
+    // True when the transaction lost a race (a condition failed or a concurrent transaction held an item).
+    // Callers answer these with 409; anything else (throttling, validation) is a genuine failure.
+    public static boolean lostRace(TransactionCanceledException e) {
+        if (!e.hasCancellationReasons()) {
+            return false;
+        }
+        boolean contention = false;
+        for (CancellationReason reason : e.cancellationReasons()) {
+            String code = reason.code();
+            if (code == null || "None".equals(code)) {
+                continue;
+            }
+            if (!CONTENTION_CODES.contains(code)) {
+                return false;
+            }
+            contention = true;
+        }
+        return contention;
+    }
+
+    // True when the write at the given position of the transaction had its condition fail
+    public static boolean conditionFailedAt(TransactionCanceledException e, int index) {
+        return e.hasCancellationReasons() && e.cancellationReasons().size() > index
+            && "ConditionalCheckFailed".equals(e.cancellationReasons().get(index).code());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Size-bounded LRU cache with a fixed time-to-live per entry. Lookups that miss run the loader
+// outside the lock (two concurrent misses may both load; the later write wins). Null results and
+// loader exceptions are not cached. A load that overlaps an invalidate is returned but not cached, so
+// a value read before a write can't be put back after the writer invalidated it.
+public class TtlLruCache<K, V> {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    // Bumped by every invalidate; a load only caches its result if no invalidate happened meanwhile
+    private long generation;
+
+    public TtlLruCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt - System.nanoTime() > 0) {
+                    hits++;
+                    return entry.value;
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, expirations, entries.size(), maxEntries);
+    }
+
+    public record Stats(long hits, long misses, long evictions, long expirations, int size, int maxEntries) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
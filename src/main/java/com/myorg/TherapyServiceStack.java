@@ -14,13 +14,18 @@ import software.amazon.awscdk.services.dynamodb.GlobalSecondaryIndexProps;
 import software.amazon.awscdk.services.dynamodb.ProjectionType;
 import software.amazon.awscdk.services.dynamodb.Table;
 import software.amazon.awscdk.services.iam.PolicyStatement;
+import software.amazon.awscdk.services.apigateway.ProxyResourceOptions;
 import software.amazon.awscdk.services.apigateway.Resource;
 import software.amazon.awscdk.services.apigateway.RestApi;
 import software.amazon.awscdk.services.apigateway.LambdaIntegration;
 
+import software.amazon.awscdk.services.lambda.Alias;
+import software.amazon.awscdk.services.lambda.CfnFunction;
 import software.amazon.awscdk.services.lambda.Function;
 import software.amazon.awscdk.services.lambda.Runtime;
 import software.amazon.awscdk.services.lambda.Code;
+import software.amazon.awscdk.services.secretsmanager.Secret;
+import software.amazon.awscdk.services.secretsmanager.SecretStringGenerator;
 
 import java.util.List;
 import java.util.Map;
@@ -61,6 +66,19 @@ public class TherapyServiceStack extends Stack {
 			                .build())
 			            .projectionType(ProjectionType.ALL) // Include all attributes in the index
 			            .build());
+
+        // Define Client Search Index Table (one row per name/email prefix term)
+        Table clientSearchIndexTable = Table.Builder.create(this, "ClientSearchIndexTable")
+            .partitionKey(Attribute.builder()
+                .name("term") // Normalized search prefix
+                .type(AttributeType.STRING)
+                .build())
+            .sortKey(Attribute.builder()
+                .name("ClientId")
+                .type(AttributeType.STRING)
+                .build())
+            .billingMode(BillingMode.PAY_PER_REQUEST)
+            .build();
         
 		// Define Therapists Table with GSIs
         Table therapistsTable = Table.Builder.create(this, "TherapistsTable")
@@ -110,6 +128,21 @@ public class TherapyServiceStack extends Stack {
 			        	    .billingMode(BillingMode.PAY_PER_REQUEST)
 			        	    .build();
 			  
+			  // Sparse index: only slots with an availableAt attribute (status Available) are projected
+			  sessionSlotsTable.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+			        	    .indexName("AvailableSlotsIndex")
+			        	    .partitionKey(Attribute.builder().name("TherapistId").type(AttributeType.STRING).build())
+			        	    .sortKey(Attribute.builder().name("availableAt").type(AttributeType.STRING).build())
+			        	    .projectionType(ProjectionType.ALL)
+			        	    .build());
+
+			  // Per-therapist, per-day availability bitmaps (see AvailabilityCalendar)
+			  Table availabilityTable = Table.Builder.create(this, "AvailabilityTable")
+			        	    .partitionKey(Attribute.builder().name("TherapistId").type(AttributeType.STRING).build())
+			        	    .sortKey(Attribute.builder().name("date").type(AttributeType.STRING).build())
+			        	    .billingMode(BillingMode.PAY_PER_REQUEST)
+			        	    .build();
+
 			  
 			// Create AppointmentRequests Table
 		        Table appointmentRequestsTable = Table.Builder.create(this, "AppointmentRequestsTable")
@@ -158,15 +191,31 @@ public class TherapyServiceStack extends Stack {
 	                .partitionKey(Attribute.builder().name("ClientId").type(AttributeType.STRING).build())
 	                .sortKey(Attribute.builder().name("JournalEntryId").type(AttributeType.STRING).build())
 	                .billingMode(BillingMode.PAY_PER_REQUEST)
+	                .timeToLiveAttribute("expiresAt") // expires tombstones of deleted entries
 	                .build();
 
-			            // Add DateIndex GSI (ClientId as partition key, Date as sort key)
+			            // Add DateIndex GSI (ClientId as partition key, Date = date#time as sort key; see JournalEntries)
 			            journalEntriesTable.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
 			                .indexName("DateIndex")
 			                .partitionKey(Attribute.builder().name("ClientId").type(AttributeType.STRING).build())
 			                .sortKey(Attribute.builder().name("Date").type(AttributeType.STRING).build())
 			                .projectionType(ProjectionType.ALL)
 			                .build());
+
+			            // Change feed for ?since= syncs: entries in the order they were created, edited or deleted
+			            journalEntriesTable.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+			                .indexName("ChangesIndex")
+			                .partitionKey(Attribute.builder().name("ClientId").type(AttributeType.STRING).build())
+			                .sortKey(Attribute.builder().name("changedAt").type(AttributeType.STRING).build())
+			                .projectionType(ProjectionType.ALL)
+			                .build());
+
+			            // Daily/weekly/monthly mood aggregates per client (see MoodRollups)
+			            Table moodRollupsTable = Table.Builder.create(this, "MoodRollupsTable")
+			                .partitionKey(Attribute.builder().name("ClientId").type(AttributeType.STRING).build())
+			                .sortKey(Attribute.builder().name("bucket").type(AttributeType.STRING).build())
+			                .billingMode(BillingMode.PAY_PER_REQUEST)
+			                .build();
 			            
 			            
 	         // ====================== JOURNAL ACCESS REQUESTS TABLE ======================
@@ -241,10 +290,72 @@ public class TherapyServiceStack extends Stack {
 			                .sortKey(Attribute.builder().name("recipientId").type(AttributeType.STRING).build())
 			                .projectionType(ProjectionType.ALL)
 			                .build());
+
+			            // Conversation-partitioned messages (see MessageKeys). Replaces MessagesTable above, which
+			            // is only read for unmigrated messages until MigrateMessagesHandler has copied it over.
+			            // The lookup indexes are KEYS_ONLY, so a message write costs one small entry in each.
+			            Table conversationMessagesTable = Table.Builder.create(this, "ConversationMessagesTable")
+			                .partitionKey(Attribute.builder().name("conversationId").type(AttributeType.STRING).build())
+			                .sortKey(Attribute.builder().name("sortKey").type(AttributeType.STRING).build())
+			                .billingMode(BillingMode.PAY_PER_REQUEST)
+			                .timeToLiveAttribute("expiresAt") // expires tombstones of deleted messages
+			                .build();
+
+			            conversationMessagesTable.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+			                .indexName("MessageIdIndex")
+			                .partitionKey(Attribute.builder().name("messageId").type(AttributeType.STRING).build())
+			                .projectionType(ProjectionType.KEYS_ONLY)
+			                .build());
+
+			            conversationMessagesTable.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+			                .indexName("SenderIndex")
+			                .partitionKey(Attribute.builder().name("senderId").type(AttributeType.STRING).build())
+			                .sortKey(Attribute.builder().name("sortKey").type(AttributeType.STRING).build())
+			                .projectionType(ProjectionType.KEYS_ONLY)
+			                .build());
+
+			            conversationMessagesTable.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+			                .indexName("RecipientIndex")
+			                .partitionKey(Attribute.builder().name("recipientId").type(AttributeType.STRING).build())
+			                .sortKey(Attribute.builder().name("sortKey").type(AttributeType.STRING).build())
+			                .projectionType(ProjectionType.KEYS_ONLY)
+			                .build());
+
+			            // Change feed for ?since= syncs. ALL projection, since a sync returns the changed messages
+			            // themselves; only written (and paid for) when a message is sent, edited or deleted.
+			            conversationMessagesTable.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+			                .indexName("ChangesIndex")
+			                .partitionKey(Attribute.builder().name("conversationId").type(AttributeType.STRING).build())
+			                .sortKey(Attribute.builder().name("changedAt").type(AttributeType.STRING).build())
+			                .projectionType(ProjectionType.ALL)
+			                .build());
+
+			            // Per-user inbox summary: unread counters and last message per conversation (see InboxSummary)
+			            Table inboxTable = Table.Builder.create(this, "InboxTable")
+			                .partitionKey(Attribute.builder().name("userId").type(AttributeType.STRING).build())
+			                .billingMode(BillingMode.PAY_PER_REQUEST)
+			                .build();
+
+			            // Idempotency-Key claims and stored responses of POST requests (see Idempotency)
+			            Table idempotencyTable = Table.Builder.create(this, "IdempotencyTable")
+			                .partitionKey(Attribute.builder().name("IdempotencyKey").type(AttributeType.STRING).build())
+			                .billingMode(BillingMode.PAY_PER_REQUEST)
+			                .timeToLiveAttribute("expiresAt")
+			                .build();
 			            
 			            
    
 
+        // HMAC key for signing list/search pagination tokens
+        Secret paginationSecret = Secret.Builder.create(this, "PaginationTokenSecret")
+            .generateSecretString(SecretStringGenerator.builder()
+                .excludePunctuation(true)
+                .passwordLength(32)
+                .build())
+            .build();
+        // Functions get the ARN and read the value at runtime, so the key never appears in the template
+        String paginationTokenSecretArn = paginationSecret.getSecretArn();
+
         // Define Lambda Function for POST /clients (Create Client)
         Function createClientLambda = Function.Builder.create(this, "CreateClientLambda")
             .runtime(Runtime.JAVA_17) // Use Java 17 runtime
@@ -252,7 +363,8 @@ public class TherapyServiceStack extends Stack {
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .timeout(Duration.seconds(30))// Path to compiled JAR file
             .environment(Map.of(
-                "CLIENTS_TABLE", clientsTable.getTableName() // Pass table name as environment variable
+                "CLIENTS_TABLE", clientsTable.getTableName(), // Pass table name as environment variable
+                "CLIENT_SEARCH_INDEX_TABLE", clientSearchIndexTable.getTableName()
             ))
             .build();
         //lambda function for listing all clients
@@ -262,7 +374,8 @@ public class TherapyServiceStack extends Stack {
                 .code(Code.fromAsset("target/therapy-service-0.1.jar")) // Path to compiled JAR file
                 .timeout(Duration.seconds(30)) // Timeout configuration
                 .environment(Map.of(
-                        "CLIENTS_TABLE", clientsTable.getTableName() // Pass table name as environment variable
+                        "CLIENTS_TABLE", clientsTable.getTableName(), // Pass table name as environment variable
+                        "PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn
                 ))
                 .build();
         // Define Lambda for GET /clients/{clientId}
@@ -279,7 +392,10 @@ public class TherapyServiceStack extends Stack {
             .handler("com.example.handlers.clients.UpdateClientHandler::handleRequest")
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .timeout(Duration.seconds(30))
-            .environment(Map.of("CLIENTS_TABLE", clientsTable.getTableName()))
+            .environment(Map.of(
+                "CLIENTS_TABLE", clientsTable.getTableName(),
+                "CLIENT_SEARCH_INDEX_TABLE", clientSearchIndexTable.getTableName()
+            ))
             .build();
      // Define Lambda Function for DELETE /clients/{clientId}
         Function deleteClientLambda = Function.Builder.create(this, "DeleteClientLambda")
@@ -287,7 +403,10 @@ public class TherapyServiceStack extends Stack {
             .handler("com.example.handlers.clients.DeleteClientHandler::handleRequest")
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .timeout(Duration.seconds(30))
-            .environment(Map.of("CLIENTS_TABLE", clientsTable.getTableName()))
+            .environment(Map.of(
+                "CLIENTS_TABLE", clientsTable.getTableName(),
+                "CLIENT_SEARCH_INDEX_TABLE", clientSearchIndexTable.getTableName()
+            ))
             .build();
         
      // Create Therapist Lambda
@@ -306,7 +425,10 @@ public class TherapyServiceStack extends Stack {
             .handler("com.example.handlers.therapists.ListTherapistsHandler::handleRequest")
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .timeout(Duration.seconds(30))
-            .environment(Map.of("THERAPISTS_TABLE", therapistsTable.getTableName()))
+            .environment(Map.of(
+                "THERAPISTS_TABLE", therapistsTable.getTableName(),
+                "PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn
+            ))
             .build();
         therapistsTable.grantReadData(listTherapistsLambda);
         
@@ -356,6 +478,26 @@ public class TherapyServiceStack extends Stack {
         clientsTable.grantReadData(listClientsLambda);
         // Grant permissions to Lambda to access DynamoDB
         clientsTable.grantWriteData(deleteClientLambda);
+
+        // Client writes keep the search index in step
+        clientSearchIndexTable.grantWriteData(createClientLambda);
+        clientSearchIndexTable.grantWriteData(updateClientLambda);
+        clientSearchIndexTable.grantWriteData(deleteClientLambda);
+
+        // One-off backfill of the search index for pre-existing clients (invoked manually)
+        Function backfillClientSearchIndexLambda = Function.Builder.create(this, "BackfillClientSearchIndexLambda")
+            .runtime(Runtime.JAVA_17)
+            .handler("com.example.handlers.admin.BackfillClientSearchIndexHandler::handleRequest")
+            .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+            .timeout(Duration.minutes(15))
+            .environment(Map.of(
+                "CLIENTS_TABLE", clientsTable.getTableName(),
+                "CLIENT_SEARCH_INDEX_TABLE", clientSearchIndexTable.getTableName()
+            ))
+            .build();
+
+        clientsTable.grantReadData(backfillClientSearchIndexLambda);
+        clientSearchIndexTable.grantWriteData(backfillClientSearchIndexLambda);
         
         
      // Create Session Slot Lambda
@@ -364,12 +506,72 @@ public class TherapyServiceStack extends Stack {
             .handler("com.example.handlers.sessionslots.CreateSessionSlotHandler::handleRequest")
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .timeout(Duration.seconds(30))
+            .environment(Map.of(
+                "SESSION_SLOTS_TABLE", sessionSlotsTable.getTableName(),
+                "AVAILABILITY_TABLE", availabilityTable.getTableName()
+            ))
+            .build();
+
+        sessionSlotsTable.grantReadWriteData(createSessionSlotLambda);
+        availabilityTable.grantReadWriteData(createSessionSlotLambda);
+
+        // One-off backfill of availableAt for open slots created before AvailableSlotsIndex (invoked manually)
+        Function backfillAvailableSlotsIndexLambda = Function.Builder.create(this, "BackfillAvailableSlotsIndexLambda")
+            .runtime(Runtime.JAVA_17)
+            .handler("com.example.handlers.admin.BackfillAvailableSlotsIndexHandler::handleRequest")
+            .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+            .timeout(Duration.minutes(15))
             .environment(Map.of(
                 "SESSION_SLOTS_TABLE", sessionSlotsTable.getTableName()
             ))
             .build();
 
-        sessionSlotsTable.grantWriteData(createSessionSlotLambda);
+        sessionSlotsTable.grantReadWriteData(backfillAvailableSlotsIndexLambda);
+
+     // Bulk Session Slots Lambda (expands recurrence rules, writes in parallel batches)
+        Function createSessionSlotsBulkLambda = Function.Builder.create(this, "CreateSessionSlotsBulkLambda")
+            .runtime(Runtime.JAVA_17)
+            .handler("com.example.handlers.sessionslots.CreateSessionSlotsBulkHandler::handleRequest")
+            .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+            .timeout(Duration.seconds(30))
+            .environment(Map.of(
+                "SESSION_SLOTS_TABLE", sessionSlotsTable.getTableName(),
+                "AVAILABILITY_TABLE", availabilityTable.getTableName()
+            ))
+            .build();
+
+        sessionSlotsTable.grantReadWriteData(createSessionSlotsBulkLambda);
+        availabilityTable.grantReadWriteData(createSessionSlotsBulkLambda);
+
+        // Free Windows Lambda (next N open windows from the availability bitmaps)
+        Function listFreeWindowsLambda = Function.Builder.create(this, "ListFreeWindowsLambda")
+            .runtime(Runtime.JAVA_17)
+            .handler("com.example.handlers.sessionslots.ListFreeWindowsHandler::handleRequest")
+            .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+            .timeout(Duration.seconds(30))
+            .environment(Map.of(
+                "AVAILABILITY_TABLE", availabilityTable.getTableName()
+            ))
+            .build();
+
+        availabilityTable.grantReadData(listFreeWindowsLambda);
+
+        // One-off build of availability bitmaps for days with pre-existing slots (invoked manually)
+        Function backfillAvailabilityCalendarLambda = Function.Builder.create(this, "BackfillAvailabilityCalendarLambda")
+            .runtime(Runtime.JAVA_17)
+            .handler("com.example.handlers.admin.BackfillAvailabilityCalendarHandler::handleRequest")
+            .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+            .timeout(Duration.minutes(15))
+            .environment(Map.of(
+                "THERAPISTS_TABLE", therapistsTable.getTableName(),
+                "SESSION_SLOTS_TABLE", sessionSlotsTable.getTableName(),
+                "AVAILABILITY_TABLE", availabilityTable.getTableName()
+            ))
+            .build();
+
+        therapistsTable.grantReadData(backfillAvailabilityCalendarLambda);
+        sessionSlotsTable.grantReadData(backfillAvailabilityCalendarLambda);
+        availabilityTable.grantReadWriteData(backfillAvailabilityCalendarLambda);
         
      // List Session Slots Lambda
         Function listSessionSlotsLambda = Function.Builder.create(this, "ListSessionSlotsLambda")
@@ -378,7 +580,8 @@ public class TherapyServiceStack extends Stack {
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .timeout(Duration.seconds(30))
             .environment(Map.of(
-                "SESSION_SLOTS_TABLE", sessionSlotsTable.getTableName()
+                "SESSION_SLOTS_TABLE", sessionSlotsTable.getTableName(),
+                "PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn
             ))
             .build();
 
@@ -392,13 +595,15 @@ public class TherapyServiceStack extends Stack {
             .timeout(Duration.seconds(30))
             .environment(Map.of(
                 "SESSION_SLOTS_TABLE", sessionSlotsTable.getTableName(),
-                "APPOINTMENT_REQUESTS_TABLE", appointmentRequestsTable.getTableName()
+                "APPOINTMENT_REQUESTS_TABLE", appointmentRequestsTable.getTableName(),
+                "AVAILABILITY_TABLE", availabilityTable.getTableName()
             ))
             .timeout(Duration.seconds(30))
             .build();
         
-	        sessionSlotsTable.grantReadData(requestAppointmentLambda);
+	        sessionSlotsTable.grantReadWriteData(requestAppointmentLambda);
 	        appointmentRequestsTable.grantWriteData(requestAppointmentLambda);
+	        availabilityTable.grantReadWriteData(requestAppointmentLambda);
         
         
      // List Appointments Lambda
@@ -408,7 +613,8 @@ public class TherapyServiceStack extends Stack {
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .timeout(Duration.seconds(30))
             .environment(Map.of(
-            		"APPOINTMENT_REQUESTS_TABLE", appointmentRequestsTable.getTableName()
+            		"APPOINTMENT_REQUESTS_TABLE", appointmentRequestsTable.getTableName(),
+            		"PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn
             ))
             .build();
 
@@ -427,13 +633,17 @@ public class TherapyServiceStack extends Stack {
                 .timeout(Duration.seconds(30))
                 .environment(Map.of(
                     "APPOINTMENT_REQUESTS_TABLE", appointmentRequestsTable.getTableName(),
-                    "SESSIONS_TABLE", sessionsTable.getTableName()
+                    "SESSION_SLOTS_TABLE", sessionSlotsTable.getTableName(),
+                    "SESSIONS_TABLE", sessionsTable.getTableName(),
+                    "AVAILABILITY_TABLE", availabilityTable.getTableName()
                 ))
                 .build();
         
         // Grant permissions
         appointmentRequestsTable.grantReadWriteData(approveAppointmentLambda);
         sessionsTable.grantWriteData(approveAppointmentLambda);
+        sessionSlotsTable.grantReadWriteData(approveAppointmentLambda);
+        availabilityTable.grantReadWriteData(approveAppointmentLambda);
         
      // Create Get Session Lambda
         Function getSessionLambda = Function.Builder.create(this, "GetSessionLambda")
@@ -475,12 +685,14 @@ public class TherapyServiceStack extends Stack {
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .timeout(Duration.seconds(30))
             .environment(Map.of(
-                "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName()
+                "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName(),
+                "MOOD_ROLLUPS_TABLE", moodRollupsTable.getTableName()
             ))
             .timeout(Duration.seconds(30))
             .build();
 
         journalEntriesTable.grantWriteData(createJournalEntryLambda);
+        moodRollupsTable.grantReadWriteData(createJournalEntryLambda);
         
      // Create Get Journal Entry Lambda
         Function listJournalEntriesLambda = Function.Builder.create(this, "ListJournalEntriesLambda")
@@ -489,7 +701,8 @@ public class TherapyServiceStack extends Stack {
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .timeout(Duration.seconds(30))
             .environment(Map.of(
-                "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName()
+                "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName(),
+                "PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn
             ))
             .build();
 
@@ -514,22 +727,64 @@ public class TherapyServiceStack extends Stack {
             .handler("com.example.handlers.journals.UpdateJournalEntryHandler::handleRequest")
             .code(Code.fromAsset("target/therapy-service-0.1.jar"))
             .environment(Map.of(
-                "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName()
+                "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName(),
+                "MOOD_ROLLUPS_TABLE", moodRollupsTable.getTableName()
             ))
             .timeout(Duration.seconds(30))
             .build();
 
         journalEntriesTable.grantReadWriteData(updateJournalEntryLambda);
+        moodRollupsTable.grantReadWriteData(updateJournalEntryLambda);
 
         Function deleteJournalEntryLambda = Function.Builder.create(this, "DeleteJournalEntryLambda")
         	    .runtime(Runtime.JAVA_17)
         	    .handler("com.example.handlers.journals.DeleteJournalEntryHandler::handleRequest")
         	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
-        	    .environment(Map.of("JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName()))
+        	    .environment(Map.of(
+        	        "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName(),
+        	        "MOOD_ROLLUPS_TABLE", moodRollupsTable.getTableName()
+        	    ))
+        	    .timeout(Duration.seconds(30))
+        	    .build();
+
+        	journalEntriesTable.grantReadWriteData(deleteJournalEntryLambda);
+        	moodRollupsTable.grantReadWriteData(deleteJournalEntryLambda);
+
+        	Function getMoodTrendsLambda = Function.Builder.create(this, "GetMoodTrendsLambda")
+        	    .runtime(Runtime.JAVA_17)
+        	    .handler("com.example.handlers.journals.GetMoodTrendsHandler::handleRequest")
+        	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+        	    .environment(Map.of("MOOD_ROLLUPS_TABLE", moodRollupsTable.getTableName()))
         	    .timeout(Duration.seconds(30))
         	    .build();
 
-        	journalEntriesTable.grantWriteData(deleteJournalEntryLambda);
+        	moodRollupsTable.grantReadData(getMoodTrendsLambda);
+
+        	// One-off job that adds existing journal entries to the mood rollups (invoked manually)
+        	Function backfillMoodRollupsLambda = Function.Builder.create(this, "BackfillMoodRollupsLambda")
+        	    .runtime(Runtime.JAVA_17)
+        	    .handler("com.example.handlers.admin.BackfillMoodRollupsHandler::handleRequest")
+        	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+        	    .environment(Map.of(
+        	        "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName(),
+        	        "MOOD_ROLLUPS_TABLE", moodRollupsTable.getTableName()
+        	    ))
+        	    .timeout(Duration.minutes(15))
+        	    .build();
+
+        	journalEntriesTable.grantReadWriteData(backfillMoodRollupsLambda);
+        	moodRollupsTable.grantReadWriteData(backfillMoodRollupsLambda);
+
+        	// One-off job that adds the DateIndex key to existing journal entries (invoked manually)
+        	Function backfillJournalDateIndexLambda = Function.Builder.create(this, "BackfillJournalDateIndexLambda")
+        	    .runtime(Runtime.JAVA_17)
+        	    .handler("com.example.handlers.admin.BackfillJournalDateIndexHandler::handleRequest")
+        	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+        	    .environment(Map.of("JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName()))
+        	    .timeout(Duration.minutes(15))
+        	    .build();
+
+        	journalEntriesTable.grantReadWriteData(backfillJournalDateIndexLambda);
         
         	// ====================== REQUEST ACCESS LAMBDA ======================
         	Function requestJournalAccessLambda = Function.Builder.create(this, "RequestJournalAccessLambda")
@@ -550,7 +805,8 @@ public class TherapyServiceStack extends Stack {
         	    .handler("com.example.handlers.journals.ListJournalAccessRequestsHandler::handleRequest")
         	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
         	    .environment(Map.of(
-        	        "JOURNAL_ACCESS_REQUESTS_TABLE", journalAccessRequestsTable.getTableName()
+        	        "JOURNAL_ACCESS_REQUESTS_TABLE", journalAccessRequestsTable.getTableName(),
+        	        "PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn
         	    ))
         	    .timeout(Duration.seconds(30))
         	    .build();
@@ -590,7 +846,10 @@ public class TherapyServiceStack extends Stack {
         	    .runtime(Runtime.JAVA_17)
         	    .handler("com.example.handlers.messages.CreateMessageHandler::handleRequest")
         	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
-        	    .environment(Map.of("MESSAGES_TABLE", messagesTable.getTableName()))
+        	    .environment(Map.of(
+        	        "MESSAGES_TABLE", conversationMessagesTable.getTableName(),
+        	        "INBOX_TABLE", inboxTable.getTableName()
+        	    ))
         	    .timeout(Duration.seconds(30))
         	    .build();
 
@@ -598,7 +857,10 @@ public class TherapyServiceStack extends Stack {
         	    .runtime(Runtime.JAVA_17)
         	    .handler("com.example.handlers.messages.ListMessagesHandler::handleRequest")
         	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
-        	    .environment(Map.of("MESSAGES_TABLE", messagesTable.getTableName()))
+        	    .environment(Map.of(
+        	        "MESSAGES_TABLE", conversationMessagesTable.getTableName(),
+        	        "PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn
+        	    ))
         	    .timeout(Duration.seconds(30))
         	    .build();
 
@@ -606,7 +868,10 @@ public class TherapyServiceStack extends Stack {
         	    .runtime(Runtime.JAVA_17)
         	    .handler("com.example.handlers.messages.GetMessageHandler::handleRequest")
         	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
-        	    .environment(Map.of("MESSAGES_TABLE", messagesTable.getTableName()))
+        	    .environment(Map.of(
+        	        "MESSAGES_TABLE", conversationMessagesTable.getTableName(),
+        	        "LEGACY_MESSAGES_TABLE", messagesTable.getTableName()
+        	    ))
         	    .timeout(Duration.seconds(30))
         	    .build();
 
@@ -614,7 +879,11 @@ public class TherapyServiceStack extends Stack {
         	    .runtime(Runtime.JAVA_17)
         	    .handler("com.example.handlers.messages.UpdateMessageHandler::handleRequest")
         	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
-        	    .environment(Map.of("MESSAGES_TABLE", messagesTable.getTableName()))
+        	    .environment(Map.of(
+        	        "MESSAGES_TABLE", conversationMessagesTable.getTableName(),
+        	        "LEGACY_MESSAGES_TABLE", messagesTable.getTableName(),
+        	        "INBOX_TABLE", inboxTable.getTableName()
+        	    ))
         	    .timeout(Duration.seconds(30))
         	    .build();
 
@@ -622,16 +891,50 @@ public class TherapyServiceStack extends Stack {
         	    .runtime(Runtime.JAVA_17)
         	    .handler("com.example.handlers.messages.DeleteMessageHandler::handleRequest")
         	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
-        	    .environment(Map.of("MESSAGES_TABLE", messagesTable.getTableName()))
+        	    .environment(Map.of(
+        	        "MESSAGES_TABLE", conversationMessagesTable.getTableName(),
+        	        "LEGACY_MESSAGES_TABLE", messagesTable.getTableName(),
+        	        "INBOX_TABLE", inboxTable.getTableName()
+        	    ))
+        	    .timeout(Duration.seconds(30))
+        	    .build();
+
+        	Function getInboxLambda = Function.Builder.create(this, "GetInboxLambda")
+        	    .runtime(Runtime.JAVA_17)
+        	    .handler("com.example.handlers.messages.GetInboxHandler::handleRequest")
+        	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+        	    .environment(Map.of("INBOX_TABLE", inboxTable.getTableName()))
         	    .timeout(Duration.seconds(30))
         	    .build();
 
         	// Grant permissions
-        	messagesTable.grantReadWriteData(createMessageLambda);
-        	messagesTable.grantReadData(listMessagesLambda);
+        	conversationMessagesTable.grantReadWriteData(createMessageLambda);
+        	conversationMessagesTable.grantReadData(listMessagesLambda);
+        	conversationMessagesTable.grantReadData(getMessageLambda);
+        	conversationMessagesTable.grantReadWriteData(updateMessageLambda);
+        	conversationMessagesTable.grantReadWriteData(deleteMessageLambda);
         	messagesTable.grantReadData(getMessageLambda);
         	messagesTable.grantReadWriteData(updateMessageLambda);
         	messagesTable.grantWriteData(deleteMessageLambda);
+        	inboxTable.grantReadWriteData(createMessageLambda);
+        	inboxTable.grantReadWriteData(updateMessageLambda);
+        	inboxTable.grantReadWriteData(deleteMessageLambda);
+        	inboxTable.grantReadData(getInboxLambda);
+
+        	// One-off copy of the legacy messages table into the conversation table (invoked manually)
+        	Function migrateMessagesLambda = Function.Builder.create(this, "MigrateMessagesLambda")
+        	    .runtime(Runtime.JAVA_17)
+        	    .handler("com.example.handlers.admin.MigrateMessagesHandler::handleRequest")
+        	    .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+        	    .environment(Map.of(
+        	        "MESSAGES_TABLE", conversationMessagesTable.getTableName(),
+        	        "LEGACY_MESSAGES_TABLE", messagesTable.getTableName()
+        	    ))
+        	    .timeout(Duration.minutes(15))
+        	    .build();
+
+        	messagesTable.grantReadData(migrateMessagesLambda);
+        	conversationMessagesTable.grantWriteData(migrateMessagesLambda);
         	
         	
         	
@@ -684,7 +987,8 @@ public class TherapyServiceStack extends Stack {
         	        "CLIENTS_TABLE", clientsTable.getTableName(),
         	        "THERAPISTS_TABLE", therapistsTable.getTableName(),
         	        "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName(),
-        	        "SESSIONS_TABLE", sessionsTable.getTableName()
+        	        "SESSIONS_TABLE", sessionsTable.getTableName(),
+        	        "PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn
         	    ))
         	    .timeout(Duration.seconds(30))
         	    .build();
@@ -697,7 +1001,9 @@ public class TherapyServiceStack extends Stack {
         	        "CLIENTS_TABLE", clientsTable.getTableName(),
         	        "JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName(),
         	        "SESSIONS_TABLE", sessionsTable.getTableName(),
-        	        "MAPPED_THERAPISTS_TABLE", mappedTherapistsTable.getTableName()
+        	        "MAPPED_THERAPISTS_TABLE", mappedTherapistsTable.getTableName(),
+        	        "CLIENT_SEARCH_INDEX_TABLE", clientSearchIndexTable.getTableName(),
+        	        "PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn
         	    ))
         	    .timeout(Duration.seconds(30))
         	    .build();
@@ -741,16 +1047,109 @@ public class TherapyServiceStack extends Stack {
         	journalEntriesTable.grantReadData(therapistSearchLambda);
         	sessionsTable.grantReadData(therapistSearchLambda);
         	mappedTherapistsTable.grantReadData(therapistSearchLambda);
+        	clientSearchIndexTable.grantReadData(therapistSearchLambda);
         	
         	
         	
         	
+        	for (Function pagedLambda : List.of(listClientsLambda, listTherapistsLambda, listSessionSlotsLambda,
+        	        listAppointmentsLambda, listJournalEntriesLambda, listJournalAccessRequestsLambda, listMessagesLambda,
+        	        clientSearchLambda, therapistSearchLambda)) {
+        	    paginationSecret.grantRead(pagedLambda);
+        	}
+
+        	// Deploy with -c availabilityBackfilled=true once BackfillAvailabilityCalendarLambda has completed:
+        	// every day with slots then has a bitmap, so a missing day is read as empty instead of rebuilt
+        	boolean availabilityBackfilled = "true".equals(String.valueOf(this.getNode().tryGetContext("availabilityBackfilled")));
+        	if (availabilityBackfilled) {
+        	    for (Function calendarLambda : List.of(createSessionSlotLambda, createSessionSlotsBulkLambda,
+        	            requestAppointmentLambda, approveAppointmentLambda)) {
+        	        calendarLambda.addEnvironment("AVAILABILITY_CALENDAR_BACKFILLED", "true");
+        	    }
+        	}
+
+        	// Deploy with -c journalDateIndexBackfilled=true once BackfillJournalDateIndexLambda has completed:
+        	// every entry then has its DateIndex key, so listings switch from the table to the index
+        	boolean journalDateIndexBackfilled = "true".equals(String.valueOf(this.getNode().tryGetContext("journalDateIndexBackfilled")));
+        	if (journalDateIndexBackfilled) {
+        	    listJournalEntriesLambda.addEnvironment("JOURNAL_DATE_INDEX_BACKFILLED", "true");
+        	}
+
+        	// Deploy with -c availableSlotsIndexBackfilled=true once BackfillAvailableSlotsIndexLambda has completed,
+        	// so the slot listing reads AvailableSlotsIndex instead of the therapist's whole partition
+        	boolean availableSlotsIndexBackfilled = "true".equals(String.valueOf(this.getNode().tryGetContext("availableSlotsIndexBackfilled")));
+        	if (availableSlotsIndexBackfilled) {
+        	    listSessionSlotsLambda.addEnvironment("AVAILABLE_SLOTS_INDEX_BACKFILLED", "true");
+        	}
+
+        	// POST functions answer retries carrying an Idempotency-Key from the IdempotencyTable
+        	for (Function postLambda : List.of(createClientLambda, createTherapistLambda, requestMappingLambda,
+        	        createSessionSlotLambda, createSessionSlotsBulkLambda, requestAppointmentLambda,
+        	        createJournalEntryLambda, approveJournalAccessLambda, requestJournalAccessLambda, createMessageLambda)) {
+        	    postLambda.addEnvironment("IDEMPOTENCY_TABLE", idempotencyTable.getTableName());
+        	    idempotencyTable.grantReadWriteData(postLambda);
+        	}
+
         	// Define API Gateway
         	RestApi api = RestApi.Builder.create(this, "TherapyServiceApi")
         	    .restApiName("Therapy Service API")
         	    .description("API for managing therapy sessions.")
         	    .build();
 
+        	// ====================== ROUTER MODE ======================
+        	// cdk deploy -c routerMode=true sends every route to one function (ApiRouterHandler) through a
+        	// greedy proxy, so all routes share one warm pool. The per-route functions stay deployed for rollback.
+        	if ("true".equals(String.valueOf(this.getNode().tryGetContext("routerMode")))) {
+        	    Function apiRouterLambda = Function.Builder.create(this, "ApiRouterLambda")
+        	        .runtime(Runtime.JAVA_17)
+        	        .handler("com.example.handlers.router.ApiRouterHandler::handleRequest")
+        	        .code(Code.fromAsset("target/therapy-service-0.1.jar"))
+        	        .timeout(Duration.seconds(30))
+        	        .environment(Map.ofEntries(
+        	            Map.entry("CLIENTS_TABLE", clientsTable.getTableName()),
+        	            Map.entry("CLIENT_SEARCH_INDEX_TABLE", clientSearchIndexTable.getTableName()),
+        	            Map.entry("THERAPISTS_TABLE", therapistsTable.getTableName()),
+        	            Map.entry("SESSION_SLOTS_TABLE", sessionSlotsTable.getTableName()),
+        	            Map.entry("AVAILABILITY_TABLE", availabilityTable.getTableName()),
+        	            Map.entry("APPOINTMENT_REQUESTS_TABLE", appointmentRequestsTable.getTableName()),
+        	            Map.entry("SESSIONS_TABLE", sessionsTable.getTableName()),
+        	            Map.entry("JOURNAL_ENTRIES_TABLE", journalEntriesTable.getTableName()),
+        	            Map.entry("MOOD_ROLLUPS_TABLE", moodRollupsTable.getTableName()),
+        	            Map.entry("JOURNAL_ACCESS_REQUESTS_TABLE", journalAccessRequestsTable.getTableName()),
+        	            Map.entry("MAPPED_THERAPISTS_TABLE", mappedTherapistsTable.getTableName()),
+        	            Map.entry("MAPPING_REQUESTS_TABLE", mappingRequestsTable.getTableName()),
+        	            Map.entry("MESSAGES_TABLE", conversationMessagesTable.getTableName()),
+        	            Map.entry("INBOX_TABLE", inboxTable.getTableName()),
+        	            Map.entry("IDEMPOTENCY_TABLE", idempotencyTable.getTableName()),
+        	            Map.entry("LEGACY_MESSAGES_TABLE", messagesTable.getTableName()),
+        	            Map.entry("PAGINATION_TOKEN_SECRET_ARN", paginationTokenSecretArn)
+        	        ))
+        	        .build();
+
+        	    for (Table table : List.of(clientsTable, clientSearchIndexTable, therapistsTable, sessionSlotsTable,
+        	            availabilityTable, appointmentRequestsTable, sessionsTable, journalEntriesTable, moodRollupsTable, journalAccessRequestsTable,
+        	            mappedTherapistsTable, mappingRequestsTable, messagesTable, conversationMessagesTable, inboxTable,
+        	            idempotencyTable)) {
+        	        table.grantReadWriteData(apiRouterLambda);
+        	    }
+        	    paginationSecret.grantRead(apiRouterLambda);
+        	    if (availabilityBackfilled) {
+        	        apiRouterLambda.addEnvironment("AVAILABILITY_CALENDAR_BACKFILLED", "true");
+        	    }
+        	    if (journalDateIndexBackfilled) {
+        	        apiRouterLambda.addEnvironment("JOURNAL_DATE_INDEX_BACKFILLED", "true");
+        	    }
+        	    if (availableSlotsIndexBackfilled) {
+        	        apiRouterLambda.addEnvironment("AVAILABLE_SLOTS_INDEX_BACKFILLED", "true");
+        	    }
+
+        	    api.getRoot().addProxy(ProxyResourceOptions.builder()
+        	        .defaultIntegration(new LambdaIntegration(liveAlias(apiRouterLambda)))
+        	        .anyMethod(true)
+        	        .build());
+        	    return;
+        	}
+
         	// ====================== ROOT RESOURCES ======================
         	// Define all root resources FIRST
         	Resource clients = api.getRoot().addResource("clients");
@@ -761,38 +1160,42 @@ public class TherapyServiceStack extends Stack {
 
         	// ====================== CLIENT MANAGEMENT ======================
         	// Client root operations
-        	clients.addMethod("POST", new LambdaIntegration(createClientLambda));
-        	clients.addMethod("GET", new LambdaIntegration(listClientsLambda));
+        	clients.addMethod("POST", new LambdaIntegration(liveAlias(createClientLambda)));
+        	clients.addMethod("GET", new LambdaIntegration(liveAlias(listClientsLambda)));
 
         	// Client-specific endpoints
         	Resource client = clients.addResource("{clientId}");
-        	client.addMethod("GET", new LambdaIntegration(getClientLambda));
-        	client.addMethod("PUT", new LambdaIntegration(updateClientLambda));
-        	client.addMethod("DELETE", new LambdaIntegration(deleteClientLambda));
+        	client.addMethod("GET", new LambdaIntegration(liveAlias(getClientLambda)));
+        	client.addMethod("PUT", new LambdaIntegration(liveAlias(updateClientLambda)));
+        	client.addMethod("DELETE", new LambdaIntegration(liveAlias(deleteClientLambda)));
 
         	// ====================== MAPPING ENDPOINTS ======================
         	Resource clientMappingRequests = client.addResource("mapping-requests");
         	Resource specificMappingRequest = clientMappingRequests.addResource("{therapistId}");
-        	specificMappingRequest.addMethod("PUT", new LambdaIntegration(approveRejectMappingLambda));
+        	specificMappingRequest.addMethod("PUT", new LambdaIntegration(liveAlias(approveRejectMappingLambda)));
 
         	Resource mappedTherapists = client.addResource("mapped-therapists");
         	Resource specificMappedTherapist = mappedTherapists.addResource("{therapistId}");
-        	specificMappedTherapist.addMethod("DELETE", new LambdaIntegration(removeMappingLambda));
+        	specificMappedTherapist.addMethod("DELETE", new LambdaIntegration(liveAlias(removeMappingLambda)));
 
         	// ====================== THERAPIST MANAGEMENT ======================
         	Resource therapist = therapists.addResource("{therapistId}");
         	Resource mappingRequests = therapist.addResource("mapping-requests");
-        	mappingRequests.addMethod("POST", new LambdaIntegration(requestMappingLambda));
+        	mappingRequests.addMethod("POST", new LambdaIntegration(liveAlias(requestMappingLambda)));
 
         	// Session Slots (under therapist)
         	Resource sessionSlots = therapist.addResource("session-slots");
-        	sessionSlots.addMethod("POST", new LambdaIntegration(createSessionSlotLambda));
-        	sessionSlots.addMethod("GET", new LambdaIntegration(listSessionSlotsLambda));
+        	sessionSlots.addMethod("POST", new LambdaIntegration(liveAlias(createSessionSlotLambda)));
+        	sessionSlots.addMethod("GET", new LambdaIntegration(liveAlias(listSessionSlotsLambda)));
+        	sessionSlots.addResource("bulk")
+        	    .addMethod("POST", new LambdaIntegration(liveAlias(createSessionSlotsBulkLambda)));
+        	therapist.addResource("free-windows")
+        	    .addMethod("GET", new LambdaIntegration(liveAlias(listFreeWindowsLambda)));
 
         	// Appointments (under session slots)
         	Resource appointments = sessionSlots.addResource("appointments");
-        	appointments.addMethod("POST", new LambdaIntegration(requestAppointmentLambda));
-        	appointments.addMethod("GET", new LambdaIntegration(listAppointmentsLambda));
+        	appointments.addMethod("POST", new LambdaIntegration(liveAlias(requestAppointmentLambda)));
+        	appointments.addMethod("GET", new LambdaIntegration(liveAlias(listAppointmentsLambda)));
 
         	// ====================== JOURNAL ENDPOINTS ======================
         	Resource journalClients = journal.addResource("clients");
@@ -800,51 +1203,65 @@ public class TherapyServiceStack extends Stack {
 
         	// Journal entries
         	Resource entries = journalClient.addResource("entries");
-        	entries.addMethod("POST", new LambdaIntegration(createJournalEntryLambda));
-        	entries.addMethod("GET", new LambdaIntegration(listJournalEntriesLambda));
+        	entries.addMethod("POST", new LambdaIntegration(liveAlias(createJournalEntryLambda)));
+        	entries.addMethod("GET", new LambdaIntegration(liveAlias(listJournalEntriesLambda)));
 
         	Resource journalEntry = journalClient.addResource("{journalEntryId}");
-        	journalEntry.addMethod("GET", new LambdaIntegration(getJournalEntryLambda));
-        	journalEntry.addMethod("PUT", new LambdaIntegration(updateJournalEntryLambda));
-        	journalEntry.addMethod("DELETE", new LambdaIntegration(deleteJournalEntryLambda));
+        	journalEntry.addMethod("GET", new LambdaIntegration(liveAlias(getJournalEntryLambda)));
+        	journalEntry.addMethod("PUT", new LambdaIntegration(liveAlias(updateJournalEntryLambda)));
+        	journalEntry.addMethod("DELETE", new LambdaIntegration(liveAlias(deleteJournalEntryLambda)));
+
+        	Resource moodTrends = journalClient.addResource("mood-trends");
+        	moodTrends.addMethod("GET", new LambdaIntegration(liveAlias(getMoodTrendsLambda)));
 
         	// Journal permissions
         	Resource permissions = journalClient.addResource("journal-access-permissions");
-        	permissions.addMethod("PUT", new LambdaIntegration(updateJournalPermissionsLambda));
+        	permissions.addMethod("PUT", new LambdaIntegration(liveAlias(updateJournalPermissionsLambda)));
 
         	Resource accessRequests = journalClient.addResource("access-requests");
-        	accessRequests.addMethod("GET", new LambdaIntegration(listJournalAccessRequestsLambda));
+        	accessRequests.addMethod("GET", new LambdaIntegration(liveAlias(listJournalAccessRequestsLambda)));
 
         	Resource approve = journalClient.addResource("approve");
-        	approve.addMethod("POST", new LambdaIntegration(approveJournalAccessLambda));
+        	approve.addMethod("POST", new LambdaIntegration(liveAlias(approveJournalAccessLambda)));
 
         	// Therapist journal access
         	Resource journalTherapists = journal.addResource("therapists");
         	Resource therapistJournal = journalTherapists.addResource("{therapistId}");
         	Resource requestAccess = therapistJournal.addResource("request-access");
-        	requestAccess.addMethod("POST", new LambdaIntegration(requestJournalAccessLambda));
+        	requestAccess.addMethod("POST", new LambdaIntegration(liveAlias(requestJournalAccessLambda)));
 
         	// ====================== SESSION MANAGEMENT ======================
         	Resource therapistSessions = sessions.addResource("{therapistId}");
         	Resource specificSession = therapistSessions.addResource("{sessionId}");
-        	specificSession.addMethod("GET", new LambdaIntegration(getSessionLambda));
-        	specificSession.addMethod("PUT", new LambdaIntegration(updateSessionLambda));
-        	specificSession.addMethod("DELETE", new LambdaIntegration(deleteSessionLambda));
+        	specificSession.addMethod("GET", new LambdaIntegration(liveAlias(getSessionLambda)));
+        	specificSession.addMethod("PUT", new LambdaIntegration(liveAlias(updateSessionLambda)));
+        	specificSession.addMethod("DELETE", new LambdaIntegration(liveAlias(deleteSessionLambda)));
 
         	// ====================== MESSAGES ======================
-        	messages.addMethod("POST", new LambdaIntegration(createMessageLambda));
-        	messages.addMethod("GET", new LambdaIntegration(listMessagesLambda));
+        	messages.addMethod("POST", new LambdaIntegration(liveAlias(createMessageLambda)));
+        	messages.addMethod("GET", new LambdaIntegration(liveAlias(listMessagesLambda)));
+
+        	Resource inbox = messages.addResource("inbox").addResource("{userId}");
+        	inbox.addMethod("GET", new LambdaIntegration(liveAlias(getInboxLambda)));
 
         	Resource message = messages.addResource("{messageId}");
-        	message.addMethod("GET", new LambdaIntegration(getMessageLambda));
-        	message.addMethod("PUT", new LambdaIntegration(updateMessageLambda));
-        	message.addMethod("DELETE", new LambdaIntegration(deleteMessageLambda));
+        	message.addMethod("GET", new LambdaIntegration(liveAlias(getMessageLambda)));
+        	message.addMethod("PUT", new LambdaIntegration(liveAlias(updateMessageLambda)));
+        	message.addMethod("DELETE", new LambdaIntegration(liveAlias(deleteMessageLambda)));
 
         	// ====================== SEARCH ENDPOINTS ======================
         	Resource clientSearch = client.addResource("search");
-        	clientSearch.addMethod("GET", new LambdaIntegration(clientSearchLambda));
+        	clientSearch.addMethod("GET", new LambdaIntegration(liveAlias(clientSearchLambda)));
 
         	Resource therapistSearch = therapist.addResource("search");
-        	therapistSearch.addMethod("GET", new LambdaIntegration(therapistSearchLambda));
+        	therapistSearch.addMethod("GET", new LambdaIntegration(liveAlias(therapistSearchLambda)));
+    }
+
+    // SnapStart only applies to published versions, so API Gateway invokes a "live" alias that
+    // tracks the latest version instead of $LATEST. aws-cdk-lib 2.90 has no builder option yet.
+    private Alias liveAlias(Function function) {
+        ((CfnFunction) function.getNode().getDefaultChild()).setSnapStart(
+            CfnFunction.SnapStartProperty.builder().applyOn("PublishedVersions").build());
+        return function.addAlias("live");
     }
 }
@@ -0,0 +1,102 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AvailabilityCalendarTest {
+    private static final String DATE = "2024-01-01";
+
+    private static AvailabilityCalendar.Day emptyDay() {
+        return AvailabilityCalendar.Day.fromItem(Map.of(
+            "TherapistId", AttributeValue.builder().s("t1").build(),
+            "date", AttributeValue.builder().s(DATE).build(),
+            "slots", AttributeValue.builder().b(SdkBytes.fromByteArray(new byte[0])).build(),
+            "open", AttributeValue.builder().b(SdkBytes.fromByteArray(new byte[0])).build(),
+            "version", AttributeValue.builder().n("0").build()));
+    }
+
+    @Test
+    public void overlapsOnlyTakenTime() {
+        AvailabilityCalendar.Day day = emptyDay();
+        day.addSlot("09:00", "09:50", true);
+
+        assertTrue(day.overlaps("09:30", "10:30"));
+        assertTrue(day.overlaps("08:00", "09:05"));
+        assertFalse(day.overlaps("08:00", "09:00"));
+        assertFalse(day.overlaps("09:50", "10:40"));
+    }
+
+    @Test
+    public void partialCellsCountAsTaken() {
+        AvailabilityCalendar.Day day = emptyDay();
+        day.addSlot("09:00", "09:52", true);
+
+        assertTrue(day.overlaps("09:53", "10:00"));
+        assertFalse(day.overlaps("09:55", "10:00"));
+    }
+
+    @Test
+    public void bookedSlotsStillOverlap() {
+        AvailabilityCalendar.Day day = emptyDay();
+        day.addSlot("09:00", "09:50", false);
+
+        assertTrue(day.overlaps("09:00", "09:50"));
+        assertEquals(List.of(), day.openWindows());
+    }
+
+    @Test
+    public void openWindowsMergeAdjacentSlots() {
+        AvailabilityCalendar.Day day = emptyDay();
+        day.addSlot("09:00", "09:30", true);
+        day.addSlot("09:30", "10:00", true);
+        day.addSlot("11:00", "11:50", true);
+
+        assertEquals(List.of(
+            new AvailabilityCalendar.Window(DATE, "09:00", "10:00"),
+            new AvailabilityCalendar.Window(DATE, "11:00", "11:50")), day.openWindows());
+    }
+
+    @Test
+    public void closeAndReopenChangeOnlyFreeTime() {
+        AvailabilityCalendar.Day day = emptyDay();
+        day.addSlot("09:00", "10:00", true);
+
+        day.close("09:00", "09:30");
+        assertEquals(List.of(new AvailabilityCalendar.Window(DATE, "09:30", "10:00")), day.openWindows());
+        assertTrue(day.overlaps("09:00", "09:30"));
+
+        day.reopen("09:00", "09:30");
+        assertEquals(List.of(new AvailabilityCalendar.Window(DATE, "09:00", "10:00")), day.openWindows());
+    }
+
+    @Test
+    public void windowRunningToMidnightEndsAt2400() {
+        AvailabilityCalendar.Day day = emptyDay();
+        day.addSlot("23:00", "23:59", true);
+
+        assertEquals(List.of(new AvailabilityCalendar.Window(DATE, "23:00", "24:00")), day.openWindows());
+    }
+
+    @Test
+    public void legacyTimesAreOffGrid() {
+        assertTrue(AvailabilityCalendar.onGrid("09:00", "09:50"));
+        assertFalse(AvailabilityCalendar.onGrid("9am", "10am"));
+        assertFalse(AvailabilityCalendar.onGrid("10:00", "09:00"));
+        assertFalse(AvailabilityCalendar.onGrid(null, "09:00"));
+        assertThrows(IllegalArgumentException.class, () -> emptyDay().overlaps("10:00", "10:00"));
+    }
+
+    @Test
+    public void unstoredDayIsNotStored() {
+        assertFalse(emptyDay().isStored());
+    }
+}
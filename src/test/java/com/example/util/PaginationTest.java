@@ -0,0 +1,104 @@
+package com.example.util;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PaginationTest {
+    private static final String SCOPE = "clients";
+    private static final Map<String, AttributeValue> KEY = Map.of(
+        "ClientId", AttributeValue.builder().s("c-1").build(),
+        "createdAt", AttributeValue.builder().n("1704067200").build());
+
+    @BeforeAll
+    public static void signingKey() {
+        Pagination.setSigningKey("test-signing-key");
+    }
+
+    @Test
+    public void tokenRoundTrips() {
+        String token = Pagination.encode(KEY, SCOPE);
+
+        assertEquals(KEY, Pagination.decode(token, SCOPE));
+    }
+
+    @Test
+    public void cursorsRoundTripInOrder() {
+        Map<String, Map<String, AttributeValue>> cursors = new LinkedHashMap<>();
+        cursors.put("0/2", KEY);
+        cursors.put("1/2", Map.of());
+
+        Map<String, Map<String, AttributeValue>> decoded =
+            Pagination.decodeCursors(Pagination.encodeCursors(cursors, SCOPE), SCOPE);
+
+        assertEquals(cursors, decoded);
+        assertEquals(List.of("0/2", "1/2"), List.copyOf(decoded.keySet()));
+    }
+
+    @Test
+    public void noKeyMeansNoToken() {
+        assertNull(Pagination.encode(null, SCOPE));
+        assertNull(Pagination.encode(Map.of(), SCOPE));
+        assertNull(Pagination.decode(null, SCOPE));
+        assertTrue(Pagination.decodeCursors(null, SCOPE).isEmpty());
+    }
+
+    @Test
+    public void rejectsTokenFromAnotherScope() {
+        String token = Pagination.encode(KEY, SCOPE);
+
+        assertThrows(IllegalArgumentException.class, () -> Pagination.decode(token, "therapists"));
+    }
+
+    @Test
+    public void rejectsTamperedBody() {
+        String token = Pagination.encode(KEY, SCOPE);
+        String signature = token.substring(token.indexOf('.') + 1);
+        String forgedBody = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            "{\"_\":{\"ClientId\":{\"S\":\"c-2\"}}}".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> Pagination.decode(forgedBody + "." + signature, SCOPE));
+    }
+
+    @Test
+    public void rejectsTamperedSignature() {
+        String token = Pagination.encode(KEY, SCOPE);
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertThrows(IllegalArgumentException.class, () -> Pagination.decode(tampered, SCOPE));
+    }
+
+    @Test
+    public void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> Pagination.decode("garbage", SCOPE));
+        assertThrows(IllegalArgumentException.class, () -> Pagination.decode(".signature", SCOPE));
+    }
+
+    @Test
+    public void multiCursorTokenIsNotASingleCursor() {
+        String token = Pagination.encodeCursors(Map.of("0/2", KEY), SCOPE);
+
+        assertThrows(IllegalArgumentException.class, () -> Pagination.decode(token, SCOPE));
+    }
+
+    @Test
+    public void limitIsClampedAndValidated() {
+        assertEquals(Pagination.DEFAULT_LIMIT, Pagination.limit(null));
+        assertEquals(Pagination.DEFAULT_LIMIT, Pagination.limit(Map.of("limit", "")));
+        assertEquals(10, Pagination.limit(Map.of("limit", "10")));
+        assertEquals(Pagination.MAX_LIMIT, Pagination.limit(Map.of("limit", "5000")));
+        assertThrows(IllegalArgumentException.class, () -> Pagination.limit(Map.of("limit", "0")));
+        assertThrows(IllegalArgumentException.class, () -> Pagination.limit(Map.of("limit", "ten")));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SlotRecurrenceTest {
+
+    // 2024-01-01 is a Monday
+    private static Map<String, Object> rules(String startDate, String endDate, List<String> days,
+                                             String startTime, String endTime) {
+        Map<String, Object> rules = new HashMap<>();
+        rules.put("startDate", startDate);
+        rules.put("endDate", endDate);
+        rules.put("slotMinutes", 50);
+        rules.put("breakMinutes", 10);
+        rules.put("weekly", List.of(Map.of("days", days, "startTime", startTime, "endTime", endTime)));
+        return rules;
+    }
+
+    @Test
+    public void laysSlotsBackToBackWithBreaks() {
+        List<SlotRecurrence.Slot> slots = SlotRecurrence.expand(
+            rules("2024-01-01", "2024-01-01", List.of("MONDAY"), "09:00", "11:00"));
+
+        assertEquals(List.of(
+            new SlotRecurrence.Slot("2024-01-01", "09:00", "09:50"),
+            new SlotRecurrence.Slot("2024-01-01", "10:00", "10:50")), slots);
+    }
+
+    @Test
+    public void dropsSlotRunningPastWindowEnd() {
+        List<SlotRecurrence.Slot> slots = SlotRecurrence.expand(
+            rules("2024-01-01", "2024-01-01", List.of("MONDAY"), "09:00", "10:40"));
+
+        assertEquals(List.of(new SlotRecurrence.Slot("2024-01-01", "09:00", "09:50")), slots);
+    }
+
+    @Test
+    public void onlyUsesListedDaysAndSkipsExcludedDates() {
+        Map<String, Object> rules = rules("2024-01-01", "2024-01-14", List.of("monday", "WEDNESDAY"), "09:00", "09:50");
+        rules.put("excludeDates", List.of("2024-01-03"));
+
+        List<String> dates = SlotRecurrence.expand(rules).stream().map(SlotRecurrence.Slot::date).toList();
+
+        assertEquals(List.of("2024-01-01", "2024-01-08", "2024-01-10"), dates);
+    }
+
+    @Test
+    public void windowEndingAtMidnightStaysOnItsDay() {
+        List<SlotRecurrence.Slot> slots = SlotRecurrence.expand(
+            rules("2024-01-01", "2024-01-01", List.of("MONDAY"), "22:00", "23:59"));
+
+        assertEquals(List.of(
+            new SlotRecurrence.Slot("2024-01-01", "22:00", "22:50"),
+            new SlotRecurrence.Slot("2024-01-01", "23:00", "23:50")), slots);
+    }
+
+    @Test
+    public void rejectsInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> SlotRecurrence.expand(
+            rules("2024-01-02", "2024-01-01", List.of("MONDAY"), "09:00", "17:00")));
+        assertThrows(IllegalArgumentException.class, () -> SlotRecurrence.expand(
+            rules("2024-01-01", "2025-06-01", List.of("MONDAY"), "09:00", "17:00")));
+        assertThrows(IllegalArgumentException.class, () -> SlotRecurrence.expand(
+            rules("2024-01-01", "2024-01-07", List.of("FUNDAY"), "09:00", "17:00")));
+        assertThrows(IllegalArgumentException.class, () -> SlotRecurrence.expand(
+            rules("2024-01-01", "2024-01-07", List.of("MONDAY"), "17:00", "09:00")));
+        assertThrows(IllegalArgumentException.class, () -> SlotRecurrence.expand(
+            rules("2024-01-01", "2024-01-07", List.of("MONDAY"), "9am", "17:00")));
+
+        Map<String, Object> noWindows = rules("2024-01-01", "2024-01-07", List.of("MONDAY"), "09:00", "17:00");
+        noWindows.put("weekly", List.of());
+        assertThrows(IllegalArgumentException.class, () -> SlotRecurrence.expand(noWindows));
+
+        Map<String, Object> shortSlots = rules("2024-01-01", "2024-01-07", List.of("MONDAY"), "09:00", "17:00");
+        shortSlots.put("slotMinutes", 4);
+        assertThrows(IllegalArgumentException.class, () -> SlotRecurrence.expand(shortSlots));
+    }
+
+    @Test
+    public void refusesRulesExpandingPastMaxSlots() {
+        Map<String, Object> rules = rules("2024-01-01", "2024-12-31",
+            List.of("MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY"), "08:00", "20:00");
+        rules.put("slotMinutes", 5);
+        rules.put("breakMinutes", 0);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> SlotRecurrence.expand(rules));
+        assertTrue(e.getMessage().contains(String.valueOf(SlotRecurrence.MAX_SLOTS)));
+    }
+}